@@ -0,0 +1,142 @@
+/*
+ *  Copyright (c) 2012-2017, Jan Bernitt
+ *
+ *  Licensed under the Apache License, Version 2.0, http://www.apache.org/licenses/LICENSE-2.0
+ */
+package se.jbee.inject.bench;
+
+import static se.jbee.inject.Type.raw;
+import static se.jbee.inject.action.ActionModule.actionDependency;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.jbee.inject.Injector;
+import se.jbee.inject.Type;
+import se.jbee.inject.UnresolvableDependency.SupplyFailed;
+import se.jbee.inject.action.Action;
+import se.jbee.inject.action.ActionMalfunction;
+import se.jbee.inject.action.ActionModule;
+import se.jbee.inject.action.Executor;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.bootstrap.Supply;
+
+/**
+ * {@link Action#exec(Object)} of actions with and without implicit arguments
+ * compared to calling the implementing method directly and to the reflective
+ * dispatch used with a custom {@link Executor}.
+ *
+ * @author Jan Bernitt (jan@jbee.se)
+ */
+@State ( Scope.Benchmark )
+@BenchmarkMode ( Mode.AverageTime )
+@OutputTimeUnit ( TimeUnit.NANOSECONDS )
+@Warmup ( iterations = 3, time = 1 )
+@Measurement ( iterations = 5, time = 1 )
+@Fork ( 1 )
+public class ActionBench {
+
+	public static class Calculator {
+
+		public Integer negate( Integer value ) {
+			return -value;
+		}
+
+		public Long scale( Long value, Integer factor ) {
+			return value * factor;
+		}
+	}
+
+	public static final class ActionBenchModule
+			extends ActionModule {
+
+		@Override
+		protected void declare() {
+			bindActionsIn( Calculator.class );
+			bind( Integer.class ).to( 3 );
+		}
+	}
+
+	/**
+	 * Invokes the action method reflectively like the default {@link Executor}
+	 * did before actions were compiled to method handles.
+	 */
+	public static final class ReflectiveExecutor
+			implements Executor {
+
+		@Override
+		public <I, O> O exec( Object impl, Method action, Object[] args, Type<O> output, Type<I> input, I value ) {
+			try {
+				return output.rawType.cast( Supply.method( action, impl, args ) );
+			} catch ( SupplyFailed e ) {
+				throw new ActionMalfunction( "Exception on invocation of the action", e.getCause() );
+			}
+		}
+	}
+
+	public static final class ReflectiveActionBenchModule
+			extends ActionModule {
+
+		@Override
+		protected void declare() {
+			bindActionsIn( Calculator.class );
+			bind( Integer.class ).to( 3 );
+			bind( Executor.class ).to( ReflectiveExecutor.class );
+		}
+	}
+
+	Action<Integer, Integer> negate;
+	Action<Long, Long> scale;
+	Action<Integer, Integer> reflectiveNegate;
+	Action<Long, Long> reflectiveScale;
+	Calculator calculator = new Calculator();
+	Integer input = 42;
+	Long longInput = 42L;
+
+	@Setup ( Level.Trial )
+	public void setup() {
+		Injector injector = Bootstrap.injector( ActionBenchModule.class );
+		negate = injector.resolve( actionDependency( raw( Integer.class ), raw( Integer.class ) ) );
+		scale = injector.resolve( actionDependency( raw( Long.class ), raw( Long.class ) ) );
+		Injector reflective = Bootstrap.injector( ReflectiveActionBenchModule.class );
+		reflectiveNegate = reflective.resolve( actionDependency( raw( Integer.class ), raw( Integer.class ) ) );
+		reflectiveScale = reflective.resolve( actionDependency( raw( Long.class ), raw( Long.class ) ) );
+	}
+
+	@Benchmark
+	public Integer exec() {
+		return negate.exec( input );
+	}
+
+	@Benchmark
+	public Long execWithImplicitArgument() {
+		return scale.exec( longInput );
+	}
+
+	@Benchmark
+	public Integer execReflective() {
+		return reflectiveNegate.exec( input );
+	}
+
+	@Benchmark
+	public Long execWithImplicitArgumentReflective() {
+		return reflectiveScale.exec( longInput );
+	}
+
+	@Benchmark
+	public Integer java() {
+		return calculator.negate( input );
+	}
+}
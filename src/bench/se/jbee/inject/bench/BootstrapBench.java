@@ -0,0 +1,109 @@
+/*
+ *  Copyright (c) 2012-2017, Jan Bernitt
+ *
+ *  Licensed under the Apache License, Version 2.0, http://www.apache.org/licenses/LICENSE-2.0
+ */
+package se.jbee.inject.bench;
+
+import static se.jbee.inject.Name.named;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.jbee.inject.Injector;
+import se.jbee.inject.bind.BinderModule;
+import se.jbee.inject.bootstrap.Binding;
+import se.jbee.inject.bootstrap.Bindings;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.bootstrap.Inspect;
+import se.jbee.inject.bootstrap.Macros;
+import se.jbee.inject.bootstrap.Module;
+
+/**
+ * {@link Bootstrap#injector(Bindings, Module[])} and
+ * {@link Binding#disambiguate(Binding[])} for synthetic {@link Module}s with
+ * 100 to 10k bindings in total. Each module declares 100 bindings, half of
+ * them constants, half of them constructors.
+ *
+ * @author Jan Bernitt (jan@jbee.se)
+ */
+@State ( Scope.Benchmark )
+@BenchmarkMode ( Mode.AverageTime )
+@OutputTimeUnit ( TimeUnit.MICROSECONDS )
+@Warmup ( iterations = 3, time = 2 )
+@Measurement ( iterations = 5, time = 2 )
+@Fork ( 1 )
+public class BootstrapBench {
+
+	private static final int BINDINGS_PER_MODULE = 100;
+
+	public static class Service {
+		// just something to construct
+	}
+
+	static final class SyntheticModule
+			extends BinderModule {
+
+		private final int first;
+
+		SyntheticModule( int first ) {
+			super();
+			this.first = first;
+		}
+
+		@Override
+		protected void declare() {
+			for ( int i = first; i < first + BINDINGS_PER_MODULE; i += 2 ) {
+				bind( named( "c" + i ), Integer.class ).to( i );
+				bind( named( "s" + i ), Service.class ).toConstructor();
+			}
+		}
+	}
+
+	@Param ( { "100", "1000", "10000" } )
+	int bindings;
+
+	Binding<?>[] declared;
+
+	@Setup ( Level.Trial )
+	public void setup() {
+		declared = bindings().declareFrom( modules() );
+	}
+
+	/**
+	 * @return new modules as a {@link BinderModule} can only be declared once
+	 */
+	private Module[] modules() {
+		Module[] modules = new Module[bindings / BINDINGS_PER_MODULE];
+		for ( int i = 0; i < modules.length; i++ ) {
+			modules[i] = new SyntheticModule( i * BINDINGS_PER_MODULE );
+		}
+		return modules;
+	}
+
+	private static Bindings bindings() {
+		return Bindings.bindings( Macros.DEFAULT, Inspect.DEFAULT );
+	}
+
+	@Benchmark
+	public Injector injector() {
+		return Bootstrap.injector( bindings(), modules() );
+	}
+
+	@Benchmark
+	public Binding<?>[] disambiguate() {
+		return Binding.disambiguate( declared.clone() ); // sorts in place
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ *  Copyright (c) 2012-2017, Jan Bernitt
+ *
+ *  Licensed under the Apache License, Version 2.0, http://www.apache.org/licenses/LICENSE-2.0
+ */
+package se.jbee.inject.bench;
+
+import static se.jbee.inject.Dependency.dependency;
+import static se.jbee.inject.bootstrap.Inspect.all;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.jbee.inject.Dependency;
+import se.jbee.inject.Injector;
+import se.jbee.inject.bind.BinderModule;
+import se.jbee.inject.bootstrap.Bindings;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.bootstrap.Inspect;
+import se.jbee.inject.bootstrap.Macros;
+import se.jbee.inject.bootstrap.Module;
+import se.jbee.inject.container.Scoped;
+
+/**
+ * Creation of {@link Scoped#INJECTION} instances by constructor and by factory
+ * method (with an {@link Engine} created by constructor) using reflection ({@link Macros#DEFAULT}) compared to
+ * {@link java.lang.invoke.MethodHandle}s ({@link Macros#HANDLES}) and to
+ * plain java code.
+ *
+ * @author Jan Bernitt (jan@jbee.se)
+ */
+@State ( Scope.Benchmark )
+@BenchmarkMode ( Mode.AverageTime )
+@OutputTimeUnit ( TimeUnit.NANOSECONDS )
+@Warmup ( iterations = 3, time = 1 )
+@Measurement ( iterations = 5, time = 1 )
+@Fork ( 1 )
+public class ConstructionBench {
+
+	public static class Engine {
+
+		final String name;
+		final Integer cylinders;
+
+		public Engine( String name, Integer cylinders ) {
+			this.name = name;
+			this.cylinders = cylinders;
+		}
+	}
+
+	public static class Car {
+
+		final Engine engine;
+
+		Car( Engine engine ) {
+			this.engine = engine;
+		}
+	}
+
+	public static final class ConstructionBenchModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			per( Scoped.INJECTION ).bind( Engine.class ).toConstructor();
+			per( Scoped.INJECTION ).bind( all().methods() ).inModule();
+			bind( String.class ).to( "V" );
+			bind( Integer.class ).to( 8 );
+		}
+
+		public static Car car( Engine engine ) {
+			return new Car( engine );
+		}
+	}
+
+	Injector reflection;
+	Injector handles;
+	Dependency<Engine> engine = dependency( Engine.class );
+	Dependency<Car> car = dependency( Car.class );
+	String name = "V";
+	Integer cylinders = 8;
+
+	@Setup ( Level.Trial )
+	public void setup() {
+		reflection = injector( Macros.DEFAULT );
+		handles = injector( Macros.HANDLES );
+	}
+
+	private static Injector injector( Macros macros ) {
+		return Bootstrap.injector( Bindings.bindings( macros, Inspect.DEFAULT ),
+				new Module[] { new ConstructionBenchModule() } );
+	}
+
+	@Benchmark
+	public Engine constructorReflection() {
+		return reflection.resolve( engine );
+	}
+
+	@Benchmark
+	public Engine constructorHandle() {
+		return handles.resolve( engine );
+	}
+
+	@Benchmark
+	public Engine constructorJava() {
+		return new Engine( name, cylinders );
+	}
+
+	@Benchmark
+	public Car factoryMethodReflection() {
+		return reflection.resolve( car );
+	}
+
+	@Benchmark
+	public Car factoryMethodHandle() {
+		return handles.resolve( car );
+	}
+
+	@Benchmark
+	public Car factoryMethodJava() {
+		return ConstructionBenchModule.car( new Engine( name, cylinders ) );
+	}
+}
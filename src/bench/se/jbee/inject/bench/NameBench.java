@@ -0,0 +1,62 @@
+/*
+ *  Copyright (c) 2012-2017, Jan Bernitt
+ *
+ *  Licensed under the Apache License, Version 2.0, http://www.apache.org/licenses/LICENSE-2.0
+ */
+package se.jbee.inject.bench;
+
+import static se.jbee.inject.Name.named;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.jbee.inject.Name;
+
+/**
+ * {@link Name#isCompatibleWith(Name)} with its precompiled patterns compared
+ * to the former implementation that used {@link String#matches(String)}.
+ *
+ * @author Jan Bernitt (jan@jbee.se)
+ */
+@State ( Scope.Benchmark )
+@BenchmarkMode ( Mode.AverageTime )
+@OutputTimeUnit ( TimeUnit.NANOSECONDS )
+@Warmup ( iterations = 3, time = 1 )
+@Measurement ( iterations = 5, time = 1 )
+@Fork ( 1 )
+public class NameBench {
+
+	@Param ( { "se.jbee.inject.Plugin:*", "*:feature", "se.*.Plugin:*", "se.jbee.inject.Plugin:feature" } )
+	String pattern;
+
+	String value = "se.jbee.inject.Plugin:feature";
+	Name name;
+	Name wildcard;
+
+	@Setup
+	public void setup() {
+		name = named( value );
+		wildcard = named( pattern );
+	}
+
+	@Benchmark
+	public boolean precompiled() {
+		return name.isCompatibleWith( wildcard );
+	}
+
+	@Benchmark
+	public boolean regex() {
+		return value.matches( pattern.replace( "*", ".*" ) );
+	}
+}
@@ -0,0 +1,190 @@
+/*
+ *  Copyright (c) 2012-2017, Jan Bernitt
+ *
+ *  Licensed under the Apache License, Version 2.0, http://www.apache.org/licenses/LICENSE-2.0
+ */
+package se.jbee.inject.bench;
+
+import static se.jbee.inject.Dependency.dependency;
+import static se.jbee.inject.Name.named;
+import static se.jbee.inject.Type.raw;
+import static se.jbee.inject.container.Typecast.listTypeOf;
+import static se.jbee.inject.container.Typecast.providerTypeOf;
+import static se.jbee.inject.container.Typecast.setTypeOf;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.jbee.inject.Dependency;
+import se.jbee.inject.Injector;
+import se.jbee.inject.Type;
+import se.jbee.inject.bind.BinderModule;
+import se.jbee.inject.bind.BuildinBundle;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.bootstrap.BootstrapperBundle;
+import se.jbee.inject.container.Provider;
+import se.jbee.inject.container.Scoped;
+
+/**
+ * {@link Injector#resolve(Dependency)} for the different kinds of
+ * {@link Dependency}s: named, targeted, with wildcard types, arrays and the
+ * {@link Provider}, {@link List} and {@link Set} bridges.
+ *
+ * @see ScopeBench
+ *
+ * @author Jan Bernitt (jan@jbee.se)
+ */
+@State ( Scope.Thread )
+@BenchmarkMode ( Mode.AverageTime )
+@OutputTimeUnit ( TimeUnit.NANOSECONDS )
+@Warmup ( iterations = 3, time = 1 )
+@Measurement ( iterations = 5, time = 1 )
+@Fork ( 1 )
+public class ResolveBench {
+
+	static final Map<String, se.jbee.inject.container.Scope> SCOPES = new LinkedHashMap<>();
+
+	static {
+		SCOPES.put( "application", Scoped.APPLICATION );
+		SCOPES.put( "injection", Scoped.INJECTION );
+		SCOPES.put( "thread", Scoped.THREAD );
+		SCOPES.put( "striped", Scoped.STRIPED );
+		SCOPES.put( "request", Scoped.REQUEST );
+		SCOPES.put( "target-class", Scoped.TARGET_CLASS );
+		SCOPES.put( "dependency-type", Scoped.DEPENDENCY_TYPE );
+		SCOPES.put( "dependency-instance", Scoped.DEPENDENCY_INSTANCE );
+		SCOPES.put( "target-instance", Scoped.TARGET_INSTANCE );
+		SCOPES.put( "dependency", Scoped.DEPENDENCY );
+		SCOPES.put( "pooled", Scoped.pooled( 1, 4 ) );
+		SCOPES.put( "time-to-live", Scoped.timeToLive( 1, TimeUnit.MINUTES ) );
+		SCOPES.put( "lru", Scoped.lru( Scoped.DEPENDENCY_TYPE_KEY, 16 ) );
+		SCOPES.put( "soft", Scoped.softly( Scoped.DEPENDENCY_TYPE_KEY ) );
+	}
+
+	/**
+	 * The {@link #SCOPES} that only lend their instances through a lease.
+	 */
+	static final Set<String> LENDING = new HashSet<>( Arrays.asList( "striped", "pooled" ) );
+
+	public static class Service {
+		// just something to create
+	}
+
+	public static class Client {
+		// just a target
+	}
+
+	static class ResolveBenchModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			for ( Map.Entry<String, se.jbee.inject.container.Scope> e : SCOPES.entrySet() ) {
+				per( e.getValue() ).bind( named( e.getKey() ), Service.class ).toConstructor();
+			}
+			bind( Service.class ).toConstructor();
+			for ( int i = 0; i < 100; i++ ) {
+				bind( named( "n" + i ), Integer.class ).to( i );
+			}
+			bind( Integer.class ).to( -1 );
+			injectingInto( Client.class ).bind( Integer.class ).to( -2 );
+			bind( listTypeOf( Long.class ) ).to( Arrays.asList( 1L, 2L, 3L ) );
+		}
+	}
+
+	static class ResolveBenchBundle
+			extends BootstrapperBundle {
+
+		@Override
+		protected void bootstrap() {
+			install( ResolveBenchModule.class );
+			install( BuildinBundle.PROVIDER );
+			install( BuildinBundle.LEASE );
+			install( BuildinBundle.LIST );
+			install( BuildinBundle.SET );
+		}
+	}
+
+	private static final Type<? extends List<? extends Number>> NUMBERS = listTypeOf( raw( Number.class ).asUpperBound() );
+
+	Injector injector;
+
+	Dependency<Integer> named = dependency( Integer.class ).named( "n42" );
+	Dependency<Integer> targeted = dependency( Integer.class ).injectingInto( Client.class );
+	Dependency<? extends List<? extends Number>> wildcard = dependency( NUMBERS );
+	Dependency<Integer[]> array = dependency( Integer[].class );
+	Dependency<Provider<Service>> provider = dependency( providerTypeOf( Service.class ) );
+	Dependency<List<Integer>> list = dependency( listTypeOf( Integer.class ) );
+	Dependency<Set<Integer>> set = dependency( setTypeOf( Integer.class ) );
+
+	Provider<Service> resolvedProvider;
+
+	@Setup ( Level.Trial )
+	public void setup() {
+		injector = Bootstrap.injector( ResolveBenchBundle.class );
+		resolvedProvider = injector.resolve( provider );
+	}
+
+	@Benchmark
+	public Integer byName() {
+		return injector.resolve( named );
+	}
+
+	@Benchmark
+	public Integer byTarget() {
+		return injector.resolve( targeted );
+	}
+
+	@Benchmark
+	public List<? extends Number> byWildcard() {
+		return injector.resolve( wildcard );
+	}
+
+	@Benchmark
+	public Integer[] array() {
+		return injector.resolve( array );
+	}
+
+	/**
+	 * Resolves the {@link Provider} and uses it once.
+	 */
+	@Benchmark
+	public Service providerBridge() {
+		return injector.resolve( provider ).provide();
+	}
+
+	/**
+	 * Uses a {@link Provider} resolved before.
+	 */
+	@Benchmark
+	public Service provide() {
+		return resolvedProvider.provide();
+	}
+
+	@Benchmark
+	public List<Integer> listBridge() {
+		return injector.resolve( list );
+	}
+
+	@Benchmark
+	public Set<Integer> setBridge() {
+		return injector.resolve( set );
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ *  Copyright (c) 2012-2017, Jan Bernitt
+ *
+ *  Licensed under the Apache License, Version 2.0, http://www.apache.org/licenses/LICENSE-2.0
+ */
+package se.jbee.inject.bench;
+
+import static se.jbee.inject.Dependency.dependency;
+import static se.jbee.inject.container.Typecast.leaseTypeOf;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.jbee.inject.Dependency;
+import se.jbee.inject.Injector;
+import se.jbee.inject.bench.ResolveBench.ResolveBenchBundle;
+import se.jbee.inject.bench.ResolveBench.Service;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.container.Lease;
+import se.jbee.inject.container.Scoped;
+
+/**
+ * {@link Injector#resolve(Dependency)} of an instance in each build-in
+ * {@link Scoped} scope. The {@link Scoped#REQUEST} is open during the entire
+ * run. Instances of scopes that only lend them are resolved as {@link Lease}
+ * that is closed right away.
+ *
+ * @author Jan Bernitt (jan@jbee.se)
+ */
+@State ( Scope.Thread )
+@BenchmarkMode ( Mode.AverageTime )
+@OutputTimeUnit ( TimeUnit.NANOSECONDS )
+@Warmup ( iterations = 3, time = 1 )
+@Measurement ( iterations = 5, time = 1 )
+@Fork ( 1 )
+public class ScopeBench {
+
+	@Param ( { "application", "injection", "thread", "striped", "request", "target-class", "dependency-type",
+		"dependency-instance", "target-instance", "dependency", "pooled", "time-to-live", "lru", "soft" } )
+	String scope;
+
+	Injector injector;
+	Scoped.Request request;
+	Dependency<Service> scoped;
+	Dependency<Lease<Service>> leased;
+
+	@Setup ( Level.Trial )
+	public void setup() {
+		injector = Bootstrap.injector( ResolveBenchBundle.class );
+		scoped = dependency( Service.class ).named( scope );
+		if ( ResolveBench.LENDING.contains( scope ) ) {
+			leased = dependency( leaseTypeOf( Service.class ) ).named( scope );
+		}
+		request = Scoped.REQUEST.open();
+	}
+
+	@TearDown ( Level.Trial )
+	public void tearDown() {
+		request.close();
+	}
+
+	@Benchmark
+	public Service resolve() {
+		if ( leased == null ) {
+			return injector.resolve( scoped );
+		}
+		try ( Lease<Service> lease = injector.resolve( leased ) ) {
+			return lease.get();
+		}
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ *  Copyright (c) 2012-2017, Jan Bernitt
+ *
+ *  Licensed under the Apache License, Version 2.0, http://www.apache.org/licenses/LICENSE-2.0
+ */
+package se.jbee.inject.bench;
+
+import static se.jbee.inject.Type.raw;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.jbee.inject.Type;
+
+/**
+ * {@link Type#isAssignableTo(Type)} and {@link Type#morePreciseThan(Type)} for
+ * raw, parameterized and wildcard {@link Type}s.
+ *
+ * @author Jan Bernitt (jan@jbee.se)
+ */
+@State ( Scope.Benchmark )
+@BenchmarkMode ( Mode.AverageTime )
+@OutputTimeUnit ( TimeUnit.NANOSECONDS )
+@Warmup ( iterations = 3, time = 1 )
+@Measurement ( iterations = 5, time = 1 )
+@Fork ( 1 )
+public class TypeBench {
+
+	Type<Integer> integer = raw( Integer.class );
+	Type<Serializable> serializable = raw( Serializable.class );
+	@SuppressWarnings ( "rawtypes" )
+	Type<ArrayList> arrayListOfString = raw( ArrayList.class ).parametized( String.class );
+	@SuppressWarnings ( "rawtypes" )
+	Type<List> listOfString = raw( List.class ).parametized( String.class );
+	@SuppressWarnings ( "rawtypes" )
+	Type<Collection> collectionOfWildcard = raw( Collection.class ).parametized(
+			raw( CharSequence.class ).asUpperBound() );
+
+	@Benchmark
+	public boolean isAssignableToRaw() {
+		return integer.isAssignableTo( serializable );
+	}
+
+	@Benchmark
+	public boolean isAssignableToParameterized() {
+		return arrayListOfString.isAssignableTo( listOfString );
+	}
+
+	@Benchmark
+	public boolean isAssignableToWildcard() {
+		return arrayListOfString.isAssignableTo( collectionOfWildcard );
+	}
+
+	@Benchmark
+	public boolean morePreciseThanRaw() {
+		return integer.morePreciseThan( serializable );
+	}
+
+	@Benchmark
+	public boolean morePreciseThanParameterized() {
+		return listOfString.morePreciseThan( collectionOfWildcard );
+	}
+}
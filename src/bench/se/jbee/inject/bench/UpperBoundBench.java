@@ -0,0 +1,131 @@
+/*
+ *  Copyright (c) 2012-2017, Jan Bernitt
+ *
+ *  Licensed under the Apache License, Version 2.0, http://www.apache.org/licenses/LICENSE-2.0
+ */
+package se.jbee.inject.bench;
+
+import static se.jbee.inject.Dependency.dependency;
+import static se.jbee.inject.Type.raw;
+import static se.jbee.inject.container.Typecast.injectronsTypeOf;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import se.jbee.inject.Dependency;
+import se.jbee.inject.Injector;
+import se.jbee.inject.Injectron;
+import se.jbee.inject.bind.BinderModule;
+import se.jbee.inject.bootstrap.Bindings;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.bootstrap.Inspect;
+import se.jbee.inject.bootstrap.Macros;
+import se.jbee.inject.bootstrap.Module;
+
+/**
+ * Resolution of upper bound arrays of instances and of {@link Injectron}s in a
+ * container with up to 10k bound raw types. All but 10 of the types are {@link Callable}s, the
+ * 10 others are {@link Runnable}s which are resolved by upper bound. Each
+ * bound type is a distinct class spun by the {@link LambdaMetafactory}.
+ *
+ * @author Jan Bernitt (jan@jbee.se)
+ */
+@State ( Scope.Benchmark )
+@BenchmarkMode ( Mode.AverageTime )
+@OutputTimeUnit ( TimeUnit.NANOSECONDS )
+@Warmup ( iterations = 3, time = 1 )
+@Measurement ( iterations = 5, time = 1 )
+@Fork ( 1 )
+public class UpperBoundBench {
+
+	private static final int RUNNABLES = 10;
+
+	static final class SyntheticTypesModule
+			extends BinderModule {
+
+		private final int types;
+
+		SyntheticTypesModule( int types ) {
+			super();
+			this.types = types;
+		}
+
+		@Override
+		protected void declare() {
+			for ( int i = 0; i < types; i++ ) {
+				Object instance = i < RUNNABLES
+					? lambda( Runnable.class, "run", void.class )
+					: lambda( Callable.class, "call", Object.class );
+				bindTo( instance.getClass(), instance );
+			}
+		}
+
+		private <T> void bindTo( Class<T> type, Object instance ) {
+			bind( type ).to( type.cast( instance ) );
+		}
+	}
+
+	@Param ( { "100", "1000", "10000" } )
+	int types;
+
+	Injector injector;
+
+	Dependency<? extends Runnable[]> array = dependency( raw( Runnable[].class ).asUpperBound() );
+	Dependency<? extends Injectron<? extends Runnable>[]> injectrons = dependency(
+			injectronsTypeOf( raw( Runnable.class ).asUpperBound() ) );
+
+	@Setup ( Level.Trial )
+	public void setup() {
+		injector = Bootstrap.injector( Bindings.bindings( Macros.DEFAULT, Inspect.DEFAULT ),
+				new Module[] { new SyntheticTypesModule( types ) } );
+	}
+
+	@Benchmark
+	public Runnable[] upperBoundArray() {
+		return injector.resolve( array );
+	}
+
+	@Benchmark
+	public Injectron<? extends Runnable>[] upperBoundInjectrons() {
+		return injector.resolve( injectrons );
+	}
+
+	public static Object nothing() {
+		return null;
+	}
+
+	/**
+	 * @return an instance of a new class implementing the given functional
+	 *         interface
+	 */
+	static Object lambda( Class<?> type, String method, Class<?> returnType ) {
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			MethodHandle impl = lookup.findStatic( UpperBoundBench.class, "nothing", MethodType.methodType( Object.class ) );
+			MethodType signature = MethodType.methodType( returnType );
+			CallSite site = LambdaMetafactory.metafactory( lookup, method, MethodType.methodType( type ), signature,
+					impl, signature );
+			return site.getTarget().invoke();
+		} catch ( Throwable e ) {
+			throw new IllegalStateException( e );
+		}
+	}
+}
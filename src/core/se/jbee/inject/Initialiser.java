@@ -22,4 +22,31 @@ public interface Initialiser {
 	 *            setup
 	 */
 	void init(Injector context);
+
+	/**
+	 * Async initialisers run on an {@link java.util.concurrent.Executor} so
+	 * that creating the {@link Injector} does not wait for them. The
+	 * executor used is the one bound for injection into {@link Initialiser}.
+	 * If there is none the container uses a few daemon threads of its own
+	 * (at most one per async initialiser and processor) that end when idle.
+	 * The container's {@link se.jbee.inject.container.Readiness} tells when
+	 * they are done.
+	 * 
+	 * @return true to run {@link #init(Injector)} asynchronously
+	 */
+	default boolean isAsync() {
+		return false;
+	}
+
+	/**
+	 * The initialiser is only run after all initialisers that are instances
+	 * of any of the returned types are done. This also holds for async ones
+	 * what means a non-async initialiser that depends on an async one has to
+	 * wait for it during the creation of the {@link Injector}.
+	 * 
+	 * @return the types of the initialisers this one depends upon
+	 */
+	default Class<?>[] after() {
+		return new Class<?>[0];
+	}
 }
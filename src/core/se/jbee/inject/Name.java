@@ -33,6 +33,14 @@ public final class Name
 	public static final Name ANY = new Name( WILDCARD );
 
 	private final String value;
+	/**
+	 * How this name matches other names when used as a pattern.
+	 */
+	private final Matching matching;
+	/**
+	 * The literal parts of the value between wildcards.
+	 */
+	private final String[] parts;
 
 	public static Name named( Object name ) {
 		return named(String.valueOf(name));
@@ -48,6 +56,35 @@ public final class Name
 	private Name( String value ) {
 		super();
 		this.value = value.intern();
+		this.parts = parts( value );
+		this.matching = matching( value, parts );
+	}
+
+	private enum Matching { ANY, EXACT, PREFIX, SUFFIX, GLOB }
+
+	private static String[] parts( String value ) {
+		if ( !value.contains( WILDCARD ) ) {
+			return new String[] { value };
+		}
+		return value.split( "\\*", -1 );
+	}
+
+	private static Matching matching( String value, String[] parts ) {
+		if ( parts.length == 1 ) {
+			return Matching.EXACT;
+		}
+		if ( value.replace( WILDCARD, "" ).isEmpty() ) {
+			return Matching.ANY;
+		}
+		if ( parts.length == 2 ) {
+			if ( parts[1].isEmpty() ) {
+				return Matching.PREFIX;
+			}
+			if ( parts[0].isEmpty() ) {
+				return Matching.SUFFIX;
+			}
+		}
+		return Matching.GLOB;
 	}
 
 	@Override
@@ -96,7 +133,48 @@ public final class Name
 	public boolean isCompatibleWith( Name other ) {
 		//noinspection StringEquality
 		return isAny() || other.isAny() || other.value == value
-				|| ( value.matches( other.value.replace( WILDCARD, ".*" ) ) );
+				|| other.matches( value );
+	}
+
+	/**
+	 * @return true in case the given name matches this name used as a pattern
+	 *         where {@link #WILDCARD}s match any sequence of characters.
+	 */
+	private boolean matches( String name ) {
+		switch ( matching ) {
+		case ANY:
+			return true;
+		case PREFIX:
+			return name.startsWith( parts[0] );
+		case SUFFIX:
+			return name.endsWith( parts[1] );
+		case GLOB:
+			return matchesGlob( name );
+		default:
+		case EXACT:
+			return name.equals( value );
+		}
+	}
+
+	private boolean matchesGlob( String name ) {
+		final int last = parts.length - 1;
+		final String head = parts[0];
+		final String tail = parts[last];
+		if ( name.length() < head.length() + tail.length()
+				|| !name.startsWith( head ) || !name.endsWith( tail ) ) {
+			return false;
+		}
+		int start = head.length();
+		final int end = name.length() - tail.length();
+		for ( int i = 1; i < last; i++ ) {
+			String part = parts[i];
+			int index = name.indexOf( part, start );
+			if ( index < 0 || index + part.length() > end ) {
+				return false;
+			}
+			start = index + part.length();
+		}
+		return true;
 	}
 
 	public static Name namedBy( Class<? extends Annotation> annotation, AnnotatedElement obj ) {
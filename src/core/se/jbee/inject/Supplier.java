@@ -22,4 +22,13 @@ public interface Supplier<T> {
 	 */
 	T supply( Dependency<? super T> dependency, Injector injector ) throws UnresolvableDependency;
 
+	/**
+	 * @return true, if this {@link Supplier} always supplies the same instance
+	 *         no matter the {@link Dependency}. Containers may then remember
+	 *         the instance independent of the scope it is bound in.
+	 */
+	default boolean isConstant() {
+		return false;
+	}
+
 }
@@ -5,6 +5,7 @@
  */
 package se.jbee.inject;
 
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.GenericArrayType;
@@ -32,6 +33,39 @@ import java.util.Set;
 public final class Type<T>
 		implements MorePreciseThan<Type<?>>, Parameter<T> {
 
+	/**
+	 * Number of {@link #isAssignableTo(Type)} outcomes remembered by each
+	 * type (a power of 2). An outcome replaces the one in the slot selected by
+	 * the hash of the other type.
+	 */
+	private static final int ASSIGNABLE_SLOTS = 32;
+
+	private static final Type<?>[] NO_PARAMETERS = new Type<?>[0];
+
+	/**
+	 * The canonical instances of all types with the same raw type.
+	 */
+	private static final ClassValue<Canonicals> CANONICAL = new ClassValue<Canonicals>() {
+
+		@Override
+		protected Canonicals computeValue( Class<?> type ) {
+			return new Canonicals();
+		}
+	};
+
+	/**
+	 * The canonical instance of the raw (not parameterized, exact) type for
+	 * each {@link Class}. This is the most common type so it can be looked up
+	 * without creating a candidate first.
+	 */
+	private static final ClassValue<Type<?>> RAW = new ClassValue<Type<?>>() {
+
+		@Override
+		protected Type<?> computeValue( Class<?> type ) {
+			return canonical( false, type, NO_PARAMETERS );
+		}
+	};
+
 	public static final Type<Object> OBJECT = Type.raw( Object.class );
 	public static final Type<Void> VOID = raw( Void.class );
 	public static final Type<?> WILDCARD = OBJECT.asUpperBound();
@@ -66,8 +100,28 @@ public final class Type<T>
 		return wildcards;
 	}
 
+	@SuppressWarnings ( "unchecked" )
 	public static <T> Type<T> raw( Class<T> type ) {
-		return new Type<>( type );
+		return (Type<T>) RAW.get( primitiveAsWrapper( type ) );
+	}
+
+	/**
+	 * All {@link Type}s are created through this method so that there is just
+	 * a single instance for each distinct type. Therefore types can be
+	 * compared by identity.
+	 */
+	@SuppressWarnings ( "unchecked" )
+	private static <T> Type<T> canonical( boolean upperBound, Class<T> rawType, Type<?>[] parameters ) {
+		Class<T> raw = primitiveAsWrapper( rawType );
+		int hash = hash( upperBound, raw, parameters );
+		Canonicals types = CANONICAL.get( raw );
+		Type<T> res = (Type<T>) types.get( upperBound, parameters, hash );
+		if ( res != null ) {
+			return res;
+		}
+		// the canonical instance must not share the array with the caller
+		return (Type<T>) types.add( new Type<>( upperBound, raw,
+				parameters.length == 0 ? NO_PARAMETERS : parameters.clone() ) );
 	}
 
 	private static Type<?>[] types( java.lang.reflect.Type[] parameters,
@@ -111,7 +165,7 @@ public final class Type<T>
 			Map<String, Type<?>> actualTypeArguments ) {
 		@SuppressWarnings ( "unchecked" )
 		Class<T> rawType = (Class<T>) type.getRawType();
-		return new Type<>( rawType, types( type.getActualTypeArguments(), actualTypeArguments ) );
+		return canonical( false, rawType, types( type.getActualTypeArguments(), actualTypeArguments ) );
 	}
 
 	public final Class<T> rawType;
@@ -122,19 +176,31 @@ public final class Type<T>
 	 */
 	private final boolean upperBound;
 
+	/**
+	 * Structural hash over raw type, parameters and upper bound.
+	 */
+	private final int hash;
+
+	/**
+	 * Results computed on demand. Kept with the type so that they are
+	 * released together with the type.
+	 */
+	private final Memo memo = new Memo();
+
 	private Type( boolean upperBound, Class<T> rawType, Type<?>[] parameters ) {
 		assert ( rawType != null );
-		this.rawType = primitiveAsWrapper( rawType );
-		this.params = parameters;
+		this.rawType = rawType;
+		this.params = parameters.length == 0 ? NO_PARAMETERS : parameters;
 		this.upperBound = upperBound;
+		this.hash = hash( upperBound, rawType, parameters );
 	}
 
-	private Type( Class<T> rawType, Type<?>[] parameters ) {
-		this( false, rawType, parameters );
-	}
-
-	private Type( Class<T> rawType ) {
-		this( false, rawType, new Type<?>[0] );
+	private static int hash( boolean upperBound, Class<?> rawType, Type<?>[] parameters ) {
+		int hash = rawType.hashCode();
+		for ( int i = 0; i < parameters.length; i++ ) {
+			hash = 31 * hash + parameters[i].hash;
+		}
+		return upperBound ? ~hash : hash;
 	}
 
 	@Override
@@ -165,7 +231,7 @@ public final class Type<T>
 	}
 
 	public Type<? extends T> upperBound( boolean upperBound ) {
-		return this.upperBound == upperBound ? this : new Type<>( upperBound, rawType, params );
+		return this.upperBound == upperBound ? this : canonical( upperBound, rawType, params );
 	}
 
 	public Type<? extends T> asExactType() {
@@ -175,34 +241,52 @@ public final class Type<T>
 	@SuppressWarnings ( "unchecked" )
 	public Type<T[]> addArrayDimension() {
 		Object proto = Array.newInstance( rawType, 0 );
-		return new Type<>( upperBound, (Class<T[]>) proto.getClass(), params );
+		return canonical( upperBound, (Class<T[]>) proto.getClass(), params );
 	}
 
+	/**
+	 * All {@link Type}s created through the factory methods are canonical
+	 * instances so that these are equal only if they are identical. Only
+	 * instances created reflectively (which the equals and hash-code contract
+	 * test does) need the structural comparison.
+	 */
 	public boolean equalTo( Type<?> other ) {
-		if ( this == other ) {
+		return this == other || hash == other.hash && equals( other );
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	/**
+	 * This is a structural comparison. Parameters are always canonical so
+	 * that they can be compared by identity.
+	 */
+	@Override
+	public boolean equals( Object obj ) {
+		if ( this == obj ) {
 			return true;
 		}
-		if ( rawType != other.rawType || params.length != other.params.length || upperBound != other.upperBound) {
+		if ( !( obj instanceof Type<?> ) ) {
+			return false;
+		}
+		Type<?> other = (Type<?>) obj;
+		return hash == other.hash && rawType == other.rawType && is( other.upperBound, other.params );
+	}
+
+	boolean is( boolean upperBound, Type<?>[] parameters ) {
+		if ( this.upperBound != upperBound || params.length != parameters.length ) {
 			return false;
 		}
 		for ( int i = 0; i < params.length; i++ ) {
-			if ( !params[i].equalTo( other.params[i] ) ) {
+			if ( params[i] != parameters[i] ) {
 				return false;
 			}
 		}
 		return true;
 	}
 
-	@Override
-	public int hashCode() {
-		return rawType.hashCode();
-	}
-
-	@Override
-	public boolean equals( Object obj ) {
-		return obj instanceof Type<?> && equalTo( (Type<?>) obj );
-	}
-
 	/**
 	 * @return in case of an array type the {@link Class#getComponentType()} with the same type
 	 *         parameters as this type or otherwise this type.
@@ -215,7 +299,7 @@ public final class Type<T>
 		while (baseType.isArray()) {
 			baseType = baseType.getComponentType();
 		}
-		return new Type<>( upperBound, (Class<B>)baseType, params );
+		return canonical( upperBound, (Class<B>)baseType, params );
 	}
 
 	/**
@@ -242,6 +326,22 @@ public final class Type<T>
 		if ( !isParameterized() || other.isRawType() ) {
 			return true; //raw type is ok - no parameters to check
 		}
+		Outcome[] assignable = memo.assignable;
+		if ( assignable == null ) {
+			assignable = new Outcome[ASSIGNABLE_SLOTS];
+			memo.assignable = assignable; // a lost race just loses remembered outcomes
+		}
+		int slot = other.hash & ( ASSIGNABLE_SLOTS - 1 );
+		Outcome res = assignable[slot];
+		if ( res != null && res.get() == other ) {
+			return res.assignable;
+		}
+		boolean assignableTo = isParameterizedAssignableTo( other );
+		assignable[slot] = new Outcome( other, assignableTo );
+		return assignableTo;
+	}
+
+	private boolean isParameterizedAssignableTo( Type<?> other ) {
 		if ( other.rawType == rawType ) { // both have the same rawType
 			return allParametersAreAssignableTo( other );
 		}
@@ -368,7 +468,7 @@ public final class Type<T>
 		for ( int i = 0; i < params.length; i++ ) {
 			parameters[i] = params[i].asUpperBound();
 		}
-		return new Type<>( upperBound, rawType, parameters );
+		return canonical( upperBound, rawType, parameters );
 	}
 
 	/**
@@ -401,7 +501,7 @@ public final class Type<T>
 
 	public Type<T> parametized( Type<?>... parameters ) {
 		checkTypeParameters( parameters );
-		return new Type<>( upperBound, rawType, parameters );
+		return canonical( upperBound, rawType, parameters );
 	}
 
 	@Override
@@ -477,7 +577,7 @@ public final class Type<T>
 		if ( supertype.getTypeParameters().length == 0 ) {
 			return raw( supertype ); // just for better performance 
 		}
-		for ( Type<?> s : type.supertypes() ) {
+		for ( Type<?> s : type.cachedSupertypes() ) {
 			if ( s.rawType == supertype ) {
 				return (Type<? extends S>) s;
 			}
@@ -490,7 +590,24 @@ public final class Type<T>
 	 *         direct super-class followed by the direct super-interfaces continuing by going up the
 	 *         type hierarchy.
 	 */
+	@SuppressWarnings ( "unchecked" )
 	public Type<? super T>[] supertypes() {
+		return (Type<? super T>[]) cachedSupertypes().clone();
+	}
+
+	/**
+	 * @return the shared array of {@link #supertypes()} - must not be modified!
+	 */
+	private Type<?>[] cachedSupertypes() {
+		Type<?>[] res = memo.supertypes;
+		if ( res == null ) {
+			res = computeSupertypes();
+			memo.supertypes = res;
+		}
+		return res;
+	}
+
+	private Type<?>[] computeSupertypes() {
 		Set<Type<?>> res = new LinkedHashSet<>();
 		Class<?> supertype = rawType;
 		java.lang.reflect.Type genericSupertype = null;
@@ -509,9 +626,7 @@ public final class Type<T>
 			genericSupertype = supertype.getGenericSuperclass();
 			supertype = supertype.getSuperclass();
 		}
-		@SuppressWarnings ( "unchecked" )
-		Type<? super T>[] supertypes = (Type<? super T>[]) res.toArray( new Type<?>[0] );
-		return supertypes;
+		return res.toArray( new Type<?>[0] );
 	}
 
 	private static <V> Map<String, Type<?>> actualTypeArguments( Type<V> type ) {
@@ -550,4 +665,138 @@ public final class Type<T>
 		if ( type == short.class )   return (Class<T>) Short.class;
 		throw new UnsupportedOperationException( "The primitive " + type + " cannot be wrapped yet!" );
 	}
-}
\ No newline at end of file
+
+	/**
+	 * The canonical instances of the types with the same raw type, hashed by
+	 * {@link Type#hash}. Types are referenced weakly so that a type like
+	 * <code>List&lt;Foo&gt;</code> does not keep <code>Foo</code> (and its
+	 * class loader) alive through the table of <code>List</code>. A type that
+	 * is no longer referenced is dropped and created anew when needed again, so
+	 * there is still just one instance at any point in time.
+	 *
+	 * Lookups do not lock. Entries are immutable so a lookup that does not see
+	 * the latest addition just falls back to {@link #add(Type)} which looks
+	 * again while holding the lock.
+	 */
+	private static final class Canonicals {
+
+		private volatile Entry[] table = new Entry[8];
+		private int size;
+
+		Type<?> get( boolean upperBound, Type<?>[] parameters, int hash ) {
+			Entry[] t = table;
+			for ( Entry e = t[hash & ( t.length - 1 )]; e != null; e = e.next ) {
+				if ( e.hash == hash ) {
+					Type<?> type = e.get();
+					if ( type != null && type.is( upperBound, parameters ) ) {
+						return type;
+					}
+				}
+			}
+			return null;
+		}
+
+		synchronized Type<?> add( Type<?> type ) {
+			Type<?> res = get( type.upperBound, type.params, type.hash );
+			if ( res != null ) {
+				return res;
+			}
+			if ( ++size > table.length * 3 / 4 ) {
+				rehash();
+			}
+			Entry[] t = table;
+			int i = type.hash & ( t.length - 1 );
+			t[i] = new Entry( type, live( t[i] ) );
+			return type;
+		}
+
+		/**
+		 * Drops the types no longer referenced and grows the table when still
+		 * more than half full.
+		 */
+		private void rehash() {
+			Entry[] t = table;
+			int live = 0;
+			for ( Entry head : t ) {
+				for ( Entry e = head; e != null; e = e.next ) {
+					if ( e.get() != null ) {
+						live++;
+					}
+				}
+			}
+			int length = t.length;
+			while ( live + 1 > length / 2 ) {
+				length *= 2;
+			}
+			Entry[] grown = new Entry[length];
+			for ( Entry head : t ) {
+				for ( Entry e = head; e != null; e = e.next ) {
+					Type<?> type = e.get();
+					if ( type != null ) {
+						int i = e.hash & ( length - 1 );
+						grown[i] = new Entry( type, grown[i] );
+					}
+				}
+			}
+			size = live + 1;
+			table = grown;
+		}
+
+		private static Entry live( Entry chain ) {
+			if ( chain == null ) {
+				return null;
+			}
+			Entry next = live( chain.next );
+			Type<?> type = chain.get();
+			if ( type == null ) {
+				return next;
+			}
+			return next == chain.next ? chain : new Entry( type, next );
+		}
+	}
+
+	private static final class Entry
+			extends WeakReference<Type<?>> {
+
+		final int hash;
+		final Entry next;
+
+		Entry( Type<?> type, Entry next ) {
+			super( type );
+			this.hash = type.hash;
+			this.next = next;
+		}
+	}
+
+	private static final class Memo {
+
+		/**
+		 * The {@link Type#supertypes()}.
+		 */
+		volatile Type<?>[] supertypes;
+
+		/**
+		 * The outcome of {@link Type#isAssignableTo(Type)} for other types,
+		 * only used by parameterized types. Slots are read and written without
+		 * locking; as outcomes are immutable a reader sees either an old or a
+		 * new outcome and a lost write just loses a remembered outcome.
+		 */
+		volatile Outcome[] assignable;
+	}
+
+	/**
+	 * A remembered outcome of {@link Type#isAssignableTo(Type)}. The other
+	 * (canonical) type is referenced weakly and compared by identity so that
+	 * remembering an outcome does not keep it (and its class loader) alive.
+	 */
+	private static final class Outcome
+			extends WeakReference<Type<?>> {
+
+		final boolean assignable;
+
+		Outcome( Type<?> other, boolean assignable ) {
+			super( other );
+			this.assignable = assignable;
+		}
+	}
+}
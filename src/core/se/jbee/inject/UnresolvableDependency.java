@@ -25,6 +25,7 @@ import se.jbee.inject.bootstrap.Binding;
  * @see NoResourceForDependency
  * @see NoMethodForDependency
  * @see SupplyFailed
+ * @see OutOfScope
  * 
  * @author Jan Bernitt (jan@jbee.se)
  */
@@ -70,6 +71,19 @@ public abstract class UnresolvableDependency
 
 	}
 
+	/**
+	 * A {@link Dependency} was resolved outside of the context its scope
+	 * needs, e.g. a request scoped instance when no request is open.
+	 */
+	public static final class OutOfScope
+			extends UnresolvableDependency {
+
+		public OutOfScope( Dependency<?> dependency, Object scope ) {
+			super( "No " + scope + " context open to resolve: " + dependency );
+		}
+
+	}
+
 	/**
 	 * An {@link Injector} couldn't find a {@link Resource} that matches a {@link Dependency} to
 	 * resolve.
@@ -16,7 +16,11 @@ import static se.jbee.inject.Type.returnType;
 import static se.jbee.inject.container.Scoped.APPLICATION;
 import static se.jbee.inject.container.Scoped.DEPENDENCY_TYPE;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.Map;
@@ -36,6 +40,7 @@ import se.jbee.inject.bootstrap.Inspector;
 import se.jbee.inject.bootstrap.Metaclass;
 import se.jbee.inject.bootstrap.Module;
 import se.jbee.inject.bootstrap.Supply;
+import se.jbee.inject.container.FlightEvents;
 import se.jbee.inject.container.Scoped;
 
 /**
@@ -86,6 +91,10 @@ public abstract class ActionModule
 
 	}
 	
+	/**
+	 * The default {@link Executor}. {@link Action}s using it do not call it
+	 * but invoke a {@link MethodHandle} compiled for the action method instead.
+	 */
 	static final class DirectExecutor implements Executor {
 
 		@Override
@@ -93,12 +102,16 @@ public abstract class ActionModule
 			try {
 				return output.rawType.cast(Supply.method(action, impl, args));
 			} catch (SupplyFailed e) {
-				Exception ex = e;
-				if ( e.getCause() instanceof Exception ) {
-					ex = (Exception) e.getCause();
-				}
-				throw new ActionMalfunction("Exception on invocation of the action", ex);
+				throw malfunction(e);
+			}
+		}
+
+		static ActionMalfunction malfunction(Throwable e) {
+			Throwable ex = e;
+			if ( e instanceof SupplyFailed && e.getCause() instanceof Exception ) {
+				ex = e.getCause();
 			}
+			return new ActionMalfunction("Exception on invocation of the action", ex);
 		}
 	}
 
@@ -201,6 +214,21 @@ public abstract class ActionModule
 
 		private final InjectionSite injection;
 		private final int inputIndex;
+
+		/**
+		 * The action method of type <code>(Object)Object</code> with the
+		 * implementation instance and all implicit arguments pre-bound so that
+		 * only the input is passed. Only used with the {@link DirectExecutor}
+		 * when all implicit arguments are {@link InjectionSite#isStatic()}.
+		 */
+		private final MethodHandle compiled;
+		/**
+		 * The action method of type <code>(Object[])Object</code> with the
+		 * implementation instance pre-bound. Used with the
+		 * {@link DirectExecutor} when some implicit arguments have to be
+		 * resolved for each call.
+		 */
+		private final MethodHandle spread;
 		
 		ExecutedAction(Object impl, Method action, Type<I> input, Type<O> output, Executor executor, Injector injector) {
 			super();
@@ -213,10 +241,72 @@ public abstract class ActionModule
 			Type<?>[] types = parameterTypes(action);
 			this.injection = new InjectionSite(dependency(output).injectingInto(action.getDeclaringClass()), injector, BoundParameter.bind(types, BoundParameter.constant(input, null)));
 			this.inputIndex = asList(types).indexOf(input);
+			MethodHandle compiled = null;
+			MethodHandle spread = null;
+			if (executor instanceof DirectExecutor) {
+				MethodHandle bound = Supply.unreflect(this.action);
+				if (!Modifier.isStatic(action.getModifiers())) {
+					bound = bound.bindTo(impl);
+				}
+				if (injection.isStatic()) {
+					compiled = compile(bound, injection.args(injector), inputIndex);
+				} else {
+					spread = Supply.spread(bound, types.length);
+				}
+			}
+			this.compiled = compiled;
+			this.spread = spread;
+		}
+
+		/**
+		 * Inserts all static arguments but the input (from last to first so
+		 * that indexes stay valid) and adapts the handle to
+		 * <code>(Object)Object</code>.
+		 */
+		private static MethodHandle compile(MethodHandle bound, Object[] args, int inputIndex) {
+			MethodHandle h = bound;
+			for (int i = args.length - 1; i >= 0; i--) {
+				if (i != inputIndex) {
+					h = MethodHandles.insertArguments(h, i, args[i]);
+				}
+			}
+			if (inputIndex < 0) {
+				return MethodHandles.dropArguments(h.asType(MethodType.methodType(Object.class)), 0, Object.class);
+			}
+			return h.asType(MethodType.methodType(Object.class, Object.class));
 		}
 		
 		@Override
 		public O exec(I input) throws ActionMalfunction {
+			if (!FlightEvents.ENABLED) {
+				return execute(input);
+			}
+			FlightEvents.Action event = new FlightEvents.Action();
+			event.begin();
+			try {
+				return execute(input);
+			} finally {
+				event.end();
+				if (event.shouldCommit()) {
+					event.action = action.getDeclaringClass().getSimpleName()+"."+action.getName();
+					event.input = this.input.rawType;
+					event.commit();
+				}
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private O execute(I input) throws ActionMalfunction {
+			if (compiled != null) {
+				try {
+					Object res = compiled.invokeExact((Object) input);
+					return (O) res;
+				} catch (Error e) {
+					throw e;
+				} catch (Throwable e) {
+					throw DirectExecutor.malfunction(e);
+				}
+			}
 			Object[] args = null;
 			try {
 				args = injection.args(injector);
@@ -224,8 +314,18 @@ public abstract class ActionModule
 				throw new ActionMalfunction("Failed to provide all implicit arguments", e);
 			}
 			if (inputIndex >= 0) {
+				if (injection.isStatic()) {
+					args = args.clone(); // the static array is shared between threads
+				}
 				args[inputIndex] = input;
 			}
+			if (spread != null) {
+				try {
+					return (O) Supply.handle(spread, action, args);
+				} catch (SupplyFailed e) {
+					throw DirectExecutor.malfunction(e);
+				}
+			}
 			return executor.exec(impl, action, args, output, this.input, input);
 		}
 	}
@@ -6,6 +6,7 @@
 package se.jbee.inject.bind;
 
 import static se.jbee.inject.container.Scoped.DEPENDENCY;
+import static se.jbee.inject.container.Scoped.INJECTION;
 import static se.jbee.inject.container.Scoped.TARGET_INSTANCE;
 
 import java.util.Collection;
@@ -16,6 +17,7 @@ import java.util.logging.Logger;
 import se.jbee.inject.bootstrap.Bootstrapper.OptionBootstrapper;
 import se.jbee.inject.bootstrap.OptionBundle;
 import se.jbee.inject.bootstrap.Supply;
+import se.jbee.inject.container.Lease;
 import se.jbee.inject.container.Provider;
 
 /**
@@ -27,6 +29,10 @@ public enum BuildinBundle
 	 * Adds: {@link Provider}s can be injected for all bound types.
 	 */
 	PROVIDER,
+	/**
+	 * Adds: {@link Lease}s can be injected for all bound types.
+	 */
+	LEASE,
 	/**
 	 * Adds: {@link List}s can be injected for all bound types (via array bridge)
 	 */
@@ -50,6 +56,7 @@ public enum BuildinBundle
 		bootstrapper.install( SetBridgeModule.class, SET );
 		bootstrapper.install( CollectionBridgeModule.class, COLLECTION );
 		bootstrapper.install( ProviderBridgeModule.class, PROVIDER );
+		bootstrapper.install( LeaseBridgeModule.class, LEASE );
 		bootstrapper.install( LoggerModule.class, LOGGER );
 	}
 
@@ -73,6 +80,16 @@ public enum BuildinBundle
 
 	}
 
+	private static class LeaseBridgeModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			per( INJECTION ).starbind( Lease.class ).to( Supply.LEASE_BRIDGE );
+		}
+
+	}
+
 	private static class ListBridgeModule
 			extends BinderModule {
 
@@ -25,22 +25,37 @@ import se.jbee.inject.InconsistentBinding;
 public final class Bindings {
 
 	public static Bindings bindings( Macros macros, Inspector inspector ) {
-		return new Bindings( macros, inspector, new ArrayList<>(128) );
+		return new Bindings( macros, inspector, new ArrayList<>(128), null );
 	}
 
 	public final Macros macros;
 	public final Inspector inspector;
 
+	/**
+	 * The report bootstrapping is recorded in or <code>null</code> if there
+	 * is nothing to record.
+	 */
+	final BootstrapReport report;
+
 	private final List<Binding<?>> bindings;
 
-	private Bindings( Macros macros, Inspector inspector, List<Binding<?>> bindings) {
+	private Bindings( Macros macros, Inspector inspector, List<Binding<?>> bindings, BootstrapReport report ) {
 		this.macros = macros;
 		this.inspector = inspector;
 		this.bindings = bindings;
+		this.report = report;
 	}
 
 	public Bindings using( Inspector inspector ) {
-		return new Bindings( macros, inspector, bindings );
+		return new Bindings( macros, inspector, bindings, report );
+	}
+
+	/**
+	 * @return {@link Bindings} that record the time spent bootstrapping an
+	 *         injector from them in the given report
+	 */
+	public Bindings reportingTo( BootstrapReport report ) {
+		return new Bindings( macros, inspector, bindings, report );
 	}
 
 	/**
@@ -62,6 +77,10 @@ public final class Bindings {
 		return Array.of( bindings, Binding.class );
 	}
 
+	int size() {
+		return bindings.size();
+	}
+
 	public Binding<?>[] declareFrom( Module... modules ) {
 		Set<Class<?>> declared = new HashSet<>();
 		Set<Class<?>> multimodals = new HashSet<>();
@@ -74,7 +93,17 @@ public final class Bindings {
 				}
 			}
 			if ( !hasBeenDeclared || multimodals.contains( ns ) ) {
-				m.declare( this );
+				if ( report == null ) {
+					m.declare( this );
+				} else {
+					long start = report.begin();
+					int before = bindings.size();
+					try {
+						m.declare( this );
+					} finally {
+						report.end( BootstrapReport.Step.MODULE, ns, start, bindings.size() - before );
+					}
+				}
 				declared.add( ns );
 			}
 		}
@@ -8,7 +8,9 @@ package se.jbee.inject.bootstrap;
 import static se.jbee.inject.Dependency.dependency;
 import static se.jbee.inject.Type.raw;
 
+import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
@@ -17,16 +19,22 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 import se.jbee.inject.Array;
 import se.jbee.inject.InconsistentBinding;
 import se.jbee.inject.Injector;
 import se.jbee.inject.Injectron;
+import se.jbee.inject.Resource;
+import se.jbee.inject.Source;
 import se.jbee.inject.Type;
 import se.jbee.inject.config.Globals;
 import se.jbee.inject.config.Options;
 import se.jbee.inject.config.Presets;
+import se.jbee.inject.container.ContainerStats;
+import se.jbee.inject.container.FlightEvents;
 import se.jbee.inject.container.Inject;
+import se.jbee.inject.container.Scoped;
 
 /**
  * Utility to create an {@link Injector} context from {@link Bundle}s and {@link Module}s.
@@ -43,24 +51,97 @@ public final class Bootstrap {
 		return injector( root, Bindings.bindings( Macros.DEFAULT, Inspect.DEFAULT ), globals );
 	}
 
+	/**
+	 * Like {@link #injector(Class, Globals)} but uses the given {@link Snapshot}
+	 * file when it is up to date and (re)writes it otherwise.
+	 */
+	public static Injector injector( Class<? extends Bundle> root, Globals globals, File snapshot ) {
+		return Snapshot.injector( root, globals, snapshot );
+	}
+
 	public static Injector injector( Class<? extends Bundle> root, Bindings bindings, Globals globals ) {
-		return injector( bindings, modulariser( globals ).modularise( root ) );
+		return injector( bindings, modularise( root, globals, bindings.report ) );
+	}
+
+	/**
+	 * Like {@link #injector(Class, Globals)} but records the time spent in
+	 * each step in the given report. The report is also bound in the
+	 * {@link Injector} returned.
+	 */
+	public static Injector injector( Class<? extends Bundle> root, Globals globals, BootstrapReport report ) {
+		return injector( root, Bindings.bindings( Macros.DEFAULT, Inspect.DEFAULT ).reportingTo( report ), globals );
 	}
 
 	public static Injector injector( Bindings bindings, Module[] modules ) {
-		return Inject.container( Binding.disambiguate( bindings.declareFrom(modules)) );
+		BootstrapReport report = bindings.report;
+		Binding<?>[] declared = phase( "declare", () -> reported( bindings.declareFrom( modules ), report ) );
+		Binding<?>[] disambiguated = phase( "disambiguate", () -> disambiguate( declared, report ) );
+		Injector injector = phase( "container", () -> Inject.container( disambiguated ) );
+		if ( report != null ) {
+			report.containerInitialised( injector.resolve( dependency( ContainerStats.class ) ).initialisation() );
+		}
+		return injector;
+	}
+
+	/**
+	 * @return the declared {@link Binding}s plus the one binding the report (if
+	 *         any) so that the {@link Bindings} can be used again
+	 */
+	private static Binding<?>[] reported( Binding<?>[] declared, BootstrapReport report ) {
+		if ( report == null ) {
+			return declared;
+		}
+		Binding<?>[] res = Arrays.copyOf( declared, declared.length + 1 );
+		res[declared.length] = Binding.binding( Resource.resource( BootstrapReport.class ), BindingType.PREDEFINED,
+				Supply.constant( report ), Scoped.APPLICATION, Source.source( BootstrapReport.class ) );
+		return res;
 	}
 
 	public static Modulariser modulariser( Globals globals ) {
-		return new BuildinBootstrapper( globals );
+		return new BuildinBootstrapper( globals, null );
 	}
 
 	public static Bundler bundler( Globals globals ) {
-		return new BuildinBootstrapper( globals );
+		return new BuildinBootstrapper( globals, null );
 	}
 
 	public static Binding<?>[] bindings( Class<? extends Bundle> root, Bindings bindings, Globals globals ) {
-		return Binding.disambiguate( bindings.declareFrom( modulariser( globals ).modularise( root ) ) );
+		Module[] modules = modularise( root, globals, bindings.report );
+		Binding<?>[] declared = phase( "declare", () -> bindings.declareFrom( modules ) );
+		return phase( "disambiguate", () -> disambiguate( declared, bindings.report ) );
+	}
+
+	private static Module[] modularise( Class<? extends Bundle> root, Globals globals, BootstrapReport report ) {
+		return phase( "modularise", () -> new BuildinBootstrapper( globals, report ).modularise( root ) );
+	}
+
+	private static Binding<?>[] disambiguate( Binding<?>[] bindings, BootstrapReport report ) {
+		if ( report == null ) {
+			return Binding.disambiguate( bindings );
+		}
+		long start = report.begin();
+		Binding<?>[] res = Binding.disambiguate( bindings );
+		report.end( BootstrapReport.Step.DISAMBIGUATE, "Binding.disambiguate", start, res.length );
+		return res;
+	}
+
+	/**
+	 * Runs a bootstrapping phase recording a {@link FlightEvents.Phase}.
+	 */
+	private static <T> T phase( String name, java.util.function.Supplier<T> phase ) {
+		if ( !FlightEvents.ENABLED ) {
+			return phase.get();
+		}
+		FlightEvents.Phase event = new FlightEvents.Phase();
+		event.begin();
+		T res = phase.get();
+		event.end();
+		if ( event.shouldCommit() ) {
+			event.phase = name;
+			event.count = res instanceof Object[] ? ( (Object[]) res ).length : 0;
+			event.commit();
+		}
+		return res;
 	}
 
 	public static <T> Module module( PresetModule<T> module, Presets presets ) {
@@ -75,6 +156,17 @@ public final class Bootstrap {
 		}
 	}
 
+	/**
+	 * Like {@link #eagerSingletons(Injector)} but creates independent
+	 * singletons concurrently using the given {@link Executor}.
+	 * 
+	 * @param bindings
+	 *            the {@link Binding}s the {@link Injector} has been created from
+	 */
+	public static Warmup eagerSingletons( Injector injector, Binding<?>[] bindings, Executor executor ) {
+		return Warmup.eagerSingletons( injector, bindings, executor );
+	}
+
 	public static <T> T instance( Injectron<T> injectron ) {
 		return injectron.instanceFor( dependency( injectron.info().resource.instance ) );
 	}
@@ -123,10 +215,12 @@ public final class Bootstrap {
 		private final Set<Class<? extends Bundle>> installed = new HashSet<>();
 		private final LinkedList<Class<? extends Bundle>> stack = new LinkedList<>();
 		private final Globals globals;
+		private final BootstrapReport report;
 
-		BuildinBootstrapper( Globals globals ) {
+		BuildinBootstrapper( Globals globals, BootstrapReport report ) {
 			super();
 			this.globals = globals;
+			this.report = report;
 		}
 
 		@Override
@@ -149,7 +243,16 @@ public final class Bootstrap {
 				children.add( bundle );
 			}
 			stack.push( bundle );
-			Bootstrap.instance( bundle ).bootstrap( this );
+			if ( report == null ) {
+				Bootstrap.instance( bundle ).bootstrap( this );
+			} else {
+				long start = report.begin();
+				try {
+					Bootstrap.instance( bundle ).bootstrap( this );
+				} finally {
+					report.end( BootstrapReport.Step.BUNDLE, bundle, start, 0 );
+				}
+			}
 			if ( stack.pop() != bundle ) {
 				throw new IllegalStateException( bundle.getCanonicalName() );
 			}
@@ -0,0 +1,181 @@
+/*
+ *  Copyright (c) 2012-2017, Jan Bernitt
+ *
+ *  Licensed under the Apache License, Version 2.0, http://www.apache.org/licenses/LICENSE-2.0
+ */
+package se.jbee.inject.bootstrap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import se.jbee.inject.Injector;
+import se.jbee.inject.container.ContainerStats;
+
+/**
+ * Times the steps of bootstrapping an {@link Injector}: each
+ * {@link Bundle#bootstrap(Bootstrapper)}, each {@link Module#declare(Bindings)},
+ * each {@link Macro} expansion, {@link Binding#disambiguate(Binding[])} and the
+ * steps of initialising the container.
+ *
+ * Times are <i>self</i> times, nested steps (e.g. a bundle installing another
+ * bundle or a macro expanding into another macro) are not included in the
+ * time of the outer step. Steps with the same name are summed up.
+ *
+ * A report is collected by bootstrapping with
+ * {@link Bindings#reportingTo(BootstrapReport)}. The report can then be
+ * resolved from the {@link Injector} created.
+ *
+ * Reports are not thread-safe as bootstrapping happens in a single thread.
+ *
+ * @author Jan Bernitt (jan@jbee.se)
+ */
+public final class BootstrapReport {
+
+	public enum Step {
+		BUNDLE, MODULE, MACRO, DISAMBIGUATE, CONTAINER
+	}
+
+	public static final class Entry {
+
+		public final Step step;
+		public final String name;
+		int calls;
+		long nanos;
+		int bindings;
+
+		Entry( Step step, String name ) {
+			super();
+			this.step = step;
+			this.name = name;
+		}
+
+		public int calls() {
+			return calls;
+		}
+
+		/**
+		 * @return the self time spent in all calls
+		 */
+		public long nanos() {
+			return nanos;
+		}
+
+		/**
+		 * @return the number of {@link Binding}s added by all calls of a
+		 *         {@link Step#MODULE} (including those from macros like the
+		 *         automatic binding of supertypes) or a {@link Step#MACRO}, the
+		 *         number of {@link Binding}s left by
+		 *         {@link Step#DISAMBIGUATE}
+		 */
+		public int bindings() {
+			return bindings;
+		}
+
+		@Override
+		public String toString() {
+			return String.format( "%10.3f ms %6d %8d  %-12s %s", nanos / 1e6d, calls, bindings, step, name );
+		}
+	}
+
+	private final Map<String, Entry> entries = new LinkedHashMap<>();
+	private long[] nested = new long[16];
+	private int depth;
+
+	/**
+	 * @return the start of a step to pass to
+	 *         {@link #end(Step, String, long, int)}
+	 */
+	long begin() {
+		if ( ++depth == nested.length ) {
+			nested = Arrays.copyOf( nested, depth * 2 );
+		}
+		nested[depth] = 0L;
+		return System.nanoTime();
+	}
+
+	void end( Step step, String name, long start, int bindings ) {
+		long elapsed = System.nanoTime() - start;
+		record( step, name, elapsed - nested[depth--], bindings );
+		nested[depth] += elapsed;
+	}
+
+	void end( Step step, Class<?> type, long start, int bindings ) {
+		end( step, name( type ), start, bindings );
+	}
+
+	/**
+	 * @param steps
+	 *            as recorded by the {@link ContainerStats}
+	 */
+	void containerInitialised( Map<String, Long> steps ) {
+		for ( Map.Entry<String, Long> e : steps.entrySet() ) {
+			record( Step.CONTAINER, e.getKey(), e.getValue(), 0 );
+		}
+	}
+
+	private void record( Step step, String name, long nanos, int bindings ) {
+		String key = step.name() + ":" + name;
+		Entry e = entries.get( key );
+		if ( e == null ) {
+			e = new Entry( step, name );
+			entries.put( key, e );
+		}
+		e.calls++;
+		e.nanos += nanos;
+		e.bindings += bindings;
+	}
+
+	/**
+	 * @return all entries, longest (self) time first
+	 */
+	public List<Entry> entries() {
+		List<Entry> res = new ArrayList<>( entries.values() );
+		res.sort( ( a, b ) -> Long.compare( b.nanos, a.nanos ) );
+		return Collections.unmodifiableList( res );
+	}
+
+	/**
+	 * @return the entry of the given step and name or <code>null</code> if no
+	 *         such step was recorded
+	 */
+	public Entry entry( Step step, String name ) {
+		return entries.get( step.name() + ":" + name );
+	}
+
+	public Entry entry( Step step, Class<?> type ) {
+		return entry( step, name( type ) );
+	}
+
+	public long totalNanos() {
+		long total = 0L;
+		for ( Entry e : entries.values() ) {
+			total += e.nanos;
+		}
+		return total;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder b = new StringBuilder();
+		b.append( String.format( "bootstrapping in %.3f ms%n", totalNanos() / 1e6d ) );
+		b.append( String.format( "%13s %6s %8s  %-12s %s%n", "self", "calls", "bindings", "step", "name" ) );
+		for ( Entry e : entries() ) {
+			b.append( e ).append( String.format( "%n" ) );
+		}
+		return b.toString();
+	}
+
+	/**
+	 * @return the class name without the package (but with outer classes)
+	 */
+	static String name( Class<?> type ) {
+		String name = type.getName();
+		return type.getPackage() == null
+			? name
+			: name.substring( type.getPackage().getName().length() + 1 );
+	}
+}
@@ -40,6 +40,15 @@ public final class InjectionSite {
 		this.args = initNonDynamicParameters(injector);
 	}
 	
+	/**
+	 * @return true, if all arguments are constants or instances that never
+	 *         expire. In that case {@link #args(Injector)} always returns the
+	 *         same array that must not be modified.
+	 */
+	public boolean isStatic() {
+		return dynamicsLength == 0;
+	}
+
 	public Object[] args(Injector injector) throws UnresolvableDependency {
 		if (dynamicsLength == 0) {
 			return args;
@@ -38,6 +38,8 @@ public final class Macros {
 	public static final Macro<Parameter<?>[]> ARRAY = new ArrayElementsMacro();
 	public static final Macro<BoundConstructor<?>> CONSTRUCTOR = new ConstructorMacro();
 	public static final Macro<BoundMethod<?>> FACTORY_METHOD = new MethodMacro();
+	public static final Macro<BoundConstructor<?>> CONSTRUCTOR_HANDLE = new ConstructorHandleMacro();
+	public static final Macro<BoundMethod<?>> FACTORY_METHOD_HANDLE = new MethodHandleMacro();
 
 	public static final Macros NONE = new Macros( new Class<?>[0], new Macro<?>[0] );
 
@@ -45,6 +47,13 @@ public final class Macros {
 			.with( EXPAND ).with( CONSTRUCTOR ).with( FACTORY_METHOD )
 			.with( INSTANCE_LINK ).with( PARAMETRIZED_LINK ).with( ARRAY );
 
+	/**
+	 * Same as {@link #DEFAULT} but constructors and factory methods are invoked
+	 * using {@link java.lang.invoke.MethodHandle}s instead of reflection.
+	 */
+	public static final Macros HANDLES = DEFAULT
+			.with( CONSTRUCTOR_HANDLE ).with( FACTORY_METHOD_HANDLE );
+
 	private final Class<?>[] types;
 	private final Macro<?>[] macros;
 
@@ -106,7 +115,19 @@ public final class Macros {
 	 */
 	@SuppressWarnings("unchecked")
 	public <T, V> void expandInto( Bindings bindings, Binding<T> binding, V value ) {
-		macroForValueOf( (Class<? super V>) value.getClass() ).expand( value, binding, bindings );
+		Macro<? super V> macro = macroForValueOf( (Class<? super V>) value.getClass() );
+		BootstrapReport report = bindings.report;
+		if ( report == null ) {
+			macro.expand( value, binding, bindings );
+			return;
+		}
+		long start = report.begin();
+		int before = bindings.size();
+		try {
+			macro.expand( value, binding, bindings );
+		} finally {
+			report.end( BootstrapReport.Step.MACRO, macro.getClass(), start, bindings.size() - before );
+		}
 	}
 
 	@SuppressWarnings ( "unchecked" )
@@ -191,6 +212,30 @@ public final class Macros {
 		}
 	}
 
+	private static final class ConstructorHandleMacro
+			implements Macro<BoundConstructor<?>> {
+
+		ConstructorHandleMacro() { /* make visible */ }
+
+		@Override
+		public <T> void expand(BoundConstructor<?> constructor, Binding<T> incomplete, Bindings bindings) {
+			bindings.expandInto( 
+					incomplete.complete( BindingType.CONSTRUCTOR, Supply.constructorHandle( constructor.typed( incomplete.type() ) ) ));
+		}
+	}
+
+	private static final class MethodHandleMacro
+			implements Macro<BoundMethod<?>> {
+
+		MethodHandleMacro() { /* make visible */ }
+
+		@Override
+		public <T> void expand(BoundMethod<?> method, Binding<T> incomplete, Bindings bindings) {
+			bindings.expandInto( 
+					incomplete.complete( METHOD, Supply.methodHandle( method.typed( incomplete.type() ) ) ));
+		}
+	}
+
 	private static final class TypeParametrizedLinkMacro
 			implements Macro<Class<?>> {
 
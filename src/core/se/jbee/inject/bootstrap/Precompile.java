@@ -0,0 +1,600 @@
+/*
+ *  Copyright (c) 2012-2017, Jan Bernitt
+ *
+ *  Licensed under the Apache License, Version 2.0, http://www.apache.org/licenses/LICENSE-2.0
+ */
+package se.jbee.inject.bootstrap;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import se.jbee.inject.DeclarationType;
+import se.jbee.inject.Dependency;
+import se.jbee.inject.InconsistentBinding;
+import se.jbee.inject.Injector;
+import se.jbee.inject.Instance;
+import se.jbee.inject.Name;
+import se.jbee.inject.Packages;
+import se.jbee.inject.Resource;
+import se.jbee.inject.Source;
+import se.jbee.inject.Supplier;
+import se.jbee.inject.Target;
+import se.jbee.inject.Type;
+import se.jbee.inject.bootstrap.BoundParameter.ParameterType;
+import se.jbee.inject.config.Globals;
+import se.jbee.inject.container.Inject;
+import se.jbee.inject.container.Scope;
+import se.jbee.inject.container.Scoped;
+
+/**
+ * Generates the source of an {@link Injector} for a root {@link Bundle} at
+ * build time.
+ *
+ * The full bootstrapping is done once by the generator. The resulting
+ * {@link Binding}s are written as source that creates them directly using
+ * direct constructor and method calls instead of reflection. They are written
+ * in the order the container dispatches to them (see
+ * {@link Inject#dispatchOrder(se.jbee.inject.container.Assembly[])}) so that
+ * the container does not sort them at runtime. At runtime the generated
+ * {@link Injector} does not need to modularise, declare or expand anything.
+ *
+ * Should a {@link Binding} use a {@link Supplier} (like an arbitrary lambda)
+ * that cannot be written as source just that supplier is deferred: it is
+ * taken from a bootstrap of the root done when it is first used. Should other
+ * parts of a {@link Binding} (like its {@link Scope}) not be writable the
+ * whole {@link Binding} is taken from such a bootstrap when the generated
+ * {@link Injector} is created.
+ *
+ * The {@link Globals} used are fixed at build time. They are either
+ * {@link Globals#STANDARD} or created by a factory class implementing
+ * {@link java.util.function.Supplier} of {@link Globals}. The generated
+ * {@link Injector} uses the same factory should it need to bootstrap.
+ *
+ * @author Jan Bernitt (jan@jbee.se)
+ */
+public final class Precompile {
+
+	/**
+	 * Arguments: the root {@link Bundle} class, the fully qualified name of the
+	 * generated {@link Injector} class, the source directory to write it to
+	 * and optionally the {@link Globals} factory class.
+	 */
+	@SuppressWarnings ( "unchecked" )
+	public static void main( String[] args ) throws IOException, ClassNotFoundException {
+		if ( args.length < 3 || args.length > 4 ) {
+			System.err.println( "Usage: Precompile <root bundle> <injector class> <source dir> [<globals factory>]" );
+			System.exit( 1 );
+		}
+		String injector = args[1];
+		File file = new File( args[2], injector.replace( '.', File.separatorChar ) + ".java" );
+		file.getParentFile().mkdirs();
+		Class<? extends java.util.function.Supplier<Globals>> globals = args.length < 4 || args[3].isEmpty()
+			? null
+			: (Class<? extends java.util.function.Supplier<Globals>>) Class.forName( args[3] ).asSubclass( java.util.function.Supplier.class );
+		String source = source( Class.forName( args[0] ).asSubclass( Bundle.class ), globals, injector );
+		Files.write( file.toPath(), source.getBytes( StandardCharsets.UTF_8 ) );
+	}
+
+	/**
+	 * @param injector
+	 *            fully qualified name of the generated class
+	 * @return the source code of the {@link Injector} class using
+	 *         {@link Globals#STANDARD}
+	 */
+	public static String source( Class<? extends Bundle> root, String injector ) {
+		return source( root, null, injector );
+	}
+
+	/**
+	 * @param globals
+	 *            a public class with a public no-argument constructor creating
+	 *            the {@link Globals} to use, or <code>null</code> for
+	 *            {@link Globals#STANDARD}
+	 * @param injector
+	 *            fully qualified name of the generated class
+	 * @return the source code of the {@link Injector} class
+	 */
+	public static String source( Class<? extends Bundle> root,
+			Class<? extends java.util.function.Supplier<Globals>> globals, String injector ) {
+		int dot = injector.lastIndexOf( '.' );
+		Literals literals = new Literals( dot < 0 ? "" : injector.substring( 0, dot ) );
+		String globalsSource = "Globals.STANDARD";
+		Globals globalsValue = Globals.STANDARD;
+		if ( globals != null ) {
+			try {
+				globalsSource = "new " + literals.canonical( globals ) + "().get()";
+				globalsValue = globals.getConstructor().newInstance().get();
+			} catch ( Uncompilable | ReflectiveOperationException e ) {
+				throw new IllegalArgumentException( "Globals factory has to be a public class with a public no-argument constructor: " + globals, e );
+			}
+		}
+		Binding<?>[] bindings = Bootstrap.bindings( root,
+				Bindings.bindings( Macros.DEFAULT, Inspect.DEFAULT ), globalsValue );
+		Map<Binding<?>, Integer> indexes = new IdentityHashMap<>( bindings.length );
+		for ( int i = 0; i < bindings.length; i++ ) {
+			indexes.put( bindings[i], i );
+		}
+		List<String> compiled = new ArrayList<>( bindings.length );
+		List<String> deferred = new ArrayList<>();
+		for ( Binding<?> binding : Inject.dispatchOrder( bindings ) ) {
+			compiled.add( literals.binding( binding, indexes.get( binding ), deferred ) );
+		}
+		return write( literals.pkg, injector.substring( dot + 1 ), root, globalsSource, compiled, deferred );
+	}
+
+	/**
+	 * Used by generated {@link Injector}s that could not compile all
+	 * {@link Binding}s.
+	 *
+	 * @param globals
+	 *            the same {@link Globals} as used at build time
+	 */
+	public static Deferred deferred( String root, Globals globals ) {
+		return new Deferred( root, globals );
+	}
+
+	/**
+	 * Used by generated {@link Injector}s for {@link Source}s of modules that
+	 * are not accessible from the generated class.
+	 */
+	public static Source source( String module, DeclarationType type ) {
+		try {
+			return Source.source( Class.forName( module ) ).typed( type );
+		} catch ( ClassNotFoundException e ) {
+			throw new InconsistentBinding( "Module not found: " + module );
+		}
+	}
+
+	/**
+	 * The {@link Binding}s of a generated {@link Injector} that could not be
+	 * compiled. These are taken from bootstrapping the root {@link Bundle}
+	 * when they are first needed. The index of a {@link Binding} refers to
+	 * the disambiguated {@link Binding}s of that bootstrapping, the
+	 * {@link Resource} is used to verify that the generated source is still
+	 * in sync with the bundle.
+	 */
+	public static final class Deferred {
+
+		private final String root;
+		private final Globals globals;
+		private Binding<?>[] bindings;
+
+		Deferred( String root, Globals globals ) {
+			super();
+			this.root = root;
+			this.globals = globals;
+		}
+
+		public Binding<?> binding( int index, String resource ) {
+			Binding<?>[] bindings = bindings();
+			if ( index >= bindings.length || !bindings[index].resource.toString().equals( resource ) ) {
+				throw new InconsistentBinding( "Precompiled injector is out of date, expected: " + resource
+					+ " but found: " + ( index < bindings.length ? bindings[index].resource : "nothing" ) );
+			}
+			return bindings[index];
+		}
+
+		public <T> Supplier<T> supplier( int index, String resource ) {
+			return new DeferredSupplier<>( this, index, resource );
+		}
+
+		private synchronized Binding<?>[] bindings() {
+			if ( bindings == null ) {
+				try {
+					bindings = Bootstrap.bindings( Class.forName( root ).asSubclass( Bundle.class ),
+							Bindings.bindings( Macros.DEFAULT, Inspect.DEFAULT ), globals );
+				} catch ( ClassNotFoundException e ) {
+					throw new InconsistentBinding( "Root bundle not found: " + root );
+				}
+			}
+			return bindings;
+		}
+	}
+
+	private static final class DeferredSupplier<T>
+			implements Supplier<T> {
+
+		private final Deferred deferred;
+		private final int index;
+		private final String resource;
+		private volatile Supplier<? extends T> supplier;
+
+		DeferredSupplier( Deferred deferred, int index, String resource ) {
+			super();
+			this.deferred = deferred;
+			this.index = index;
+			this.resource = resource;
+		}
+
+		@SuppressWarnings ( "unchecked" )
+		@Override
+		public T supply( Dependency<? super T> dependency, Injector injector ) {
+			Supplier<? extends T> s = supplier;
+			if ( s == null ) {
+				s = (Supplier<? extends T>) deferred.binding( index, resource ).supplier;
+				supplier = s;
+			}
+			return s.supply( dependency, injector );
+		}
+
+		@Override
+		public String toString() {
+			return "deferred " + resource;
+		}
+	}
+
+	private static final int BINDINGS_PER_METHOD = 64;
+
+	private static String write( String pkg, String name, Class<? extends Bundle> root, String globals,
+			List<String> compiled, List<String> deferred ) {
+		boolean complete = deferred.isEmpty();
+		StringBuilder src = new StringBuilder();
+		if ( !pkg.isEmpty() ) {
+			src.append( "package " ).append( pkg ).append( ";\n\n" );
+		}
+		for ( Class<?> imported : new Class<?>[] { Binding.class, BindingType.class,
+				BoundParameter.class, DeclarationType.class, Dependency.class,
+				Globals.class, Inject.class, Injector.class,
+				Instance.class, Name.class, Packages.class, Precompile.class,
+				Resource.class, Scoped.class, Source.class, Supply.class,
+				Target.class, Type.class } ) {
+			src.append( "import " ).append( imported.getCanonicalName() ).append( ";\n" );
+		}
+		src.append( "\n/**\n * Generated by {@link Precompile} from " ).append( root.getName() ).append( ". Do not edit.\n" );
+		if ( !complete ) {
+			src.append( " * \n * These bindings could not be compiled and are bootstrapped when needed:\n * <ul>\n" );
+			for ( String binding : deferred ) {
+				src.append( " * <li>" ).append( binding.replace( "*/", "* /" ) ).append( "</li>\n" );
+			}
+			src.append( " * </ul>\n" );
+		}
+		src.append( " */\n@SuppressWarnings ( { \"unchecked\", \"rawtypes\" } )\n" );
+		src.append( "public final class " ).append( name ).append( " implements Injector {\n\n" );
+		src.append( "\t/**\n\t * true, if all bindings have been compiled so that no bootstrapping is needed.\n\t */\n" );
+		src.append( "\tpublic static final boolean COMPLETE = " ).append( complete ).append( ";\n\n" );
+		src.append( "\tprivate final Injector injector;\n\n" );
+		src.append( "\tpublic " ).append( name ).append( "() {\n" );
+		src.append( "\t\tthis.injector = Inject.presorted( bindings( " );
+		if ( complete ) {
+			src.append( "null" );
+		} else {
+			src.append( "Precompile.deferred( " ).append( Literals.string( root.getName() ) ).append( ", " ).append( globals ).append( " )" );
+		}
+		src.append( " ) );\n\t}\n\n" );
+		src.append( "\t@Override\n\tpublic <T> T resolve( Dependency<T> dependency ) {\n\t\treturn injector.resolve( dependency );\n\t}\n" );
+		int methods = ( compiled.size() + BINDINGS_PER_METHOD - 1 ) / BINDINGS_PER_METHOD;
+		src.append( "\n\tstatic Binding<?>[] bindings( Precompile.Deferred deferred ) {\n" );
+		src.append( "\t\tBinding<?>[] bindings = new Binding<?>[" ).append( compiled.size() ).append( "];\n" );
+		for ( int m = 0; m < methods; m++ ) {
+			src.append( "\t\tbindings" ).append( m ).append( "( bindings, deferred );\n" );
+		}
+		src.append( "\t\treturn bindings;\n\t}\n" );
+		for ( int m = 0; m < methods; m++ ) {
+			src.append( "\n\tprivate static void bindings" ).append( m ).append( "( Binding<?>[] bindings, Precompile.Deferred deferred ) {\n" );
+			int end = Math.min( compiled.size(), ( m + 1 ) * BINDINGS_PER_METHOD );
+			for ( int i = m * BINDINGS_PER_METHOD; i < end; i++ ) {
+				src.append( "\t\tbindings[" ).append( i ).append( "] = " ).append( compiled.get( i ) ).append( ";\n" );
+			}
+			src.append( "\t}\n" );
+		}
+		src.append( "}\n" );
+		return src.toString();
+	}
+
+	private Precompile() {
+		throw new UnsupportedOperationException( "util" );
+	}
+
+	private static final class Uncompilable
+			extends Exception {
+
+		Uncompilable( String reason ) {
+			super( reason, null, false, false );
+		}
+	}
+
+	/**
+	 * Writes the source expressions for the values used in {@link Binding}s.
+	 */
+	private static final class Literals {
+
+		final String pkg;
+
+		Literals( String pkg ) {
+			super();
+			this.pkg = pkg;
+		}
+
+		/**
+		 * @param index
+		 *            of the binding in the disambiguated bindings
+		 * @param deferred
+		 *            accumulates the bindings that could not be compiled
+		 * @return the source expression creating the binding
+		 */
+		String binding( Binding<?> binding, int index, List<String> deferred ) {
+			String resource = string( binding.resource.toString() );
+			try {
+				return binding( binding, supplier( binding.supplier ) );
+			} catch ( Uncompilable e ) {
+				try {
+					String supplier = "deferred.supplier( " + index + ", " + resource + " )";
+					String res = binding( binding, supplier );
+					deferred.add( binding + ": " + e.getMessage() );
+					return res;
+				} catch ( Uncompilable e2 ) {
+					deferred.add( binding + ": " + e2.getMessage() );
+					return "deferred.binding( " + index + ", " + resource + " )";
+				}
+			}
+		}
+
+		private String binding( Binding<?> binding, String supplier ) throws Uncompilable {
+			return "Binding.binding( new Resource( " + instance( binding.resource.instance )
+				+ ", " + target( binding.resource.target ) + " ), BindingType." + binding.type.name()
+				+ ", " + supplier + ", " + scope( binding.scope )
+				+ ", " + source( binding.source ) + " )";
+		}
+
+		String source( Source source ) throws Uncompilable {
+			String type = "DeclarationType." + source.declarationType.name();
+			return isAccessible( source.ident )
+				? "Source.source( " + type( source.ident ) + " ).typed( " + type + " )"
+				: "Precompile.source( " + string( source.ident.getName() ) + ", " + type + " )";
+		}
+
+		static String scope( Scope scope ) throws Uncompilable {
+			String field = constantIn( Scoped.class, scope );
+			if ( field == null ) {
+				throw new Uncompilable( "scope " + scope );
+			}
+			return field;
+		}
+
+		String supplier( Supplier<?> supplier ) throws Uncompilable {
+			String field = constantIn( Supply.class, supplier );
+			if ( field != null ) {
+				return field;
+			}
+			if ( supplier instanceof Supply.ConstantSupplier ) {
+				return "Supply.constant( " + value( ( (Supply.ConstantSupplier<?>) supplier ).constant ) + " )";
+			}
+			if ( supplier instanceof Supply.InstanceSupplier ) {
+				return "Supply.instance( " + instance( ( (Supply.InstanceSupplier<?>) supplier ).instance ) + " )";
+			}
+			if ( supplier instanceof Supply.ParametrizedInstanceSupplier ) {
+				return "Supply.parametrizedInstance( " + instance( ( (Supply.ParametrizedInstanceSupplier<?>) supplier ).instance ) + " )";
+			}
+			if ( supplier instanceof Supply.BridgeSupplier ) {
+				return "Supply.reference( " + type( ( (Supply.BridgeSupplier<?>) supplier ).type ) + " )";
+			}
+			if ( supplier instanceof Supply.ConstructorSupplier ) {
+				Supply.ConstructorSupplier<?> s = (Supply.ConstructorSupplier<?>) supplier;
+				return constructor( s.constructor, s.params );
+			}
+			if ( supplier instanceof Supply.ConstructorHandleSupplier ) {
+				Supply.ConstructorHandleSupplier<?> s = (Supply.ConstructorHandleSupplier<?>) supplier;
+				return constructor( s.constructor, s.params );
+			}
+			if ( supplier instanceof Supply.MethodSupplier ) {
+				Supply.MethodSupplier<?> s = (Supply.MethodSupplier<?>) supplier;
+				return method( s.method, s.params );
+			}
+			if ( supplier instanceof Supply.MethodHandleSupplier ) {
+				Supply.MethodHandleSupplier<?> s = (Supply.MethodHandleSupplier<?>) supplier;
+				return method( s.method, s.params );
+			}
+			throw new Uncompilable( "supplier " + supplier );
+		}
+
+		private String constructor( Constructor<?> constructor, BoundParameter<?>[] params ) throws Uncompilable {
+			Class<?> impl = constructor.getDeclaringClass();
+			if ( impl.isMemberClass() && !Modifier.isStatic( impl.getModifiers() ) ) {
+				throw new Uncompilable( "inner class " + impl.getName() );
+			}
+			checkAccessible( constructor );
+			return invocation( constructor.toString(), params, "new " + canonical( impl ),
+					constructor.getParameterTypes() );
+		}
+
+		private String method( BoundMethod<?> method, BoundParameter<?>[] params ) throws Uncompilable {
+			if ( method.isInstanceMethod ) {
+				throw new Uncompilable( "instance method " + method.factory );
+			}
+			checkAccessible( method.factory );
+			return invocation( method.factory.toString(), params, canonical( method.factory.getDeclaringClass() )
+				+ "." + method.factory.getName(), method.factory.getParameterTypes() );
+		}
+
+		private String invocation( String invoked, BoundParameter<?>[] params, String call, Class<?>[] types ) throws Uncompilable {
+			StringBuilder src = new StringBuilder();
+			src.append( "Supply.invocation( " ).append( string( invoked ) ).append( ", new BoundParameter<?>[] {" );
+			for ( int i = 0; i < params.length; i++ ) {
+				src.append( i == 0 ? " " : ", " ).append( parameter( params[i] ) );
+			}
+			src.append( params.length == 0 ? "}" : " }" ).append( ", args -> " ).append( call ).append( "(" );
+			for ( int i = 0; i < types.length; i++ ) {
+				src.append( i == 0 ? " (" : ", (" ).append( canonical( Type.primitiveAsWrapper( types[i] ) ) ).append( ") args[" ).append( i ).append( "]" );
+			}
+			return src.append( types.length == 0 ? ") )" : " ) )" ).toString();
+		}
+
+		private String parameter( BoundParameter<?> param ) throws Uncompilable {
+			if ( param.type == ParameterType.CONSTANT ) {
+				return "BoundParameter.bind( BoundParameter.constant( " + type( param.asType ) + ", " + value( param.value ) + " ) )";
+			}
+			if ( param.type == ParameterType.EXTERNAL
+					&& ( param.asType.rawType != Injector.class || !( param.supplier instanceof Supply.InstanceSupplier ) ) ) {
+				throw new Uncompilable( "parameter " + param );
+			}
+			return param.instance.type.equalTo( param.asType )
+				? "BoundParameter.bind( " + instance( param.instance ) + " )"
+				: "BoundParameter.bind( BoundParameter.asType( " + type( param.asType ) + ", " + instance( param.instance ) + " ) )";
+		}
+
+		String target( Target target ) throws Uncompilable {
+			StringBuilder src = new StringBuilder( "Target.targeting( " ).append( instance( target.instance ) ).append( " )" );
+			for ( int i = target.parents.depth() - 1; i >= 0; i-- ) {
+				src.append( ".within( " ).append( instance( target.parents.at( i ) ) ).append( " )" );
+			}
+			if ( target.packages.equalTo( Packages.DEFAULT ) ) {
+				src.append( ".in( Packages.DEFAULT )" );
+			} else if ( !target.packages.equalTo( Packages.ALL ) ) {
+				throw new Uncompilable( "packages " + target.packages );
+			}
+			return src.toString();
+		}
+
+		String instance( Instance<?> instance ) throws Uncompilable {
+			if ( instance == Instance.ANY ) {
+				return "Instance.ANY";
+			}
+			return "Instance.instance( " + name( instance.name ) + ", " + type( instance.type ) + " )";
+		}
+
+		static String name( Name name ) {
+			if ( name.isDefault() ) {
+				return "Name.DEFAULT";
+			}
+			return name.isAny()
+				? "Name.ANY"
+				: "Name.named( " + string( name.toString() ) + " )";
+		}
+
+		String type( Type<?> type ) throws Uncompilable {
+			if ( type == Type.WILDCARD ) {
+				return "Type.WILDCARD";
+			}
+			StringBuilder src = new StringBuilder( "Type.raw( " ).append( type( type.rawType ) ).append( " )" );
+			if ( type.isParameterized() ) {
+				Type<?>[] params = type.parameters();
+				src.append( ".parametized( " );
+				for ( int i = 0; i < params.length; i++ ) {
+					src.append( i == 0 ? "" : ", " ).append( type( params[i] ) );
+				}
+				src.append( " )" );
+			}
+			if ( type.isUpperBound() ) {
+				src.append( ".asUpperBound()" );
+			}
+			return src.toString();
+		}
+
+		String type( Class<?> type ) throws Uncompilable {
+			return canonical( type ) + ".class";
+		}
+
+		String canonical( Class<?> type ) throws Uncompilable {
+			if ( !isAccessible( type ) ) {
+				throw new Uncompilable( "inaccessible " + type.getName() );
+			}
+			return type.getCanonicalName();
+		}
+
+		String value( Object value ) throws Uncompilable {
+			if ( value instanceof String ) {
+				return string( (String) value );
+			}
+			if ( value instanceof Boolean ) {
+				return "Boolean." + ( (Boolean) value ? "TRUE" : "FALSE" );
+			}
+			if ( value instanceof Integer ) {
+				return "Integer.valueOf( " + value + " )";
+			}
+			if ( value instanceof Long ) {
+				return "Long.valueOf( " + value + "L )";
+			}
+			if ( value instanceof Short || value instanceof Byte ) {
+				String type = value.getClass().getSimpleName();
+				return type + ".valueOf( (" + type.toLowerCase() + ") " + value + " )";
+			}
+			if ( value instanceof Character ) {
+				return "Character.valueOf( (char) " + (int) (Character) value + " )";
+			}
+			if ( value instanceof Float || value instanceof Double ) {
+				return value.getClass().getSimpleName() + ".valueOf( \"" + value + "\" )";
+			}
+			if ( value instanceof Enum && isAccessible( ( (Enum<?>) value ).getDeclaringClass() ) ) {
+				return ( (Enum<?>) value ).getDeclaringClass().getCanonicalName() + "." + ( (Enum<?>) value ).name();
+			}
+			if ( value instanceof Class ) {
+				return type( (Class<?>) value );
+			}
+			throw new Uncompilable( "constant " + value );
+		}
+
+		static String string( String value ) {
+			StringBuilder src = new StringBuilder( value.length() + 2 ).append( '"' );
+			for ( char c : value.toCharArray() ) {
+				if ( c == '"' || c == '\\' ) {
+					src.append( '\\' ).append( c );
+				} else if ( c < ' ' || c > '~' ) {
+					src.append( String.format( "\\u%04x", (int) c ) );
+				} else {
+					src.append( c );
+				}
+			}
+			return src.append( '"' ).toString();
+		}
+
+		private void checkAccessible( Member member ) throws Uncompilable {
+			int modifiers = member.getModifiers();
+			if ( !isAccessible( member.getDeclaringClass() ) || Modifier.isPrivate( modifiers )
+					|| !Modifier.isPublic( modifiers ) && !isSamePackage( member.getDeclaringClass() ) ) {
+				throw new Uncompilable( "inaccessible " + member );
+			}
+		}
+
+		private boolean isAccessible( Class<?> type ) {
+			if ( type.isArray() ) {
+				return isAccessible( type.getComponentType() );
+			}
+			if ( type.isPrimitive() ) {
+				return true;
+			}
+			if ( type.getCanonicalName() == null ) {
+				return false;
+			}
+			int modifiers = type.getModifiers();
+			if ( Modifier.isPrivate( modifiers ) || !Modifier.isPublic( modifiers ) && !isSamePackage( type ) ) {
+				return false;
+			}
+			return type.getEnclosingClass() == null || isAccessible( type.getEnclosingClass() );
+		}
+
+		private boolean isSamePackage( Class<?> type ) {
+			Package p = type.getPackage();
+			return pkg.equals( p == null ? "" : p.getName() );
+		}
+
+		/**
+		 * @return the expression referring to the public constant of the owner
+		 *         class that is the given value or null if there is none.
+		 */
+		private static String constantIn( Class<?> owner, Object value ) {
+			for ( Field f : owner.getFields() ) {
+				int modifiers = f.getModifiers();
+				if ( Modifier.isStatic( modifiers ) && Modifier.isFinal( modifiers ) ) {
+					try {
+						if ( f.get( null ) == value ) {
+							return owner.getSimpleName() + "." + f.getName();
+						}
+					} catch ( IllegalAccessException e ) {
+						// just not a candidate
+					}
+				}
+			}
+			return null;
+		}
+	}
+}
@@ -0,0 +1,671 @@
+/*
+ *  Copyright (c) 2012-2017, Jan Bernitt
+ *
+ *  Licensed under the Apache License, Version 2.0, http://www.apache.org/licenses/LICENSE-2.0
+ */
+package se.jbee.inject.bootstrap;
+
+import static java.util.stream.Collectors.toList;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import se.jbee.inject.DeclarationType;
+import se.jbee.inject.Injector;
+import se.jbee.inject.Instance;
+import se.jbee.inject.Name;
+import se.jbee.inject.Packages;
+import se.jbee.inject.Parameter;
+import se.jbee.inject.Resource;
+import se.jbee.inject.Source;
+import se.jbee.inject.Supplier;
+import se.jbee.inject.Target;
+import se.jbee.inject.Type;
+import se.jbee.inject.bootstrap.BoundParameter.ParameterType;
+import se.jbee.inject.config.Edition;
+import se.jbee.inject.config.Globals;
+import se.jbee.inject.config.Options;
+import se.jbee.inject.config.Presets;
+import se.jbee.inject.container.Inject;
+import se.jbee.inject.container.Scope;
+import se.jbee.inject.container.Scoped;
+
+/**
+ * A binary snapshot of the disambiguated {@link Binding}s of a root
+ * {@link Bundle}. When an up to date snapshot exists the container is created
+ * from it without installing bundles, declaring modules or expanding macros.
+ *
+ * A snapshot is identified by a key computed from the root {@link Bundle}, the
+ * {@link Globals} and the class-path. Should the key not match, the file be
+ * unreadable or a {@link Binding} use a {@link Supplier} or {@link Scope} that
+ * cannot be described the full bootstrapping is done instead.
+ *
+ * The {@link Options} and {@link Presets} of the {@link Globals} are
+ * described structurally. Preset values are described if they are strings,
+ * boxed primitives, enums, classes, types or arrays, lists, sets or maps of
+ * such values. For any other value no snapshot is used. The
+ * {@link Edition} is described by its textual form if it has one.
+ *
+ * Archives on the class-path are identified by their size and modification
+ * time. Directories are identified by the relative path, size and modification
+ * time of every file they contain so that classes recompiled in place also
+ * invalidate the snapshot.
+ *
+ * @author Jan Bernitt (jan@jbee.se)
+ */
+public final class Snapshot {
+
+	private static final int MAGIC = 0x53494C4B;
+	private static final int VERSION = 1;
+
+	/**
+	 * Creates the {@link Injector} from the snapshot if it is up to date.
+	 * Otherwise the {@link Injector} is bootstrapped and the snapshot
+	 * (re)written.
+	 */
+	public static Injector injector( Class<? extends Bundle> root, Globals globals, File snapshot ) {
+		String key = key( root, globals );
+		Binding<?>[] bindings = key == null ? null : read( snapshot, key );
+		if ( bindings == null ) {
+			bindings = Bootstrap.bindings( root, Bindings.bindings( Macros.DEFAULT, Inspect.DEFAULT ), globals );
+			if ( key != null ) {
+				write( snapshot, key, bindings );
+			}
+		}
+		return Inject.container( bindings );
+	}
+
+	/**
+	 * @return the key identifying a snapshot for the given root and
+	 *         {@link Globals} on the current class-path or null if the
+	 *         {@link Globals} cannot be described.
+	 */
+	public static String key( Class<? extends Bundle> root, Globals globals ) {
+		String edition = describe( globals.edition );
+		if ( edition == null ) {
+			return null;
+		}
+		List<Object> options = new ArrayList<>();
+		globals.options.forEach( ( property, chosen ) -> {
+			options.add( property );
+			options.add( chosen );
+		} );
+		List<Object> presets = new ArrayList<>();
+		globals.presets.forEach( ( type, value ) -> {
+			presets.add( type );
+			presets.add( value );
+		} );
+		StringBuilder described = new StringBuilder();
+		try {
+			describe( options, described );
+			describe( presets, described );
+		} catch ( Undescribable e ) {
+			return null;
+		}
+		try {
+			MessageDigest digest = MessageDigest.getInstance( "SHA-256" );
+			update( digest, root.getName() );
+			update( digest, edition );
+			update( digest, described.toString() );
+			for ( String entry : System.getProperty( "java.class.path", "" ).split( File.pathSeparator ) ) {
+				fingerprint( digest, new File( entry ).toPath() );
+			}
+			StringBuilder key = new StringBuilder();
+			for ( byte b : digest.digest() ) {
+				key.append( String.format( "%02x", b ) );
+			}
+			return key.toString();
+		} catch ( NoSuchAlgorithmException | IOException e ) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return the {@link Binding}s in the snapshot or null if there is no
+	 *         readable snapshot for the given key.
+	 */
+	public static Binding<?>[] read( File snapshot, String key ) {
+		if ( !snapshot.isFile() ) {
+			return null;
+		}
+		try ( DataInputStream in = new DataInputStream( Files.newInputStream( snapshot.toPath() ) ) ) {
+			if ( in.readInt() != MAGIC || in.readInt() != VERSION || !in.readUTF().equals( key ) ) {
+				return null;
+			}
+			return new Reader( in ).bindings();
+		} catch ( IOException | ReflectiveOperationException | RuntimeException e ) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return true, if the snapshot has been written, false if any of the
+	 *         {@link Binding}s cannot be described or writing failed.
+	 */
+	public static boolean write( File snapshot, String key, Binding<?>[] bindings ) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream( bindings.length * 256 );
+		try ( DataOutputStream out = new DataOutputStream( bytes ) ) {
+			out.writeInt( MAGIC );
+			out.writeInt( VERSION );
+			out.writeUTF( key );
+			new Writer( out ).bindings( bindings );
+		} catch ( IOException | Undescribable e ) {
+			return false;
+		}
+		try {
+			Path target = snapshot.toPath().toAbsolutePath();
+			Files.createDirectories( target.getParent() );
+			Path tmp = Files.createTempFile( target.getParent(), snapshot.getName(), ".tmp" );
+			Files.write( tmp, bytes.toByteArray() );
+			Files.move( tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+			return true;
+		} catch ( IOException e ) {
+			return false;
+		}
+	}
+
+	private static String describe( Edition edition ) {
+		if ( edition == Edition.FULL ) {
+			return "full";
+		}
+		try {
+			return edition.getClass().getMethod( "toString" ).getDeclaringClass() == Object.class
+				? null
+				: edition.toString();
+		} catch ( NoSuchMethodException e ) {
+			return null;
+		}
+	}
+
+	/**
+	 * Appends a lossless description of an option or preset value. Elements
+	 * of sets and maps are sorted by their description so that the order of
+	 * iteration does not matter.
+	 */
+	private static void describe( Object value, StringBuilder key ) throws Undescribable {
+		if ( value == null ) {
+			key.append( 'n' );
+		} else if ( value instanceof String ) {
+			token( key, 's', (String) value );
+		} else if ( value instanceof Boolean || value instanceof Character || value instanceof Integer
+				|| value instanceof Long || value instanceof Short || value instanceof Byte
+				|| value instanceof Float || value instanceof Double ) {
+			token( key, 'v', value.getClass().getSimpleName() + ":" + value );
+		} else if ( value instanceof Enum ) {
+			token( key, 'e', ( (Enum<?>) value ).getDeclaringClass().getName() + "." + ( (Enum<?>) value ).name() );
+		} else if ( value instanceof Class ) {
+			token( key, 'c', ( (Class<?>) value ).getName() );
+		} else if ( value instanceof Type ) {
+			token( key, 't', value.toString() );
+		} else if ( value.getClass().isArray() ) {
+			int length = java.lang.reflect.Array.getLength( value );
+			key.append( '[' ).append( length );
+			for ( int i = 0; i < length; i++ ) {
+				describe( java.lang.reflect.Array.get( value, i ), key );
+			}
+			key.append( ']' );
+		} else if ( value instanceof List ) {
+			key.append( '(' ).append( ( (List<?>) value ).size() );
+			for ( Object e : (List<?>) value ) {
+				describe( e, key );
+			}
+			key.append( ')' );
+		} else if ( value instanceof Set ) {
+			List<String> elements = new ArrayList<>();
+			for ( Object e : (Set<?>) value ) {
+				elements.add( described( e ) );
+			}
+			unordered( '{', elements, '}', key );
+		} else if ( value instanceof Map ) {
+			List<String> entries = new ArrayList<>();
+			for ( Map.Entry<?, ?> e : ( (Map<?, ?>) value ).entrySet() ) {
+				entries.add( described( e.getKey() ) + "=" + described( e.getValue() ) );
+			}
+			unordered( '<', entries, '>', key );
+		} else {
+			throw new Undescribable( "value of " + value.getClass().getName() );
+		}
+	}
+
+	private static String described( Object value ) throws Undescribable {
+		StringBuilder b = new StringBuilder();
+		describe( value, b );
+		return b.toString();
+	}
+
+	private static void unordered( char open, List<String> elements, char close, StringBuilder key ) {
+		Collections.sort( elements );
+		key.append( open ).append( elements.size() );
+		for ( String e : elements ) {
+			key.append( e );
+		}
+		key.append( close );
+	}
+
+	private static void token( StringBuilder key, char kind, String value ) {
+		key.append( kind ).append( value.length() ).append( ':' ).append( value );
+	}
+
+	private static void update( MessageDigest digest, String value ) {
+		digest.update( value.getBytes( StandardCharsets.UTF_8 ) );
+		digest.update( (byte) 0 );
+	}
+
+	private static void fingerprint( MessageDigest digest, Path entry ) throws IOException {
+		update( digest, entry.toString() );
+		if ( !Files.isDirectory( entry ) ) {
+			if ( Files.exists( entry ) ) {
+				stat( digest, entry );
+			}
+			return;
+		}
+		List<Path> files;
+		try ( Stream<Path> tree = Files.walk( entry ) ) {
+			files = tree.filter( Files::isRegularFile ).sorted().collect( toList() );
+		}
+		for ( Path file : files ) {
+			update( digest, entry.relativize( file ).toString() );
+			stat( digest, file );
+		}
+	}
+
+	private static void stat( MessageDigest digest, Path file ) throws IOException {
+		update( digest, Files.size( file ) + ":" + Files.getLastModifiedTime( file ).toMillis() );
+	}
+
+	private Snapshot() {
+		throw new UnsupportedOperationException( "util" );
+	}
+
+	private enum Kind { FIELD, CONSTANT, INSTANCE, PARAMETRIZED, REFERENCE, CONSTRUCTOR, METHOD }
+
+	private enum Value { STRING, BOOLEAN, INTEGER, LONG, FLOAT, DOUBLE, BYTE, SHORT, CHARACTER, ENUM, CLASS }
+
+	private static final class Undescribable
+			extends Exception {
+
+		Undescribable( String reason ) {
+			super( reason, null, false, false );
+		}
+	}
+
+	private static final class Writer {
+
+		private final DataOutputStream out;
+
+		Writer( DataOutputStream out ) {
+			super();
+			this.out = out;
+		}
+
+		void bindings( Binding<?>[] bindings ) throws IOException, Undescribable {
+			out.writeInt( bindings.length );
+			for ( Binding<?> binding : bindings ) {
+				instance( binding.resource.instance );
+				target( binding.resource.target );
+				out.writeByte( binding.type.ordinal() );
+				supplier( binding.supplier );
+				out.writeUTF( scope( binding.scope ) );
+				out.writeUTF( binding.source.ident.getName() );
+				out.writeByte( binding.source.declarationType.ordinal() );
+			}
+		}
+
+		private static String scope( Scope scope ) throws Undescribable {
+			for ( Field f : Scoped.class.getFields() ) {
+				try {
+					if ( Modifier.isStatic( f.getModifiers() ) && f.get( null ) == scope ) {
+						return f.getName();
+					}
+				} catch ( IllegalAccessException e ) {
+					// just not a candidate
+				}
+			}
+			throw new Undescribable( "scope " + scope );
+		}
+
+		private void supplier( Supplier<?> supplier ) throws IOException, Undescribable {
+			for ( Field f : Supply.class.getFields() ) {
+				try {
+					if ( Modifier.isStatic( f.getModifiers() ) && f.get( null ) == supplier ) {
+						kind( Kind.FIELD );
+						out.writeUTF( f.getName() );
+						return;
+					}
+				} catch ( IllegalAccessException e ) {
+					// just not a candidate
+				}
+			}
+			if ( supplier instanceof Supply.ConstantSupplier ) {
+				kind( Kind.CONSTANT );
+				value( ( (Supply.ConstantSupplier<?>) supplier ).constant );
+			} else if ( supplier instanceof Supply.InstanceSupplier ) {
+				kind( Kind.INSTANCE );
+				instance( ( (Supply.InstanceSupplier<?>) supplier ).instance );
+			} else if ( supplier instanceof Supply.ParametrizedInstanceSupplier ) {
+				kind( Kind.PARAMETRIZED );
+				instance( ( (Supply.ParametrizedInstanceSupplier<?>) supplier ).instance );
+			} else if ( supplier instanceof Supply.BridgeSupplier ) {
+				kind( Kind.REFERENCE );
+				out.writeUTF( ( (Supply.BridgeSupplier<?>) supplier ).type.getName() );
+			} else if ( supplier instanceof Supply.ConstructorSupplier ) {
+				Supply.ConstructorSupplier<?> s = (Supply.ConstructorSupplier<?>) supplier;
+				constructor( false, s.constructor, s.params );
+			} else if ( supplier instanceof Supply.ConstructorHandleSupplier ) {
+				Supply.ConstructorHandleSupplier<?> s = (Supply.ConstructorHandleSupplier<?>) supplier;
+				constructor( true, s.constructor, s.params );
+			} else if ( supplier instanceof Supply.MethodSupplier ) {
+				Supply.MethodSupplier<?> s = (Supply.MethodSupplier<?>) supplier;
+				method( false, s.method, s.params );
+			} else if ( supplier instanceof Supply.MethodHandleSupplier ) {
+				Supply.MethodHandleSupplier<?> s = (Supply.MethodHandleSupplier<?>) supplier;
+				method( true, s.method, s.params );
+			} else {
+				throw new Undescribable( "supplier " + supplier );
+			}
+		}
+
+		private void constructor( boolean handle, Constructor<?> constructor, BoundParameter<?>[] params ) throws IOException, Undescribable {
+			kind( Kind.CONSTRUCTOR );
+			out.writeBoolean( handle );
+			out.writeUTF( constructor.getDeclaringClass().getName() );
+			classes( constructor.getParameterTypes() );
+			parameters( params );
+		}
+
+		private void method( boolean handle, BoundMethod<?> method, BoundParameter<?>[] params ) throws IOException, Undescribable {
+			if ( method.instance != null ) {
+				throw new Undescribable( "method bound to instance " + method.factory );
+			}
+			kind( Kind.METHOD );
+			out.writeBoolean( handle );
+			out.writeUTF( method.factory.getDeclaringClass().getName() );
+			out.writeUTF( method.factory.getName() );
+			classes( method.factory.getParameterTypes() );
+			type( method.returnType );
+			parameters( params );
+		}
+
+		private void classes( Class<?>[] classes ) throws IOException {
+			out.writeByte( classes.length );
+			for ( Class<?> c : classes ) {
+				out.writeUTF( c.getName() );
+			}
+		}
+
+		private void parameters( BoundParameter<?>[] params ) throws IOException, Undescribable {
+			out.writeByte( params.length );
+			for ( BoundParameter<?> param : params ) {
+				if ( param.type == ParameterType.EXTERNAL
+						&& ( param.asType.rawType != Injector.class || !( param.supplier instanceof Supply.InstanceSupplier ) ) ) {
+					throw new Undescribable( "parameter " + param );
+				}
+				out.writeByte( param.type.ordinal() );
+				type( param.asType );
+				if ( param.type == ParameterType.CONSTANT ) {
+					value( param.value );
+				} else {
+					instance( param.instance );
+				}
+			}
+		}
+
+		private void value( Object value ) throws IOException, Undescribable {
+			if ( value instanceof String ) {
+				value( Value.STRING );
+				out.writeUTF( (String) value );
+			} else if ( value instanceof Boolean ) {
+				value( Value.BOOLEAN );
+				out.writeBoolean( (Boolean) value );
+			} else if ( value instanceof Integer ) {
+				value( Value.INTEGER );
+				out.writeInt( (Integer) value );
+			} else if ( value instanceof Long ) {
+				value( Value.LONG );
+				out.writeLong( (Long) value );
+			} else if ( value instanceof Float ) {
+				value( Value.FLOAT );
+				out.writeFloat( (Float) value );
+			} else if ( value instanceof Double ) {
+				value( Value.DOUBLE );
+				out.writeDouble( (Double) value );
+			} else if ( value instanceof Byte ) {
+				value( Value.BYTE );
+				out.writeByte( (Byte) value );
+			} else if ( value instanceof Short ) {
+				value( Value.SHORT );
+				out.writeShort( (Short) value );
+			} else if ( value instanceof Character ) {
+				value( Value.CHARACTER );
+				out.writeChar( (Character) value );
+			} else if ( value instanceof Enum ) {
+				value( Value.ENUM );
+				out.writeUTF( ( (Enum<?>) value ).getDeclaringClass().getName() );
+				out.writeUTF( ( (Enum<?>) value ).name() );
+			} else if ( value instanceof Class ) {
+				value( Value.CLASS );
+				out.writeUTF( ( (Class<?>) value ).getName() );
+			} else {
+				throw new Undescribable( "constant " + value );
+			}
+		}
+
+		private void target( Target target ) throws IOException, Undescribable {
+			instance( target.instance );
+			out.writeByte( target.parents.depth() );
+			for ( int i = target.parents.depth() - 1; i >= 0; i-- ) {
+				instance( target.parents.at( i ) );
+			}
+			if ( target.packages.equalTo( Packages.ALL ) ) {
+				out.writeBoolean( true );
+			} else if ( target.packages.equalTo( Packages.DEFAULT ) ) {
+				out.writeBoolean( false );
+			} else {
+				throw new Undescribable( "packages " + target.packages );
+			}
+		}
+
+		private void instance( Instance<?> instance ) throws IOException {
+			out.writeUTF( instance.name.toString() );
+			type( instance.type );
+		}
+
+		private void type( Type<?> type ) throws IOException {
+			out.writeUTF( type.rawType.getName() );
+			out.writeBoolean( type.isUpperBound() );
+			Type<?>[] params = type.parameters();
+			out.writeByte( params.length );
+			for ( Type<?> param : params ) {
+				type( param );
+			}
+		}
+
+		private void kind( Kind kind ) throws IOException {
+			out.writeByte( kind.ordinal() );
+		}
+
+		private void value( Value value ) throws IOException {
+			out.writeByte( value.ordinal() );
+		}
+	}
+
+	private static final class Reader {
+
+		private static final Kind[] KINDS = Kind.values();
+		private static final Value[] VALUES = Value.values();
+		private static final BindingType[] BINDING_TYPES = BindingType.values();
+		private static final DeclarationType[] DECLARATION_TYPES = DeclarationType.values();
+		private static final ParameterType[] PARAMETER_TYPES = ParameterType.values();
+
+		private final DataInputStream in;
+
+		Reader( DataInputStream in ) {
+			super();
+			this.in = in;
+		}
+
+		Binding<?>[] bindings() throws IOException, ReflectiveOperationException {
+			Binding<?>[] bindings = new Binding<?>[in.readInt()];
+			for ( int i = 0; i < bindings.length; i++ ) {
+				bindings[i] = binding( instance(), target() );
+			}
+			return bindings;
+		}
+
+		@SuppressWarnings ( "unchecked" )
+		private <T> Binding<T> binding( Instance<T> instance, Target target ) throws IOException, ReflectiveOperationException {
+			BindingType type = BINDING_TYPES[in.readUnsignedByte()];
+			Supplier<? extends T> supplier = (Supplier<? extends T>) supplier();
+			Scope scope = (Scope) Scoped.class.getField( in.readUTF() ).get( null );
+			Source source = Source.source( type( in.readUTF() ) ).typed( DECLARATION_TYPES[in.readUnsignedByte()] );
+			return Binding.binding( new Resource<>( instance, target ), type, supplier, scope, source );
+		}
+
+		@SuppressWarnings ( { "unchecked", "rawtypes" } )
+		private Supplier<?> supplier() throws IOException, ReflectiveOperationException {
+			switch ( KINDS[in.readUnsignedByte()] ) {
+			case FIELD:
+				return (Supplier<?>) Supply.class.getField( in.readUTF() ).get( null );
+			case CONSTANT:
+				return Supply.constant( value() );
+			case INSTANCE:
+				return Supply.instance( instance() );
+			case PARAMETRIZED:
+				return Supply.parametrizedInstance( instance() );
+			case REFERENCE:
+				return Supply.reference( (Class) type( in.readUTF() ) );
+			case CONSTRUCTOR:
+				boolean handle = in.readBoolean();
+				BoundConstructor<?> constructor = BoundConstructor.bind(
+						type( in.readUTF() ).getDeclaredConstructor( classes() ), parameters() );
+				return handle ? Supply.constructorHandle( constructor ) : Supply.costructor( constructor );
+			default:
+			case METHOD:
+				handle = in.readBoolean();
+				Method factory = type( in.readUTF() ).getDeclaredMethod( in.readUTF(), classes() );
+				BoundMethod<?> method = BoundMethod.bind( null, factory, type(), parameters() );
+				return handle ? Supply.methodHandle( method ) : Supply.method( method );
+			}
+		}
+
+		private Class<?>[] classes() throws IOException, ClassNotFoundException {
+			Class<?>[] classes = new Class<?>[in.readUnsignedByte()];
+			for ( int i = 0; i < classes.length; i++ ) {
+				classes[i] = type( in.readUTF() );
+			}
+			return classes;
+		}
+
+		private Parameter<?>[] parameters() throws IOException, ReflectiveOperationException {
+			Parameter<?>[] params = new Parameter<?>[in.readUnsignedByte()];
+			for ( int i = 0; i < params.length; i++ ) {
+				ParameterType kind = PARAMETER_TYPES[in.readUnsignedByte()];
+				params[i] = kind == ParameterType.CONSTANT
+					? constant( type(), value() )
+					: parameter( type(), instance() );
+			}
+			return params;
+		}
+
+		@SuppressWarnings ( "unchecked" )
+		private static <T> Parameter<T> constant( Type<T> type, Object value ) {
+			return BoundParameter.constant( type, (T) value );
+		}
+
+		@SuppressWarnings ( "unchecked" )
+		private static <T> Parameter<?> parameter( Type<T> type, Instance<?> instance ) {
+			return instance.type.equalTo( type )
+				? instance
+				: BoundParameter.asType( type, (Instance<? extends T>) instance );
+		}
+
+		@SuppressWarnings ( { "unchecked", "rawtypes" } )
+		private Object value() throws IOException, ClassNotFoundException {
+			switch ( VALUES[in.readUnsignedByte()] ) {
+			case STRING: return in.readUTF();
+			case BOOLEAN: return in.readBoolean();
+			case INTEGER: return in.readInt();
+			case LONG: return in.readLong();
+			case FLOAT: return in.readFloat();
+			case DOUBLE: return in.readDouble();
+			case BYTE: return in.readByte();
+			case SHORT: return in.readShort();
+			case CHARACTER: return in.readChar();
+			case ENUM: return Enum.valueOf( (Class) type( in.readUTF() ), in.readUTF() );
+			default:
+			case CLASS: return type( in.readUTF() );
+			}
+		}
+
+		private Target target() throws IOException, ClassNotFoundException {
+			Target target = Target.targeting( instance() );
+			int parents = in.readUnsignedByte();
+			for ( int i = 0; i < parents; i++ ) {
+				target = target.within( instance() );
+			}
+			return in.readBoolean()
+				? target
+				: target.in( Packages.DEFAULT );
+		}
+
+		private Instance<?> instance() throws IOException, ClassNotFoundException {
+			String name = in.readUTF();
+			Type<?> type = type();
+			if ( Name.ANY.toString().equals( name ) ) {
+				return type == Type.WILDCARD
+					? Instance.ANY
+					: Instance.instance( Name.ANY, type );
+			}
+			return Instance.instance( Name.named( name ), type );
+		}
+
+		private Type<?> type() throws IOException, ClassNotFoundException {
+			Type<?> type = Type.raw( type( in.readUTF() ) );
+			boolean upperBound = in.readBoolean();
+			Type<?>[] params = new Type<?>[in.readUnsignedByte()];
+			for ( int i = 0; i < params.length; i++ ) {
+				params[i] = type();
+			}
+			if ( params.length > 0 ) {
+				type = type.parametized( params );
+			}
+			return upperBound ? type.asUpperBound() : type;
+		}
+
+		private static Class<?> type( String name ) throws ClassNotFoundException {
+			switch ( name ) {
+			case "boolean": return boolean.class;
+			case "byte": return byte.class;
+			case "char": return char.class;
+			case "short": return short.class;
+			case "int": return int.class;
+			case "long": return long.class;
+			case "float": return float.class;
+			case "double": return double.class;
+			case "void": return void.class;
+			default:
+				ClassLoader loader = Thread.currentThread().getContextClassLoader();
+				return Class.forName( name, false, loader == null ? Snapshot.class.getClassLoader() : loader );
+			}
+		}
+	}
+}
@@ -10,9 +10,13 @@ import static se.jbee.inject.Type.parameterTypes;
 import static se.jbee.inject.Type.raw;
 import static se.jbee.inject.bootstrap.BoundParameter.bind;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -30,7 +34,11 @@ import se.jbee.inject.UnresolvableDependency;
 import se.jbee.inject.UnresolvableDependency.NoResourceForDependency;
 import se.jbee.inject.UnresolvableDependency.SupplyFailed;
 import se.jbee.inject.container.Factory;
+import se.jbee.inject.container.FlightEvents;
+import se.jbee.inject.container.Inject;
+import se.jbee.inject.container.Lease;
 import se.jbee.inject.container.Provider;
+import se.jbee.inject.container.Scoped;
 
 /**
  * Utility as a factory to create different kinds of {@link Supplier}s.
@@ -40,6 +48,7 @@ import se.jbee.inject.container.Provider;
 public final class Supply {
 
 	public static final Supplier<Provider<?>> PROVIDER_BRIDGE = new ProviderSupplier();
+	public static final Supplier<Lease<?>> LEASE_BRIDGE = new LeaseSupplier();
 	public static final Supplier<List<?>> LIST_BRIDGE = new ArrayToListBridgeSupplier();
 	public static final Supplier<Set<?>> SET_BRIDGE = new ArrayToSetBridgeSupplier();
 	public static final Factory<Logger> LOGGER = new LoggerFactory();
@@ -90,6 +99,38 @@ public final class Supply {
 				bind( parameterTypes(constructor.constructor), constructor.parameters));
 	}
 
+	/**
+	 * Like {@link #method(BoundMethod)} but the method is invoked through a
+	 * {@link MethodHandle} spread to its exact arity instead of reflection.
+	 */
+	public static <T> Supplier<T> methodHandle( BoundMethod<T> method ) {
+		return new MethodHandleSupplier<>(method, 
+				bind( parameterTypes(method.factory), method.parameters ));
+	}
+
+	/**
+	 * Like {@link #costructor(BoundConstructor)} but the constructor is invoked
+	 * through a {@link MethodHandle} spread to its exact arity instead of
+	 * reflection.
+	 */
+	public static <T> Supplier<T> constructorHandle( BoundConstructor<T> constructor ) {
+		return new ConstructorHandleSupplier<>( constructor.constructor, 
+				bind( parameterTypes(constructor.constructor), constructor.parameters));
+	}
+
+	/**
+	 * Used by precompiled injectors to invoke a constructor or method directly.
+	 * 
+	 * @param invoked
+	 *            describes what is invoked (used in messages)
+	 * @param params
+	 *            the parameters in the order of the arguments passed to the
+	 *            {@link Invocation}
+	 */
+	public static <T> Supplier<T> invocation( String invoked, BoundParameter<?>[] params, Invocation<T> invocation ) {
+		return new InvocationSupplier<>( invoked, params, invocation );
+	}
+
 	public static <T> Supplier<T> factory( Factory<T> factory ) {
 		return new FactorySupplier<>( factory );
 	}
@@ -114,14 +155,23 @@ public final class Supply {
 		@Override
 		public final T supply( Dependency<? super T> dependency, Injector injector ) {
 			Type<?> elementType = dependency.type().parameter( 0 );
-			return bridge( supplyArray( dependency.typed( elementType.addArrayDimension() ), injector ) );
+			return bridge( dependency, dependency.typed( elementType.addArrayDimension() ), injector );
 		}
 
-		private static <E> E[] supplyArray( Dependency<E[]> elementType, Injector resolver ) {
-			return resolver.resolve( elementType );
+		private <E> T bridge( Dependency<?> dependency, Dependency<E[]> elements, Injector injector ) {
+			return Inject.bridge( injector, dependency, elements, this::bridge, this::shared );
 		}
 
+		/**
+		 * @return a collection of the elements owned by the receiver
+		 */
 		abstract <E> T bridge( E[] elements );
+
+		/**
+		 * @return an unmodifiable collection of the elements that is shared by
+		 *         all receivers
+		 */
+		abstract <E> T shared( E[] elements );
 	}
 
 	/**
@@ -145,6 +195,11 @@ public final class Supply {
 			return Arrays.asList( elements );
 		}
 
+		@Override
+		<E> List<E> shared( E[] elements ) {
+			return Collections.unmodifiableList( Arrays.asList( elements ) );
+		}
+
 	}
 
 	private static final class ArrayToSetBridgeSupplier
@@ -159,6 +214,11 @@ public final class Supply {
 			return new HashSet<>( Arrays.asList( elements ) );
 		}
 
+		@Override
+		<E> Set<E> shared( E[] elements ) {
+			return Collections.unmodifiableSet( bridge( elements ) );
+		}
+
 	}
 
 	private static final class DependencySupplier<T>
@@ -182,10 +242,10 @@ public final class Supply {
 		}
 	}
 
-	private static final class ConstantSupplier<T>
+	static final class ConstantSupplier<T>
 			implements Supplier<T> {
 
-		private final T constant;
+		final T constant;
 
 		ConstantSupplier( T constant ) {
 			super();
@@ -197,6 +257,11 @@ public final class Supply {
 			return constant;
 		}
 
+		@Override
+		public boolean isConstant() {
+			return true;
+		}
+
 		@Override
 		public String toString() {
 			return describe( "supplies", constant );
@@ -237,10 +302,10 @@ public final class Supply {
 		}
 	}
 
-	private static final class BridgeSupplier<T>
+	static final class BridgeSupplier<T>
 			implements Supplier<T> {
 
-		private final Class<? extends Supplier<? extends T>> type;
+		final Class<? extends Supplier<? extends T>> type;
 
 		BridgeSupplier( Class<? extends Supplier<? extends T>> type ) {
 			super();
@@ -257,10 +322,10 @@ public final class Supply {
 	/**
 	 * E.g. used to "forward" Collection<T> to List<T>.
 	 */
-	private static final class ParametrizedInstanceSupplier<T>
+	static final class ParametrizedInstanceSupplier<T>
 			implements Supplier<T> {
 
-		private final Instance<? extends T> instance;
+		final Instance<? extends T> instance;
 
 		ParametrizedInstanceSupplier( Instance<? extends T> instance ) {
 			super();
@@ -282,10 +347,10 @@ public final class Supply {
 
 	}
 	
-	private static final class InstanceSupplier<T>
+	static final class InstanceSupplier<T>
 			implements Supplier<T> {
 
-		private final Instance<? extends T> instance;
+		final Instance<? extends T> instance;
 
 		InstanceSupplier( Instance<? extends T> instance ) {
 			super();
@@ -322,6 +387,30 @@ public final class Supply {
 		}
 	}
 	
+	private static final class LeaseSupplier
+			implements Supplier<Lease<?>> {
+
+		LeaseSupplier() {
+			//make visible
+		}
+
+		@Override
+		public Lease<?> supply( Dependency<? super Lease<?>> dependency, Injector injector ) {
+			return lease( dependency.onTypeParameter().uninject().ignoredExpiry(), injector );
+		}
+
+		private static <T> Lease<T> lease( Dependency<T> dependency, Injector injector ) {
+			@SuppressWarnings ( "unchecked" )
+			Injectron<T> injectron = injector.resolve( dependency.typed( raw( Injectron.class ).parametized( dependency.type() ) ) );
+			return Scoped.lease( injectron, dependency );
+		}
+
+		@Override
+		public String toString() {
+			return describe( "supplies", Lease.class );
+		}
+	}
+
 	private static final class LazyDirectProvider<T> implements Provider<T> {
 		
 		private final Dependency<T> dependency;
@@ -378,7 +467,21 @@ public final class Supply {
 
 		@Override
 		public T supply( Dependency<? super T> dependency, Injector injector ) {
-			return factory.fabricate( dependency.instance, dependency.target( 1 ) );
+			if ( !FlightEvents.ENABLED ) {
+				return factory.fabricate( dependency.instance, dependency.target( 1 ) );
+			}
+			FlightEvents.Supply event = new FlightEvents.Supply();
+			event.begin();
+			try {
+				return factory.fabricate( dependency.instance, dependency.target( 1 ) );
+			} finally {
+				event.end();
+				if ( event.shouldCommit() ) {
+					event.type = dependency.type().rawType;
+					event.supplier = toString();
+					event.commit();
+				}
+			}
 		}
 
 		@Override
@@ -388,9 +491,9 @@ public final class Supply {
 
 	}
 	
-	private static final class ConstructorSupplier<T> extends WithParameters<T> {
+	static final class ConstructorSupplier<T> extends WithParameters<T> {
 
-		private final Constructor<T> constructor;
+		final Constructor<T> constructor;
 
 		ConstructorSupplier( Constructor<T> constructor, BoundParameter<?>[] params) {
 			super(params);
@@ -411,9 +514,9 @@ public final class Supply {
 		}
 	}
 
-	private static final class MethodSupplier<T> extends WithParameters<T> {
+	static final class MethodSupplier<T> extends WithParameters<T> {
 
-		private final BoundMethod<T> method;
+		final BoundMethod<T> method;
 		private Object owner;
 		private final Class<T> returnType;
 	
@@ -442,6 +545,108 @@ public final class Supply {
 		}
 	}
 
+	static final class ConstructorHandleSupplier<T> extends WithParameters<T> {
+
+		final Constructor<T> constructor;
+		private final MethodHandle handle;
+
+		ConstructorHandleSupplier( Constructor<T> constructor, BoundParameter<?>[] params) {
+			super(params);
+			this.constructor = constructor;
+			this.handle = spread( unreflect( constructor ), constructor.getParameterCount() );
+		}
+
+		@Override
+		protected void init(Dependency<? super T> dependency, Injector injector) { /*NOOP*/}
+
+		@Override
+		protected T invoke(Object[] args) {
+			return constructor.getDeclaringClass().cast( Supply.handle( handle, constructor, args ) );
+		}
+
+		@Override
+		public String toString() {
+			return describe( constructor );
+		}
+	}
+
+	static final class MethodHandleSupplier<T> extends WithParameters<T> {
+
+		final BoundMethod<T> method;
+		private final Class<T> returnType;
+		private MethodHandle handle;
+
+		MethodHandleSupplier( BoundMethod<T> method, BoundParameter<?>[] parameters ) {
+			super(parameters);
+			this.method = method;
+			this.returnType = method.returnType.rawType;
+			if ( !method.isInstanceMethod || method.instance != null ) {
+				this.handle = handle( method.instance );
+			}
+		}
+
+		private MethodHandle handle( Object owner ) {
+			MethodHandle unbound = unreflect( method.factory );
+			return spread( method.isInstanceMethod ? unbound.bindTo( owner ) : unbound,
+					method.factory.getParameterCount() );
+		}
+
+		@Override
+		protected void init(Dependency<? super T> dependency, Injector injector) {
+			if ( handle == null ) {
+				handle = handle( injector.resolve( Dependency.dependency( method.factory.getDeclaringClass() ) ) );
+			}
+		}
+
+		@Override
+		protected T invoke(Object[] args) {
+			return returnType.cast( Supply.handle( handle, method.factory, args ) );
+		}
+
+		@Override
+		public String toString() {
+			return describe( method.factory );
+		}
+	}
+
+	/**
+	 * A direct call of a constructor or method with the resolved arguments.
+	 */
+	@FunctionalInterface
+	public interface Invocation<T> {
+
+		T invoke( Object[] args ) throws Exception;
+	}
+
+	private static final class InvocationSupplier<T> extends WithParameters<T> {
+
+		private final String invoked;
+		private final Invocation<T> invocation;
+
+		InvocationSupplier( String invoked, BoundParameter<?>[] params, Invocation<T> invocation ) {
+			super(params);
+			this.invoked = invoked;
+			this.invocation = invocation;
+		}
+
+		@Override
+		protected void init(Dependency<? super T> dependency, Injector injector) { /*NOOP*/}
+
+		@Override
+		protected T invoke(Object[] args) {
+			try {
+				return invocation.invoke( args );
+			} catch ( Exception e ) {
+				throw new SupplyFailed("Failed to invoke: "+invoked, e);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return describe( invoked );
+		}
+	}
+
 	private static class RequiredSupplier<T>
 			implements Supplier<T> {
 
@@ -493,7 +698,7 @@ public final class Supply {
 	
 	public static abstract class WithParameters<T> implements Supplier<T> {
 		
-		private final BoundParameter<?>[] params;
+		final BoundParameter<?>[] params;
 
 		private InjectionSite previous;
 
@@ -517,7 +722,22 @@ public final class Supply {
 				local = new InjectionSite(dependency, injector, params);
 				previous = local;
 			}
-			return invoke(local.args(injector));	
+			Object[] args = local.args(injector);
+			if (!FlightEvents.ENABLED) {
+				return invoke(args);
+			}
+			FlightEvents.Supply event = new FlightEvents.Supply();
+			event.begin();
+			try {
+				return invoke(args);
+			} finally {
+				event.end();
+				if (event.shouldCommit()) {
+					event.type = dependency.type().rawType;
+					event.supplier = toString();
+					event.commit();
+				}
+			}
 		}
 	
 	}
@@ -537,4 +757,47 @@ public final class Supply {
 			throw SupplyFailed.valueOf(e, method);
 		}
 	}
+
+	/**
+	 * Invokes a {@link MethodHandle} adapted by {@link #spread(MethodHandle, int)}.
+	 * Failures are reported in the same way as for {@link #method(Method, Object, Object...)}.
+	 */
+	public static Object handle( MethodHandle handle, AccessibleObject invoked, Object[] args ) throws SupplyFailed {
+		try {
+			return (Object) handle.invokeExact( args );
+		} catch ( Exception e ) {
+			throw SupplyFailed.valueOf(e, invoked);
+		} catch ( Error e ) {
+			throw e;
+		} catch ( Throwable t ) {
+			throw new SupplyFailed("Failed to invoke: "+invoked, t);
+		}
+	}
+
+	/**
+	 * @return A handle of type <code>(Object[])Object</code> that accepts
+	 *         exactly as many arguments as the given handle.
+	 */
+	public static MethodHandle spread( MethodHandle handle, int arity ) {
+		return handle.asType( handle.type().generic() ).asSpreader( Object[].class, arity );
+	}
+
+	private static MethodHandle unreflect( Constructor<?> constructor ) {
+		try {
+			return MethodHandles.lookup().unreflectConstructor( constructor );
+		} catch ( IllegalAccessException e ) {
+			throw new SupplyFailed("Failed to access: "+constructor, e);
+		}
+	}
+
+	/**
+	 * @return the (unadapted) {@link MethodHandle} of the given {@link Method}
+	 */
+	public static MethodHandle unreflect( Method method ) {
+		try {
+			return MethodHandles.lookup().unreflect( method );
+		} catch ( IllegalAccessException e ) {
+			throw new SupplyFailed("Failed to access: "+method, e);
+		}
+	}
 }
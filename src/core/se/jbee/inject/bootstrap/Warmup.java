@@ -0,0 +1,274 @@
+/*
+ *  Copyright (c) 2012-2017, Jan Bernitt
+ *
+ *  Licensed under the Apache License, Version 2.0, http://www.apache.org/licenses/LICENSE-2.0
+ */
+package se.jbee.inject.bootstrap;
+
+import static se.jbee.inject.Dependency.dependency;
+import static se.jbee.inject.container.Typecast.injectronTypeOf;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import se.jbee.inject.Injector;
+import se.jbee.inject.Injectron;
+import se.jbee.inject.InjectronInfo;
+import se.jbee.inject.Instance;
+import se.jbee.inject.Supplier;
+import se.jbee.inject.UnresolvableDependency;
+import se.jbee.inject.bootstrap.BoundParameter.ParameterType;
+
+/**
+ * Instantiates all {@link Injectron}s that never expire (the singletons) using
+ * an {@link Executor}. Singletons that do not depend on each other are created
+ * concurrently. A singleton is only created after all the singletons its
+ * constructor or factory method (or link) depends upon have been created.
+ *
+ * The dependencies are derived from the {@link BoundParameter}s of the
+ * {@link Binding}s the {@link Injector} has been created from. Dependencies
+ * that cannot be derived that way are simply resolved by the thread creating
+ * the dependent instance.
+ *
+ * The result reports the time it took to create each singleton and the
+ * critical path, the chain of dependent singletons that took longest.
+ *
+ * @author Jan Bernitt (jan@jbee.se)
+ */
+public final class Warmup {
+
+	/**
+	 * @param bindings
+	 *            the {@link Binding}s the given {@link Injector} has been
+	 *            created from
+	 * @throws UnresolvableDependency
+	 *             the first exception that occurred creating a singleton
+	 */
+	public static Warmup eagerSingletons( Injector injector, Binding<?>[] bindings, Executor executor )
+			throws UnresolvableDependency {
+		long start = System.nanoTime();
+		Injectron<?>[] injectrons = injector.resolve( dependency( Injectron[].class ) );
+		Map<Injectron<?>, Node> nodes = new IdentityHashMap<>( injectrons.length );
+		for ( Injectron<?> i : injectrons ) {
+			nodes.put( i, new Node( i ) );
+		}
+		for ( Node node : nodes.values() ) {
+			node.dependencies = dependencies( injector, node.injectron.info(), bindings, nodes );
+		}
+		List<CompletableFuture<Void>> scheduled = new ArrayList<>();
+		for ( Node node : nodes.values() ) {
+			scheduled.add( node.schedule( executor ) );
+		}
+		try {
+			CompletableFuture.allOf( scheduled.toArray( new CompletableFuture<?>[0] ) ).join();
+		} catch ( CompletionException e ) {
+			if ( e.getCause() instanceof RuntimeException ) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+		return new Warmup( nodes.values(), System.nanoTime() - start );
+	}
+
+	/**
+	 * The singletons created in order of their construction time (longest
+	 * first).
+	 */
+	public final Injectron<?>[] singletons;
+
+	/**
+	 * The nanoseconds it took to create the singleton of the same index in
+	 * {@link #singletons}. This does not include the time it took to create
+	 * the singletons it depends upon.
+	 */
+	public final long[] nanos;
+
+	/**
+	 * The chain of singletons that depend on each other which took longest to
+	 * create. The first singleton does not depend on any other.
+	 */
+	public final Injectron<?>[] criticalPath;
+
+	public final long criticalPathNanos;
+
+	/**
+	 * The wall-clock time the entire warm-up took.
+	 */
+	public final long elapsedNanos;
+
+	private Warmup( Iterable<Node> nodes, long elapsedNanos ) {
+		List<Node> singletons = new ArrayList<>();
+		Node last = null;
+		for ( Node node : nodes ) {
+			if ( node.isSingleton() ) {
+				singletons.add( node );
+			}
+			if ( last == null || node.path() > last.path() ) {
+				last = node;
+			}
+		}
+		singletons.sort( ( a, b ) -> Long.compare( b.nanos, a.nanos ) );
+		this.singletons = new Injectron<?>[singletons.size()];
+		this.nanos = new long[singletons.size()];
+		for ( int i = 0; i < this.singletons.length; i++ ) {
+			this.singletons[i] = singletons.get( i ).injectron;
+			this.nanos[i] = singletons.get( i ).nanos;
+		}
+		List<Injectron<?>> path = new ArrayList<>();
+		this.criticalPathNanos = last == null ? 0L : last.path();
+		Set<Node> visited = Collections.newSetFromMap( new IdentityHashMap<>() );
+		while ( last != null && visited.add( last ) ) {
+			if ( last.isSingleton() ) {
+				path.add( 0, last.injectron );
+			}
+			last = last.longestDependency();
+		}
+		this.criticalPath = path.toArray( new Injectron<?>[path.size()] );
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder b = new StringBuilder();
+		b.append( String.format( "%d singletons in %.3f ms%n", singletons.length, elapsedNanos / 1e6d ) );
+		for ( int i = 0; i < singletons.length; i++ ) {
+			b.append( String.format( "%10.3f ms  %s%n", nanos[i] / 1e6d, singletons[i].info().resource ) );
+		}
+		b.append( String.format( "critical path (%.3f ms):", criticalPathNanos / 1e6d ) );
+		for ( int i = 0; i < criticalPath.length; i++ ) {
+			b.append( i == 0 ? " " : " -> " ).append( criticalPath[i].info().resource.instance );
+		}
+		return b.toString();
+	}
+
+	private static Node[] dependencies( Injector injector, InjectronInfo<?> info, Binding<?>[] bindings,
+			Map<Injectron<?>, Node> nodes ) {
+		if ( bindings.length != info.count ) {
+			return new Node[0];
+		}
+		Binding<?> binding = bindings[info.serialID];
+		if ( !binding.resource.equalTo( info.resource ) ) {
+			return new Node[0];
+		}
+		List<Node> res = new ArrayList<>();
+		for ( Instance<?> instance : dependencies( binding.supplier ) ) {
+			Node node = nodes.get( injectron( injector, instance, info ) );
+			if ( node != null ) {
+				res.add( node );
+			}
+		}
+		return res.toArray( new Node[res.size()] );
+	}
+
+	private static List<Instance<?>> dependencies( Supplier<?> supplier ) {
+		List<Instance<?>> res = new ArrayList<>();
+		if ( supplier instanceof Supply.InstanceSupplier ) {
+			res.add( ( (Supply.InstanceSupplier<?>) supplier ).instance );
+		}
+		BoundMethod<?> method = supplier instanceof Supply.MethodSupplier
+			? ( (Supply.MethodSupplier<?>) supplier ).method
+			: supplier instanceof Supply.MethodHandleSupplier
+				? ( (Supply.MethodHandleSupplier<?>) supplier ).method
+				: null;
+		if ( method != null && method.isInstanceMethod && method.instance == null ) {
+			res.add( Instance.anyOf( method.factory.getDeclaringClass() ) );
+		}
+		if ( supplier instanceof Supply.WithParameters ) {
+			for ( BoundParameter<?> p : ( (Supply.WithParameters<?>) supplier ).params ) {
+				if ( p.type == ParameterType.INSTANCE && p.type().arrayDimensions() == 0 ) {
+					res.add( p.instance );
+				}
+			}
+		}
+		return res;
+	}
+
+	private static <T> Injectron<T> injectron( Injector injector, Instance<T> instance, InjectronInfo<?> into ) {
+		try {
+			return injector.resolve( dependency( injectronTypeOf( instance.type ) ).named( instance.name )
+					.injectingInto( into.resource, into.expiry ) );
+		} catch ( UnresolvableDependency e ) {
+			return null; // just not known in advance
+		}
+	}
+
+	private static final class Node {
+
+		final Injectron<?> injectron;
+		Node[] dependencies;
+		long nanos;
+		private CompletableFuture<Void> done;
+		private boolean scheduling;
+		private long path = -1L;
+
+		Node( Injectron<?> injectron ) {
+			super();
+			this.injectron = injectron;
+		}
+
+		boolean isSingleton() {
+			return injectron.info().expiry.isNever();
+		}
+
+		CompletableFuture<Void> schedule( Executor executor ) {
+			if ( done != null ) {
+				return done;
+			}
+			scheduling = true;
+			List<CompletableFuture<Void>> before = new ArrayList<>( dependencies.length );
+			for ( Node dependency : dependencies ) {
+				if ( !dependency.scheduling ) { // a cycle will be reported by the container
+					before.add( dependency.schedule( executor ) );
+				}
+			}
+			done = CompletableFuture.allOf( before.toArray( new CompletableFuture<?>[0] ) )
+					.thenRunAsync( this::create, executor );
+			scheduling = false;
+			return done;
+		}
+
+		private void create() {
+			if ( isSingleton() ) {
+				long start = System.nanoTime();
+				Bootstrap.instance( injectron );
+				nanos = System.nanoTime() - start;
+			}
+		}
+
+		/**
+		 * @return the nanoseconds of the longest chain of dependencies ending
+		 *         with this node
+		 */
+		long path() {
+			if ( path < 0L ) {
+				path = 0L; // guards against cycles
+				Node longest = longestDependency();
+				path = nanos + ( longest == null ? 0L : longest.path() );
+			}
+			return path;
+		}
+
+		Node longestDependency() {
+			Node longest = null;
+			for ( Node dependency : dependencies ) {
+				if ( longest == null || dependency.path() > longest.path() ) {
+					longest = dependency;
+				}
+			}
+			return longest;
+		}
+
+		@Override
+		public String toString() {
+			return injectron + " " + Arrays.toString( dependencies );
+		}
+	}
+}
@@ -87,6 +87,11 @@ public final class Globals {
 			T f = feature.featureOf( bundleOrModule );
 			return f == null || featured.contains( f );
 		}
+
+		@Override
+		public String toString() {
+			return "features" + featured;
+		}
 	}
 
 	private static class PackagesEdition
@@ -104,5 +109,10 @@ public final class Globals {
 			return included.contains( Type.raw( bundleOrModule ) );
 		}
 
+		@Override
+		public String toString() {
+			return "packages[" + included + "]";
+		}
+
 	}
 }
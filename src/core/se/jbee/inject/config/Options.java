@@ -7,6 +7,11 @@ package se.jbee.inject.config;
 
 import java.util.EnumSet;
 import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
 
 /**
  * {@link Options} are used to model configurations of the bootstrapping process through one enum
@@ -64,6 +69,20 @@ public final class Options {
 		return (IdentityHashMap<Class<? extends Enum<?>>, EnumSet<?>>) properties.clone();
 	}
 
+	/**
+	 * Visits all properties in the order of their names with the options
+	 * chosen for them.
+	 */
+	public void forEach( BiConsumer<Class<? extends Enum<?>>, Set<? extends Enum<?>>> action ) {
+		Map<String, Class<? extends Enum<?>>> sorted = new TreeMap<>();
+		for ( Class<? extends Enum<?>> property : properties.keySet() ) {
+			sorted.put( property.getName(), property );
+		}
+		for ( Class<? extends Enum<?>> property : sorted.values() ) {
+			action.accept( property, properties.get( property ) );
+		}
+	}
+
 	@Override
 	public boolean equals( Object obj ) {
 		return obj instanceof Options && properties.equals( ( (Options) obj ).properties );
@@ -74,8 +93,16 @@ public final class Options {
 		return properties.hashCode();
 	}
 
+	/**
+	 * The properties are sorted by name so that equal {@link Options} always
+	 * have the same textual form.
+	 */
 	@Override
 	public String toString() {
-		return properties.toString();
+		Map<String, EnumSet<?>> sorted = new TreeMap<>();
+		for ( Entry<Class<? extends Enum<?>>, EnumSet<?>> e : properties.entrySet() ) {
+			sorted.put( e.getKey().getName(), e.getValue() );
+		}
+		return sorted.toString();
 	}
 }
@@ -6,6 +6,9 @@
 package se.jbee.inject.config;
 
 import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
 
 import se.jbee.inject.Type;
 
@@ -63,12 +66,26 @@ public final class Presets {
 		return (T) values.get( key( type ) );
 	}
 
+	/**
+	 * Visits all values in the order of the textual form of their
+	 * {@link Type}.
+	 */
+	public void forEach( BiConsumer<String, Object> action ) {
+		for ( Map.Entry<String, Object> e : new TreeMap<>( values ).entrySet() ) {
+			action.accept( e.getKey(), e.getValue() );
+		}
+	}
+
 	private static <T> String key( Type<T> type ) {
 		return type.toString().intern();
 	}
 
+	/**
+	 * The values are sorted by key so that equal {@link Presets} always have
+	 * the same textual form.
+	 */
 	@Override
 	public String toString() {
-		return values.toString();
+		return new TreeMap<>( values ).toString();
 	}
 }
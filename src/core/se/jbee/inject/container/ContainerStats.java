@@ -0,0 +1,225 @@
+/*
+ *  Copyright (c) 2012-2017, Jan Bernitt
+ *
+ *  Licensed under the Apache License, Version 2.0, http://www.apache.org/licenses/LICENSE-2.0
+ */
+package se.jbee.inject.container;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import se.jbee.inject.Dependency;
+import se.jbee.inject.Injector;
+import se.jbee.inject.Injectron;
+import se.jbee.inject.InjectronInfo;
+
+/**
+ * Counts how often each {@link Injectron} of a container is asked for an
+ * instance and how often its {@link Repository} actually had to create one.
+ * Creation times are kept in a histogram. The time spent initialising the
+ * container is always recorded.
+ *
+ * Recording is disabled by default. While disabled the only overhead is
+ * checking a volatile flag. The {@link ContainerStats} of a container can be
+ * resolved from its {@link Injector} like any other instance.
+ *
+ * @author Jan Bernitt (jan@jbee.se)
+ */
+public final class ContainerStats {
+
+	private final AtomicReferenceArray<InjectronStats> stats;
+	private final Map<String, Long> initialisation = new LinkedHashMap<>();
+	private volatile boolean enabled;
+
+	ContainerStats( int count ) {
+		super();
+		this.stats = new AtomicReferenceArray<>( count );
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void enable() {
+		enabled = true;
+	}
+
+	public void disable() {
+		enabled = false;
+	}
+
+	/**
+	 * @return the statistics of the given {@link Injectron} or
+	 *         <code>null</code> if it has not been asked for an instance while
+	 *         recording was enabled
+	 */
+	public InjectronStats of( InjectronInfo<?> info ) {
+		return stats.get( info.serialID );
+	}
+
+	/**
+	 * @return the statistics of all {@link Injectron}s that have been asked
+	 *         for an instance while recording was enabled, most creations first
+	 */
+	public List<InjectronStats> all() {
+		List<InjectronStats> res = new ArrayList<>();
+		for ( int i = 0; i < stats.length(); i++ ) {
+			InjectronStats s = stats.get( i );
+			if ( s != null ) {
+				res.add( s );
+			}
+		}
+		res.sort( ( a, b ) -> Long.compare( b.creations(), a.creations() ) );
+		return res;
+	}
+
+	/**
+	 * @return the nanoseconds spent in each step of initialising the
+	 *         container in the order of the steps
+	 */
+	public Map<String, Long> initialisation() {
+		return Collections.unmodifiableMap( initialisation );
+	}
+
+	/**
+	 * @return the end of the step (the start of the next)
+	 */
+	long initialised( String step, long start ) {
+		long end = System.nanoTime();
+		initialisation.put( step, end - start );
+		return end;
+	}
+
+	<T> T serve( Repository repository, Dependency<? super T> dependency, InjectronInfo<T> info, Provider<T> provider ) {
+		InjectronStats s = stats.get( info.serialID );
+		if ( s == null ) {
+			stats.compareAndSet( info.serialID, null, new InjectronStats( info ) );
+			s = stats.get( info.serialID );
+		}
+		s.serves.increment();
+		final InjectronStats recorded = s;
+		return repository.serve( dependency, info, () -> {
+			long start = System.nanoTime();
+			T res = provider.provide();
+			recorded.created( System.nanoTime() - start );
+			return res;
+		} );
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder b = new StringBuilder();
+		b.append( String.format( "%10s %10s %10s %12s %12s  %s%n", "serves", "hits", "creations", "p50 (ns)", "p99 (ns)", "resource" ) );
+		for ( InjectronStats s : all() ) {
+			b.append( String.format( "%10d %10d %10d %12d %12d  %s%n", s.serves(), s.hits(), s.creations(),
+					s.percentile( 0.5d ), s.percentile( 0.99d ), s.info.resource ) );
+		}
+		return b.toString();
+	}
+
+	/**
+	 * The statistics of a single {@link Injectron}.
+	 */
+	public static final class InjectronStats {
+
+		/**
+		 * Number of buckets in the creation time histogram. Bucket
+		 * <code>i</code> counts creations that took less than
+		 * <code>2^i</code> nanoseconds (and at least <code>2^(i-1)</code>).
+		 */
+		public static final int BUCKETS = 40;
+
+		public final InjectronInfo<?> info;
+		final LongAdder serves = new LongAdder();
+		private final LongAdder creations = new LongAdder();
+		private final LongAdder creationNanos = new LongAdder();
+		private final AtomicLongArray histogram = new AtomicLongArray( BUCKETS );
+
+		InjectronStats( InjectronInfo<?> info ) {
+			super();
+			this.info = info;
+		}
+
+		void created( long nanos ) {
+			creations.increment();
+			creationNanos.add( nanos );
+			histogram.incrementAndGet( Math.min( BUCKETS - 1, 64 - Long.numberOfLeadingZeros( nanos ) ) );
+		}
+
+		/**
+		 * @return number of times an instance was asked for
+		 */
+		public long serves() {
+			return serves.sum();
+		}
+
+		/**
+		 * @return number of times an instance was created
+		 */
+		public long creations() {
+			return creations.sum();
+		}
+
+		/**
+		 * @return number of times an existing instance was served
+		 */
+		public long hits() {
+			return Math.max( 0L, serves() - creations() );
+		}
+
+		/**
+		 * @return the total time spent creating instances. This includes the
+		 *         time to create the instances they depend upon.
+		 */
+		public long creationNanos() {
+			return creationNanos.sum();
+		}
+
+		/**
+		 * @return a copy of the creation time histogram
+		 * @see #BUCKETS
+		 */
+		public long[] histogram() {
+			long[] res = new long[BUCKETS];
+			for ( int i = 0; i < BUCKETS; i++ ) {
+				res[i] = histogram.get( i );
+			}
+			return res;
+		}
+
+		/**
+		 * @return the upper bound of the histogram bucket the given fraction of
+		 *         creations took less time than, 0 if there were none
+		 */
+		public long percentile( double fraction ) {
+			long[] counts = histogram();
+			long total = 0L;
+			for ( long c : counts ) {
+				total += c;
+			}
+			if ( total == 0L ) {
+				return 0L;
+			}
+			long rank = (long) Math.ceil( fraction * total );
+			long seen = 0L;
+			for ( int i = 0; i < BUCKETS; i++ ) {
+				seen += counts[i];
+				if ( seen >= rank ) {
+					return 1L << i;
+				}
+			}
+			return 1L << ( BUCKETS - 1 );
+		}
+
+		@Override
+		public String toString() {
+			return info.resource + " serves: " + serves() + " creations: " + creations();
+		}
+	}
+}
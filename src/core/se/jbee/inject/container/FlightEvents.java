@@ -0,0 +1,136 @@
+/*
+ *  Copyright (c) 2012-2017, Jan Bernitt
+ *
+ *  Licensed under the Apache License, Version 2.0, http://www.apache.org/licenses/LICENSE-2.0
+ */
+package se.jbee.inject.container;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import se.jbee.inject.Injectron;
+
+/**
+ * Java Flight Recorder events emitted by the container, the bootstrapping and
+ * actions.
+ *
+ * Each event has a default {@link Threshold} so that only the slow cases are
+ * committed. Thresholds are changed like those of any JDK event, e.g. in the
+ * <code>.jfc</code> settings file or with
+ * <code>-XX:StartFlightRecording:settings=...</code> using the event's
+ * {@link Name}, e.g. <code>se.jbee.inject.Resolve#threshold=0 ms</code>.
+ *
+ * Events are not emitted at all if the JVM has no flight recorder or if the
+ * system property <code>se.jbee.inject.jfr</code> is <code>false</code>.
+ * Otherwise an event that is below its threshold (or not enabled in a
+ * recording) costs a few reads of the clock.
+ *
+ * @author Jan Bernitt (jan@jbee.se)
+ */
+public final class FlightEvents {
+
+	/**
+	 * Whether or not events are emitted. Code emitting events checks this
+	 * first so that JVMs without a flight recorder never load the event
+	 * classes.
+	 */
+	public static final boolean ENABLED = enabled();
+
+	private FlightEvents() {
+		throw new UnsupportedOperationException( "util" );
+	}
+
+	private static boolean enabled() {
+		if ( !Boolean.parseBoolean( System.getProperty( "se.jbee.inject.jfr", "true" ) ) ) {
+			return false;
+		}
+		try {
+			Class.forName( "jdk.jfr.Event" );
+			return true;
+		} catch ( ClassNotFoundException | LinkageError e ) {
+			return false;
+		}
+	}
+
+	/**
+	 * An {@link Injectron} yielding an instance, including the time to supply
+	 * a new instance should the scope ask for one.
+	 */
+	@Name ( "se.jbee.inject.Resolve" )
+	@Label ( "Resolve" )
+	@Category ( { "Silk", "Container" } )
+	@Threshold ( "1 ms" )
+	@StackTrace ( false )
+	public static final class Resolve
+			extends Event {
+
+		@Label ( "Resource" )
+		public String resource;
+
+		@Label ( "Scope" )
+		public String scope;
+
+		@Label ( "Injection Depth" )
+		public int depth;
+	}
+
+	/**
+	 * A constructor, factory method or {@link Factory} creating an instance
+	 * once all its arguments have been resolved.
+	 */
+	@Name ( "se.jbee.inject.Supply" )
+	@Label ( "Supply" )
+	@Category ( { "Silk", "Container" } )
+	@Threshold ( "1 ms" )
+	public static final class Supply
+			extends Event {
+
+		@Label ( "Type" )
+		public Class<?> type;
+
+		@Label ( "Supplier" )
+		public String supplier;
+	}
+
+	/**
+	 * A phase of creating an injector by bootstrapping.
+	 */
+	@Name ( "se.jbee.inject.Bootstrap" )
+	@Label ( "Bootstrap Phase" )
+	@Category ( { "Silk", "Bootstrap" } )
+	@Threshold ( "0 ms" )
+	@StackTrace ( false )
+	public static final class Phase
+			extends Event {
+
+		@Label ( "Phase" )
+		public String phase;
+
+		/**
+		 * The number of modules or bindings resulting from the phase.
+		 */
+		@Label ( "Count" )
+		public int count;
+	}
+
+	/**
+	 * The execution of an action, including the resolution of its implicit
+	 * arguments.
+	 */
+	@Name ( "se.jbee.inject.Action" )
+	@Label ( "Action" )
+	@Category ( { "Silk", "Action" } )
+	@Threshold ( "10 ms" )
+	public static final class Action
+			extends Event {
+
+		@Label ( "Action" )
+		public String action;
+
+		@Label ( "Input" )
+		public Class<?> input;
+	}
+}
@@ -16,6 +16,13 @@ import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 import se.jbee.inject.Array;
 import se.jbee.inject.Dependency;
@@ -27,6 +34,7 @@ import se.jbee.inject.InjectronInfo;
 import se.jbee.inject.Instance;
 import se.jbee.inject.Resource;
 import se.jbee.inject.Supplier;
+import se.jbee.inject.Target;
 import se.jbee.inject.Type;
 import se.jbee.inject.UnresolvableDependency.NoResourceForDependency;
 
@@ -38,9 +46,56 @@ import se.jbee.inject.UnresolvableDependency.NoResourceForDependency;
 public final class Inject {
 
 	public static Injector container( Assembly<?>... assemblies ) {
-		return new DefaultInjector( assemblies );
+		return new DefaultInjector( false, assemblies );
+	}
+
+	/**
+	 * Like {@link #container(Assembly...)} but for {@link Assembly}s that
+	 * already are in {@link #dispatchOrder(Assembly[])} so that the container
+	 * does not have to sort them.
+	 */
+	public static Injector presorted( Assembly<?>... assemblies ) {
+		return new DefaultInjector( true, assemblies );
+	}
+
+	/**
+	 * @return a sorted copy of the given {@link Assembly}s in the order the
+	 *         container tries them: grouped by raw type, most precise first.
+	 */
+	public static <A extends Assembly<?>> A[] dispatchOrder( A[] assemblies ) {
+		A[] sorted = assemblies.clone();
+		Arrays.sort( sorted, ( a, b ) -> compare( a.resource(), b.resource() ) );
+		return sorted;
+	}
+
+	/**
+	 * @param capacity
+	 *            the number of samples kept
+	 * @return a {@link TracingInjector} resolving from the given container.
+	 *         Sampling has to be switched on using
+	 *         {@link TracingInjector#sampleEvery(int)}.
+	 */
+	public static TracingInjector tracing( Injector container, int capacity ) {
+		return new TracingInjector( container, capacity, container instanceof DefaultInjector
+			? ( (DefaultInjector) container ).tracing
+			: null );
 	}
 	
+	/**
+	 * Bridges the array resolved for the elements {@link Dependency} to a
+	 * collection. When the array is composed of application scoped or
+	 * constant instances only, the container creates the collection once
+	 * using the shared bridge and remembers it for the bridged
+	 * {@link Dependency}. Otherwise a fresh collection is created from a
+	 * fresh array each time.
+	 */
+	public static <T, E> T bridge( Injector injector, Dependency<?> bridged, Dependency<E[]> elements,
+			Function<E[], T> fresh, Function<E[], T> shared ) {
+		return injector instanceof DefaultInjector
+			? ( (DefaultInjector) injector ).bridge( bridged, elements, fresh, shared )
+			: fresh.apply( injector.resolve( elements ) );
+	}
+
 	private Inject() {
 		throw new UnsupportedOperationException( "util" );
 	}
@@ -56,38 +111,106 @@ public final class Inject {
 	 */
 	private static final class DefaultInjector implements Injector {
 
+		/**
+		 * Plan used when there is no direct match but the array is composed
+		 * from all matching element injectrons.
+		 */
+		private static final Object ARRAY = new Object();
+		/**
+		 * Plan used when there is nothing that can yield the dependency.
+		 */
+		private static final Object NONE = new Object();
+
 		private final Map<Class<?>, Injectron<?>[]> injectrons;
 		private final Injectron<?>[] wildcardInjectrons;
+		private final Map<Class<?>, Injectron<?>[]> subtypeInjectrons;
+		private final Map<Class<?>, Integer> targetDepths;
+		private final ResolutionCache cache;
+		private final ContainerStats stats;
+		private final Readiness readiness = new Readiness();
+		/**
+		 * The traces recorded of this container. Only while there are any the
+		 * {@link TracingInjector.Trace} of the current thread is looked up.
+		 */
+		final TracingInjector.Tracing tracing = new TracingInjector.Tracing();
 
-		DefaultInjector( Assembly<?>... assemblies ) {
+		DefaultInjector( boolean presorted, Assembly<?>... assemblies ) {
 			super();
-			this.injectrons = initFrom( assemblies );
+			this.stats = new ContainerStats( assemblies.length );
+			this.injectrons = initFrom( presorted, assemblies );
+			long time = System.nanoTime();
 			this.wildcardInjectrons = wildcardInjectrons(injectrons);
+			time = stats.initialised( "wildcards", time );
+			this.subtypeInjectrons = subtypeInjectrons(injectrons);
+			time = stats.initialised( "subtypes", time );
+			this.targetDepths = targetDepths(injectrons);
+			this.cache = new ResolutionCache( ResolutionCache.DEFAULT_CAPACITY );
+			time = stats.initialised( "target depths", time );
 			initInitialisers();
+			stats.initialised( "initialisers", time );
 		}
 		
 		private void initInitialisers() {
-			for (Initialiser i : resolve(dependency(Initialiser[].class))) {
-				i.init(this);
+			Initialiser[] initialisers = resolve(dependency(Initialiser[].class));
+			if (initialisers.length > 0) {
+				readiness.init(this, initialisers, initialiserExecutor(initialisers));
+			}
+		}
+
+		private Executor initialiserExecutor(Initialiser[] initialisers) {
+			int async = 0;
+			for (Initialiser i : initialisers) {
+				if (i.isAsync()) {
+					async++;
+				}
+			}
+			if (async == 0) {
+				return null; // not needed
+			}
+			try {
+				return resolve(dependency(Executor.class).injectingInto(Initialiser.class));
+			} catch (NoResourceForDependency e) {
+				return initialiserExecutor( Math.min( async, Runtime.getRuntime().availableProcessors() ) );
 			}
 		}
 
-		private <T> Map<Class<?>, Injectron<?>[]> initFrom( Assembly<?>... assemblies ) {
+		/**
+		 * Async initialisers might block (e.g. on I/O) so they do not run in
+		 * the common fork-join pool. The threads are daemons and go away once
+		 * they had nothing to do for a second.
+		 */
+		private static Executor initialiserExecutor( int threads ) {
+			AtomicInteger created = new AtomicInteger();
+			ThreadPoolExecutor executor = new ThreadPoolExecutor( threads, threads, 1L, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<>(), task -> {
+						Thread thread = new Thread( task, "initialiser-" + created.incrementAndGet() );
+						thread.setDaemon( true );
+						return thread;
+					} );
+			executor.allowCoreThreadTimeOut( true );
+			return executor;
+		}
+
+		private <T> Map<Class<?>, Injectron<?>[]> initFrom( boolean presorted, Assembly<?>... assemblies ) {
+			long time = System.nanoTime();
 			Map<Scope, Repository> repositories = initRepositories( assemblies );
+			time = stats.initialised( "repositories", time );
 			Injectron<?>[] injectrons = new Injectron<?>[assemblies.length];
 			for (int i = 0; i < assemblies.length; i++) {
 				@SuppressWarnings("unchecked")
 				Assembly<T> assembly = (Assembly<T>) assemblies[i];
 				Scope scope = assembly.scope();
-				Expiry expiry = EXPIRATION.get( scope );
-				if ( expiry == null ) {
-					expiry = Expiry.NEVER;
-				}
-				injectrons[i] = new RepositoryInjectron<>(this, repositories.get( scope ), assembly, expiry, i, assemblies.length);
+				Expiry expiry = scope.expiry();
+				injectrons[i] = new RepositoryInjectron<>(this, repositories.get( scope ), stats, assembly, expiry, i, assemblies.length);
+			}
+			time = stats.initialised( "injectrons", time );
+			if ( !presorted ) {
+				Arrays.sort( injectrons, COMPARATOR );
+				time = stats.initialised( "sort", time );
 			}
-			Arrays.sort( injectrons, COMPARATOR );
 			Map<Class<?>, Injectron<?>[]> map = new IdentityHashMap<>( injectrons.length );
 			if ( injectrons.length == 0 ) {
+				stats.initialised( "group", time );
 				return map;
 			}
 			Class<?> lastRawType = injectrons[0].info().resource.type().rawType;
@@ -101,6 +224,7 @@ public final class Inject {
 				lastRawType = rawType;
 			}
 			map.put( lastRawType, Arrays.copyOfRange( injectrons, start, injectrons.length ) );
+			stats.initialised( "group", time );
 			return map;
 		}
 		
@@ -117,6 +241,66 @@ public final class Inject {
 			return res.size() == 0 ? null : res.toArray(new Injectron[res.size()]);
 		}
 		
+		/**
+		 * Indexes all {@link Injectron}s by the raw super-classes and
+		 * super-interfaces (including the raw type itself) of their raw type.
+		 * This way upper bound resolution just needs to look at those
+		 * injectrons that can be assigned.
+		 */
+		private static Map<Class<?>, Injectron<?>[]> subtypeInjectrons(Map<Class<?>, Injectron<?>[]> injectrons) {
+			Map<Class<?>, List<Injectron<?>>> index = new IdentityHashMap<>();
+			Set<Class<?>> supertypes = Collections.newSetFromMap( new IdentityHashMap<>() );
+			for ( Entry<Class<?>, Injectron<?>[]> e : injectrons.entrySet() ) {
+				supertypes.clear();
+				supertypes.add( Object.class ); // also for interfaces
+				addRawSupertypes( e.getKey(), supertypes );
+				for ( Class<?> supertype : supertypes ) {
+					List<Injectron<?>> subtypes = index.get( supertype );
+					if ( subtypes == null ) {
+						subtypes = new ArrayList<>();
+						index.put( supertype, subtypes );
+					}
+					subtypes.addAll( Arrays.asList( e.getValue() ) );
+				}
+			}
+			Map<Class<?>, Injectron<?>[]> res = new IdentityHashMap<>( index.size() );
+			for ( Entry<Class<?>, List<Injectron<?>>> e : index.entrySet() ) {
+				res.put( e.getKey(), Array.of( e.getValue(), Injectron.class ) );
+			}
+			return res;
+		}
+
+		private static void addRawSupertypes( Class<?> type, Set<Class<?>> accu ) {
+			if ( type == null || !accu.add( type ) ) {
+				return;
+			}
+			addRawSupertypes( type.getSuperclass(), accu );
+			for ( Class<?> i : type.getInterfaces() ) {
+				addRawSupertypes( i, accu );
+			}
+		}
+
+		/**
+		 * For each raw type the number of levels of the injection hierarchy
+		 * that can affect which of its {@link Injectron}s matches.
+		 */
+		private static Map<Class<?>, Integer> targetDepths(Map<Class<?>, Injectron<?>[]> injectrons) {
+			Map<Class<?>, Integer> depths = new IdentityHashMap<>( injectrons.size() );
+			for ( Entry<Class<?>, Injectron<?>[]> e : injectrons.entrySet() ) {
+				int depth = 0;
+				for ( Injectron<?> i : e.getValue() ) {
+					Target target = i.info().resource.target;
+					if ( !target.parents.isAny() ) {
+						depth = Integer.MAX_VALUE;
+					} else if ( !target.instance.isAny() || !target.packages.includesAll() ) {
+						depth = Math.max( depth, 1 );
+					}
+				}
+				depths.put( e.getKey(), depth );
+			}
+			return depths;
+		}
+
 		private static Map<Scope, Repository> initRepositories( Assembly<?>[] assemblies ) {
 			Map<Scope, Repository> repositories = new IdentityHashMap<>();
 			for ( Assembly<?> a : assemblies ) {
@@ -143,36 +327,89 @@ public final class Inject {
 			if ( type.rawType == Injector.class ) {
 				return (T) this;
 			}
-			Injectron<T> injectron = injectronMatching( dependency );
-			if ( injectron != null ) {
-				return injectron.instanceFor( dependency );
+			if ( type.rawType == ResolutionCache.class ) {
+				return (T) cache;
+			}
+			if ( type.rawType == ContainerStats.class ) {
+				return (T) stats;
+			}
+			if ( type.rawType == Readiness.class ) {
+				return (T) readiness;
+			}
+			TracingInjector.Trace trace = tracing.current();
+			if ( trace != null ) {
+				return traced( dependency, trace );
+			}
+			return supply( dependency, planFor( dependency ) );
+		}
+
+		private <T> T traced( Dependency<T> dependency, TracingInjector.Trace trace ) {
+			long start = System.nanoTime();
+			Object plan = planFor( dependency );
+			// arrays and failures do not enter a frame the time could be attributed to
+			trace.matched( plan == ARRAY || plan == NONE ? 0L : System.nanoTime() - start );
+			return supply( dependency, plan );
+		}
+
+		@SuppressWarnings ( "unchecked" )
+		private <T> T supply( Dependency<T> dependency, Object plan ) {
+			if ( plan == ARRAY ) {
+				return resolveArray( dependency, dependency.type().baseType() );
+			}
+			if ( plan == NONE ) {
+				throw noInjectronFor( dependency );
 			}
-			if ( type.arrayDimensions() == 1 ) {
-				return resolveArray( dependency, type.baseType() );
+			if ( plan instanceof UpperBound ) {
+				return (T) ((UpperBound) plan).injectron.instanceFor( (Dependency<Object>) dependency );
 			}
-			return resolveFromUpperBound(dependency);
+			return ((Injectron<T>) plan).instanceFor( dependency );
+		}
+
+		/**
+		 * @return either the {@link Injectron} to use (a direct match), the
+		 *         {@link UpperBound} wild-card to use or one of the strategies
+		 *         {@link #ARRAY} or {@link #NONE}.
+		 */
+		private <T> Object planFor( Dependency<T> dependency ) {
+			final Type<T> type = dependency.type();
+			ResolutionCache.Key key = ResolutionCache.key( dependency, targetDepth( type ) );
+			Object plan = cache.lookup( key );
+			if ( plan != null ) {
+				return plan;
+			}
+			plan = mostPreciseOf( injectronsForType( type ), dependency );
+			if ( plan == null ) {
+				plan = type.arrayDimensions() == 1 ? ARRAY : wildcardMatching( type );
+			}
+			cache.remember( key, plan );
+			return plan;
 		}
 
 		/**
 		 * There is no direct match for the required type but there might be a wild-card binding,
 		 * that is a binding capable of producing all sub-types of a certain super-type. 
 		 */
-		@SuppressWarnings ( "unchecked" )
-		private <T> T resolveFromUpperBound(Dependency<T> dependency) {
-			final Type<T> type = dependency.type();
+		private Object wildcardMatching( Type<?> type ) {
 			if ( wildcardInjectrons != null ) {
 				for (int i = 0; i < wildcardInjectrons.length; i++) {
 					Injectron<?> res = wildcardInjectrons[i];
 					if (type.isAssignableTo(res.info().resource.type())) {
-						return (T) res.instanceFor((Dependency<Object>) dependency);
+						return new UpperBound( res );
 					}
 				}
 			}
-			throw noInjectronFor( dependency );
+			return NONE;
 		}
 
+		private int targetDepth( Type<?> type ) {
+			Integer depth = targetDepths.get( type.rawType );
+			return depth == null ? 0 : depth.intValue();
+		}
+
+		@SuppressWarnings ( "unchecked" )
 		private <T> Injectron<T> injectronMatching( Dependency<T> dependency ) {
-			return mostPreciseOf( injectronsForType( dependency.type() ), dependency );
+			Object plan = planFor( dependency );
+			return plan instanceof Injectron ? (Injectron<T>) plan : null;
 		}
 
 		private static <T> Injectron<T> mostPreciseOf( Injectron<T>[] injectrons, Dependency<T> dependency ) {
@@ -196,45 +433,72 @@ public final class Inject {
 			if ( elementType.rawType == Injectron.class ) {
 				return resolveInjectronArray( dependency, elementType.parameter( 0 ) );
 			}
+			Object[] composed = cache.lookup( dependency );
+			if ( composed != null ) {
+				@SuppressWarnings("unchecked")
+				T res = (T) composed.clone();
+				return res;
+			}
 			Injectron<E>[] elementInjectrons = injectronsForType( elementType );
 			if ( elementInjectrons != null ) {
 				List<E> elements = new ArrayList<>( elementInjectrons.length );
-				addAllMatching( elements, dependency, elementType, elementInjectrons );
+				boolean stable = addAllMatching( elements, dependency, elementType, elementInjectrons );
 				if ( dependency.type().rawType.getComponentType().isPrimitive() ) {
 					throw new NoResourceForDependency(dependency, null,
 							"Primitive arrays cannot be used to inject all instances of the wrapper type. Use the wrapper array instead." );
 				}
-				return toArray( elements, elementType );
+				return composed( dependency, elements, elementType, stable );
 			}
 			// if there hasn't been binds to that specific wild-card Type  
 			if ( elementType.isUpperBound() ) { // wild-card dependency:
 				List<E> elements = new ArrayList<>();
-				for ( Entry<Class<?>, Injectron<?>[]> e : injectrons.entrySet() ) {
-					if ( Type.raw( e.getKey() ).isAssignableTo( elementType ) ) {
-						@SuppressWarnings ( "unchecked" )
-						Injectron<? extends E>[] value = (Injectron<? extends E>[]) e.getValue();
-						addAllMatching( elements, dependency, elementType, value );
-					}
+				boolean stable = true;
+				for ( Injectron<? extends E>[] assignable : assignableInjectrons( elementType ) ) {
+					stable &= addAllMatching( elements, dependency, elementType, assignable );
 				}
-				return toArray( elements, elementType );
+				return composed( dependency, elements, elementType, stable );
 			}
 			@SuppressWarnings("unchecked")
 			T empty = (T) Array.newInstance(elementType.rawType, 0);
 			return empty;
 		}
 
+		/**
+		 * When all elements stem from {@link Injectron}s whose instance never
+		 * changes the composed array cannot change any more. Therefore a copy is remembered
+		 * for the exact same {@link Dependency}.
+		 */
+		private <T, E> T composed( Dependency<T> dependency, List<E> elements, Type<E> elementType, boolean stable ) {
+			T res = toArray( elements, elementType );
+			if ( stable ) {
+				cache.remember( dependency, ((Object[]) res).clone() );
+			}
+			return res;
+		}
+
+		@SuppressWarnings ( "unchecked" )
+		<T, E> T bridge( Dependency<?> bridged, Dependency<E[]> elements, Function<E[], T> fresh, Function<E[], T> shared ) {
+			T res = (T) cache.lookupBridged( bridged );
+			if ( res != null ) {
+				return res;
+			}
+			E[] array = resolve( elements );
+			if ( !cache.isComposed( elements ) ) {
+				return fresh.apply( array );
+			}
+			res = shared.apply( array );
+			cache.rememberBridged( bridged, res );
+			return res;
+		}
+
 		private <T, I> T resolveInjectronArray( Dependency<T> dependency, Type<I> instanceType ) {
 			Dependency<I> instanceDependency = dependency.typed( instanceType );
 			if ( instanceType.isUpperBound() ) {
 				List<Injectron<?>> res = new ArrayList<>();
-				for ( Entry<Class<?>, Injectron<?>[]> e : injectrons.entrySet() ) {
-					if ( raw( e.getKey() ).isAssignableTo( instanceType ) ) {
-						@SuppressWarnings ( "unchecked" )
-						Injectron<? extends I>[] typeInjectrons = (Injectron<? extends I>[]) e.getValue();
-						for ( Injectron<? extends I> i : typeInjectrons ) {
-							if ( i.info().resource.isCompatibleWith( instanceDependency ) ) {
-								res.add( i );
-							}
+				for ( Injectron<? extends I>[] assignable : assignableInjectrons( instanceType ) ) {
+					for ( Injectron<? extends I> i : assignable ) {
+						if ( i.info().resource.isCompatibleWith( instanceDependency ) ) {
+							res.add( i );
 						}
 					}
 				}
@@ -250,15 +514,45 @@ public final class Inject {
 			return toArray( elements, raw( Injectron.class ) );
 		}
 
-		private static <E, T> void addAllMatching( List<E> elements, Dependency<T> dependency,
+		/**
+		 * @return the {@link Injectron}s of all raw types assignable to the
+		 *         given upper bound type. These are not yet checked for
+		 *         matching type parameters.
+		 */
+		@SuppressWarnings ( "unchecked" )
+		private <E> List<Injectron<? extends E>[]> assignableInjectrons( Type<E> upperBound ) {
+			if ( !upperBound.rawType.isArray() ) { // arrays are covariant so the class hierarchy does not tell
+				Injectron<?>[] subtypes = subtypeInjectrons.get( upperBound.rawType );
+				return subtypes == null
+					? Collections.<Injectron<? extends E>[]>emptyList()
+					: Collections.singletonList( (Injectron<? extends E>[]) subtypes );
+			}
+			List<Injectron<? extends E>[]> res = new ArrayList<>();
+			for ( Entry<Class<?>, Injectron<?>[]> e : injectrons.entrySet() ) {
+				if ( raw( e.getKey() ).isAssignableTo( upperBound ) ) {
+					res.add( (Injectron<? extends E>[]) e.getValue() );
+				}
+			}
+			return res;
+		}
+
+		/**
+		 * @return true, if all added elements come from {@link Injectron}s
+		 *         whose instance never changes (see
+		 *         {@link RepositoryInjectron#stable}).
+		 */
+		private static <E, T> boolean addAllMatching( List<E> elements, Dependency<T> dependency,
 				Type<E> elementType, Injectron<? extends E>[] elementInjectrons ) {
 			Dependency<E> elementDependency = dependency.typed( elementType );
+			boolean stable = true;
 			for ( int i = 0; i < elementInjectrons.length; i++ ) {
 				Injectron<? extends E> injectron = elementInjectrons[i];
 				if ( injectron.info().resource.isMatching( elementDependency ) ) {
 					elements.add( injectron.instanceFor( elementDependency ) );
+					stable &= injectron instanceof RepositoryInjectron && ((RepositoryInjectron<?>) injectron).stable;
 				}
 			}
+			return stable;
 		}
 
 		@SuppressWarnings ( "unchecked" )
@@ -294,18 +588,42 @@ public final class Inject {
 		}
 	}
 
+	/**
+	 * A plan to use a wild-card {@link Injectron} since there is no direct
+	 * match for a {@link Dependency}.
+	 */
+	private static final class UpperBound {
+
+		final Injectron<?> injectron;
+
+		UpperBound( Injectron<?> injectron ) {
+			this.injectron = injectron;
+		}
+	}
+
 	private static final class RepositoryInjectron<T> implements Injectron<T> {
 
-		private final Injector injector;
+		private final DefaultInjector injector;
 		private final Repository repository;
+		private final ContainerStats stats;
 		private final Supplier<? extends T> supplier;
 		private final InjectronInfo<T> info;
+		private final Scope scope;
+		/**
+		 * True, if the instance never changes: it is an application scoped or
+		 * a constant. Other scopes might never expire either but still yield
+		 * different instances over time (e.g. pooled or evicted ones).
+		 */
+		final boolean stable;
 
-		RepositoryInjectron(Injector injector, Repository repository, Assembly<T> assembly, Expiry expiry, int serialID, int count) {
+		RepositoryInjectron(DefaultInjector injector, Repository repository, ContainerStats stats, Assembly<T> assembly, Expiry expiry, int serialID, int count) {
 			super();
 			this.injector = injector;
 			this.repository = repository;
+			this.stats = stats;
 			this.supplier = assembly.supplier();
+			this.scope = assembly.scope();
+			this.stable = scope == Scoped.APPLICATION || supplier.isConstant();
 			this.info = new InjectronInfo<>(assembly.resource(), assembly.source(), expiry, serialID, count);
 		}
 
@@ -317,7 +635,42 @@ public final class Inject {
 		@Override
 		public T instanceFor( Dependency<? super T> dependency ) {
 			final Dependency<? super T> injected = dependency.injectingInto( info.resource, info.expiry );
-			return repository.serve(injected, info, new DependencyProvider<>(supplier, injected, injector) );
+			TracingInjector.Trace trace = injector.tracing.current();
+			if ( trace != null ) {
+				TracingInjector.Frame frame = trace.enter( this, dependency );
+				try {
+					return serve( injected );
+				} finally {
+					trace.exit( frame );
+				}
+			}
+			return serve( injected );
+		}
+
+		private T serve( Dependency<? super T> injected ) {
+			if ( !FlightEvents.ENABLED ) {
+				return provide( injected );
+			}
+			FlightEvents.Resolve event = new FlightEvents.Resolve();
+			event.begin();
+			try {
+				return provide( injected );
+			} finally {
+				event.end();
+				if ( event.shouldCommit() ) {
+					event.resource = info.resource.toString();
+					event.scope = String.valueOf( scope );
+					event.depth = injected.injectionDepth() - 1; // not counting this injectron
+					event.commit();
+				}
+			}
+		}
+
+		private T provide( Dependency<? super T> injected ) {
+			DependencyProvider<T> provider = new DependencyProvider<>(supplier, injected, injector);
+			return stats.isEnabled()
+				? stats.serve( repository, injected, info, provider )
+				: repository.serve( injected, info, provider );
 		}
 
 	}
@@ -340,19 +693,6 @@ public final class Inject {
 		}
 	}
 	
-	static final IdentityHashMap<Scope, Expiry> EXPIRATION = defaultExpiration();
-	
-	private static IdentityHashMap<Scope, Expiry> defaultExpiration() {
-		IdentityHashMap<Scope, Expiry> map = new IdentityHashMap<>();
-		map.put( Scoped.APPLICATION, Expiry.NEVER );
-		map.put( Scoped.INJECTION, Expiry.expires( 1000 ) );
-		map.put( Scoped.THREAD, Expiry.expires( 500 ) );
-		map.put( Scoped.DEPENDENCY_TYPE, Expiry.NEVER );
-		map.put( Scoped.TARGET_INSTANCE, Expiry.NEVER );
-		map.put( Scoped.DEPENDENCY, Expiry.NEVER );
-		return map;
-	}
-	
 	public static final Comparator<Injectron<?>> COMPARATOR = new InjectronComparator();
 
 	private static final class InjectronComparator implements Comparator<Injectron<?>> {
@@ -363,20 +703,22 @@ public final class Inject {
 
 		@Override
 		public int compare( Injectron<?> one, Injectron<?> other ) {
-			Resource<?> r1 = one.info().resource;
-			Resource<?> r2 = other.info().resource;
-			Class<?> c1 = r1.type().rawType;
-			Class<?> c2 = r2.type().rawType;
-			if ( c1 != c2 ) {
-				if (c1.isAssignableFrom(c2)) {
-					return 1;
-				}
-				if (c2.isAssignableFrom(c1)) {
-					return -1;
-				}
-				return c1.getCanonicalName().compareTo( c2.getCanonicalName() );
+			return Inject.compare( one.info().resource, other.info().resource );
+		}
+	}
+
+	static int compare( Resource<?> r1, Resource<?> r2 ) {
+		Class<?> c1 = r1.type().rawType;
+		Class<?> c2 = r2.type().rawType;
+		if ( c1 != c2 ) {
+			if (c1.isAssignableFrom(c2)) {
+				return 1;
 			}
-			return Instance.comparePrecision( r1, r2 );
+			if (c2.isAssignableFrom(c1)) {
+				return -1;
+			}
+			return c1.getCanonicalName().compareTo( c2.getCanonicalName() );
 		}
-	}	
+		return Instance.comparePrecision( r1, r2 );
+	}
 }
@@ -0,0 +1,29 @@
+/*
+ *  Copyright (c) 2012-2017, Jan Bernitt 
+ *			
+ *  Licensed under the Apache License, Version 2.0, http://www.apache.org/licenses/LICENSE-2.0
+ */
+package se.jbee.inject.container;
+
+import se.jbee.inject.bootstrap.Bundle;
+
+/**
+ * The temporary use of an instance. Closing the lease gives the instance back
+ * to its {@link Scope} (if that scope takes instances back like
+ * {@link Scoped#pooled(int, int)} and {@link Scoped#STRIPED} do). The instance
+ * must not be used after the lease has been closed. A lease can be closed by
+ * any thread. A thread cannot lease a {@link Scoped#STRIPED} instance again
+ * before it closed its lease of the same stripe.
+ * 
+ * Like {@link Provider}s leases are installed through buildin-{@link Bundle}.
+ * 
+ * @author Jan Bernitt (jan@jbee.se)
+ */
+public interface Lease<T>
+		extends AutoCloseable {
+
+	T get();
+
+	@Override
+	void close();
+}
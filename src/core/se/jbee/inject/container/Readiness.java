@@ -0,0 +1,149 @@
+/*
+ *  Copyright (c) 2012-2017, Jan Bernitt
+ *
+ *  Licensed under the Apache License, Version 2.0, http://www.apache.org/licenses/LICENSE-2.0
+ */
+package se.jbee.inject.container;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import se.jbee.inject.InconsistentBinding;
+import se.jbee.inject.Initialiser;
+import se.jbee.inject.Injector;
+
+/**
+ * Tells when the {@link Initialiser}s of a container are done. Non-async
+ * initialisers are done once the {@link Injector} is created, async ones (see
+ * {@link Initialiser#isAsync()}) might still be running.
+ *
+ * Initialisers run in the order they are resolved unless they depend on each
+ * other (see {@link Initialiser#after()}).
+ *
+ * The {@link Readiness} of a container can be resolved from its
+ * {@link Injector} like any other instance.
+ *
+ * @author Jan Bernitt (jan@jbee.se)
+ */
+public final class Readiness {
+
+	private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture( null );
+
+	private final Map<Initialiser, CompletableFuture<Void>> initialisers = new IdentityHashMap<>();
+	private volatile CompletableFuture<Void> all = DONE;
+
+	Readiness() {
+		// only created by the container
+	}
+
+	/**
+	 * @return completes when all {@link Initialiser}s are done, exceptionally
+	 *         when any of the async ones failed
+	 */
+	public CompletableFuture<Void> all() {
+		return all;
+	}
+
+	/**
+	 * @return completes when all {@link Initialiser}s that are instances of
+	 *         the given type are done
+	 */
+	public CompletableFuture<Void> of( Class<?> type ) {
+		return CompletableFuture.allOf( futuresOf( type ) );
+	}
+
+	public boolean isReady() {
+		return all.isDone() && !all.isCompletedExceptionally();
+	}
+
+	void init( Injector injector, Initialiser[] initialisers, Executor executor ) {
+		List<Initialiser> ordered = new ArrayList<>( initialisers.length );
+		Map<Initialiser, Boolean> visited = new IdentityHashMap<>();
+		for ( Initialiser i : initialisers ) {
+			order( i, initialisers, visited, ordered );
+		}
+		List<CompletableFuture<Void>> all = new ArrayList<>( initialisers.length );
+		for ( Initialiser i : ordered ) {
+			CompletableFuture<Void> before = CompletableFuture.allOf( dependencies( i, initialisers ) );
+			CompletableFuture<Void> done;
+			if ( i.isAsync() ) {
+				done = before.thenRunAsync( () -> i.init( injector ), executor );
+			} else {
+				try {
+					before.join();
+				} catch ( CompletionException e ) {
+					throw e.getCause() instanceof RuntimeException
+						? (RuntimeException) e.getCause()
+						: e;
+				}
+				i.init( injector );
+				done = DONE;
+			}
+			synchronized ( this.initialisers ) {
+				this.initialisers.put( i, done );
+			}
+			all.add( done );
+		}
+		this.all = CompletableFuture.allOf( all.toArray( new CompletableFuture<?>[0] ) );
+	}
+
+	private CompletableFuture<?>[] dependencies( Initialiser initialiser, Initialiser[] initialisers ) {
+		List<CompletableFuture<Void>> res = new ArrayList<>();
+		synchronized ( this.initialisers ) {
+			for ( Initialiser i : initialisers ) {
+				if ( i != initialiser && dependsOn( initialiser, i ) ) {
+					res.add( this.initialisers.get( i ) );
+				}
+			}
+		}
+		return res.toArray( new CompletableFuture<?>[0] );
+	}
+
+	private CompletableFuture<?>[] futuresOf( Class<?> type ) {
+		List<CompletableFuture<Void>> res = new ArrayList<>();
+		synchronized ( initialisers ) {
+			for ( Map.Entry<Initialiser, CompletableFuture<Void>> e : initialisers.entrySet() ) {
+				if ( type.isInstance( e.getKey() ) ) {
+					res.add( e.getValue() );
+				}
+			}
+		}
+		return res.toArray( new CompletableFuture<?>[0] );
+	}
+
+	/**
+	 * Depth first so that each initialiser comes after those it depends upon.
+	 */
+	private static void order( Initialiser initialiser, Initialiser[] initialisers, Map<Initialiser, Boolean> visited,
+			List<Initialiser> ordered ) {
+		Boolean done = visited.get( initialiser );
+		if ( done != null ) {
+			if ( !done ) {
+				throw new InconsistentBinding( "Initialisers depend on each other in a cycle: " + initialiser );
+			}
+			return;
+		}
+		visited.put( initialiser, false );
+		for ( Initialiser i : initialisers ) {
+			if ( i != initialiser && dependsOn( initialiser, i ) ) {
+				order( i, initialisers, visited, ordered );
+			}
+		}
+		visited.put( initialiser, true );
+		ordered.add( initialiser );
+	}
+
+	private static boolean dependsOn( Initialiser initialiser, Initialiser other ) {
+		for ( Class<?> type : initialiser.after() ) {
+			if ( type.isInstance( other ) ) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,284 @@
+/*
+ *  Copyright (c) 2012-2017, Jan Bernitt
+ *
+ *  Licensed under the Apache License, Version 2.0, http://www.apache.org/licenses/LICENSE-2.0
+ */
+package se.jbee.inject.container;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import se.jbee.inject.Dependency;
+import se.jbee.inject.Injector;
+import se.jbee.inject.Injectron;
+import se.jbee.inject.Instance;
+
+/**
+ * Remembers which resolution strategy (or {@link Injectron}) an
+ * {@link Injector} has chosen for a {@link Dependency} so that the matching
+ * does not have to be repeated for the same dependency.
+ *
+ * Arrays composed from application scoped or constant {@link Injectron}s are
+ * remembered as well since they cannot change any more. So are the collections
+ * bridged from such arrays.
+ *
+ * The cache is bounded. Once full the plans and arrays not used since the
+ * last time round are evicted to make room for new ones (CLOCK replacement).
+ * Lookups are lock-free, only remembering a new plan is synchronised.
+ *
+ * The {@link ResolutionCache} of a container can be resolved like any other
+ * instance to inspect its hit and miss counts.
+ *
+ * @author Jan Bernitt (jan@jbee.se)
+ */
+public final class ResolutionCache {
+
+	/**
+	 * The default maximum number of plans remembered by a container.
+	 */
+	public static final int DEFAULT_CAPACITY = 4096;
+
+	private static final Instance<?>[] UNTARGETED = new Instance<?>[0];
+
+	private final Table<Key> plans;
+	private final Table<Dependency<?>> arrays;
+	private final Table<Dependency<?>> bridged;
+	private final int capacity;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	ResolutionCache( int capacity ) {
+		super();
+		this.capacity = capacity;
+		this.plans = new Table<>( capacity );
+		this.arrays = new Table<>( capacity );
+		this.bridged = new Table<>( capacity );
+	}
+
+	/**
+	 * @return number of lookups that found a plan
+	 */
+	public long hits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return number of lookups that had to compute a plan or array that then
+	 *         was remembered. Arrays that cannot be remembered are not counted.
+	 */
+	public long misses() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return number of plans currently remembered
+	 */
+	public int size() {
+		return plans.size();
+	}
+
+	/**
+	 * @return number of composed arrays currently remembered
+	 */
+	public int arrays() {
+		return arrays.size();
+	}
+
+	public int capacity() {
+		return capacity;
+	}
+
+	@Override
+	public String toString() {
+		return "hits: " + hits() + " misses: " + misses() + " size: " + size() + "/" + capacity
+				+ " arrays: " + arrays() + "/" + capacity;
+	}
+
+	Object lookup( Key key ) {
+		return counted( plans.get( key ) );
+	}
+
+	void remember( Key key, Object plan ) {
+		misses.increment();
+		plans.put( key, plan );
+	}
+
+	/**
+	 * @return The remembered array composed for the {@link Dependency} or
+	 *         null. The array is shared and must not be modified or given out.
+	 */
+	Object[] lookup( Dependency<?> dependency ) {
+		return (Object[]) counted( arrays.get( dependency ) );
+	}
+
+	void remember( Dependency<?> dependency, Object[] composed ) {
+		misses.increment();
+		arrays.put( dependency, composed );
+	}
+
+	/**
+	 * @return true, if the array composed for the {@link Dependency} is
+	 *         remembered (without counting this as a lookup)
+	 */
+	boolean isComposed( Dependency<?> dependency ) {
+		return arrays.get( dependency ) != null;
+	}
+
+	/**
+	 * @return The remembered collection bridged for the {@link Dependency} or
+	 *         null. The collection is shared.
+	 */
+	Object lookupBridged( Dependency<?> dependency ) {
+		return counted( bridged.get( dependency ) );
+	}
+
+	void rememberBridged( Dependency<?> dependency, Object collection ) {
+		misses.increment();
+		bridged.put( dependency, collection );
+	}
+
+	private Object counted( Object value ) {
+		if ( value != null ) {
+			hits.increment();
+		}
+		return value;
+	}
+
+	/**
+	 * A map bounded by CLOCK replacement: each entry has a reference bit set
+	 * when it is used. When full the clock hand goes round the slots clearing
+	 * the bits until it finds an entry that was not used since, which is
+	 * evicted.
+	 */
+	private static final class Table<K> {
+
+		private final ConcurrentHashMap<K, Entry> entries;
+		private final Object[] slots;
+		private int size;
+		private int hand;
+
+		Table( int capacity ) {
+			super();
+			this.entries = new ConcurrentHashMap<>( Math.min( capacity, 256 ) );
+			this.slots = new Object[capacity];
+		}
+
+		Object get( K key ) {
+			Entry e = entries.get( key );
+			if ( e == null ) {
+				return null;
+			}
+			if ( !e.referenced ) { // avoids writing shared memory for hot entries
+				e.referenced = true;
+			}
+			return e.value;
+		}
+
+		int size() {
+			return entries.size();
+		}
+
+		synchronized void put( K key, Object value ) {
+			if ( slots.length == 0 || entries.containsKey( key ) ) {
+				return;
+			}
+			int slot = size < slots.length
+				? size++
+				: evict();
+			slots[slot] = key;
+			entries.put( key, new Entry( value ) );
+		}
+
+		/**
+		 * @return the slot that has been freed
+		 */
+		private int evict() {
+			while ( true ) {
+				int slot = hand;
+				hand = ( hand + 1 ) % slots.length;
+				Entry e = entries.get( slots[slot] );
+				if ( e.referenced ) {
+					e.referenced = false;
+				} else {
+					entries.remove( slots[slot] );
+					return slot;
+				}
+			}
+		}
+	}
+
+	private static final class Entry {
+
+		final Object value;
+		volatile boolean referenced;
+
+		Entry( Object value ) {
+			super();
+			this.value = value;
+		}
+	}
+
+	/**
+	 * Creates the canonical key for a {@link Dependency}. Only as many levels of
+	 * the injection hierarchy are considered as are relevant to the matching.
+	 *
+	 * @param targetDepth
+	 *            the number of target levels that affect the resolution, 0 if
+	 *            no target is relevant, 1 if just the direct receiver is
+	 *            relevant, {@link Integer#MAX_VALUE} for the entire hierarchy
+	 */
+	static Key key( Dependency<?> dependency, int targetDepth ) {
+		final int depth = Math.min( targetDepth, dependency.injectionDepth() );
+		if ( depth == 0 ) {
+			return new Key( dependency.instance, UNTARGETED );
+		}
+		Instance<?>[] targets = new Instance<?>[depth];
+		for ( int i = 0; i < depth; i++ ) {
+			targets[i] = dependency.target( i );
+		}
+		return new Key( dependency.instance, targets );
+	}
+
+	static final class Key {
+
+		private final Instance<?> instance;
+		private final Instance<?>[] targets;
+		private final int hash;
+
+		Key( Instance<?> instance, Instance<?>[] targets ) {
+			super();
+			this.instance = instance;
+			this.targets = targets;
+			this.hash = instance.hashCode() ^ Arrays.hashCode( targets );
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals( Object obj ) {
+			return obj instanceof Key && equalTo( (Key) obj );
+		}
+
+		boolean equalTo( Key other ) {
+			if ( hash != other.hash || targets.length != other.targets.length
+					|| !instance.equalTo( other.instance ) ) {
+				return false;
+			}
+			for ( int i = 0; i < targets.length; i++ ) {
+				if ( !targets[i].equalTo( other.targets[i] ) ) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return Arrays.toString( targets ) + " -> " + instance;
+		}
+	}
+}
@@ -5,6 +5,7 @@
  */
 package se.jbee.inject.container;
 
+import se.jbee.inject.Expiry;
 import se.jbee.inject.Injector;
 
 /**
@@ -24,4 +25,13 @@ public interface Scope {
 	 * @return a empty instance in this {@linkplain Scope}.
 	 */
 	Repository init();
+
+	/**
+	 * @return how frequently instances in this {@link Scope} expire so that an
+	 *         instance cannot be injected into one that expires less
+	 *         frequently. By default instances are assumed to never expire.
+	 */
+	default Expiry expiry() {
+		return Expiry.NEVER;
+	}
 }
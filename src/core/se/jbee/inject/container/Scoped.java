@@ -5,12 +5,40 @@
  */
 package se.jbee.inject.container;
 
-import java.util.HashMap;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import se.jbee.inject.Dependency;
+import se.jbee.inject.Expiry;
 import se.jbee.inject.Injectron;
 import se.jbee.inject.InjectronInfo;
+import se.jbee.inject.Instance;
+import se.jbee.inject.UnresolvableDependency.OutOfScope;
 
 /**
  * Utility as a factory to create/use {@link Scope}s.
@@ -19,9 +47,19 @@ import se.jbee.inject.InjectronInfo;
  */
 public final class Scoped {
 
+	/**
+	 * Derives the key that identifies the instance within a
+	 * {@link #uniqueBy(DependencyProperty)} {@link Scope}.
+	 */
 	public interface DependencyProperty {
 
-		<T> String deriveFrom( Dependency<T> dependency );
+		/**
+		 * @return a key that is equal to and has the same hash code as the
+		 *         key derived from any other {@link Dependency} having the
+		 *         same property. Keys should be cheap to derive and compare as
+		 *         this is done each time an instance is served.
+		 */
+		<T> Object deriveFrom( Dependency<T> dependency );
 	}
 
 	public static final DependencyProperty DEPENDENCY_TYPE_KEY = new DependencyTypeProperty();
@@ -43,7 +81,31 @@ public final class Scoped {
 	 * Asks the {@link Provider} once per thread per binding which is understand commonly as a
 	 * usual 'per-thread' singleton.
 	 */
-	public static final Scope THREAD = new ThreadScope(new ThreadLocal<>(), APPLICATION );
+	public static final Scope THREAD = new ThreadScope();
+
+	/**
+	 * Asks the {@link Provider} once per stripe per binding. There are as many
+	 * stripes as processors. A thread always gets the instance of the same
+	 * stripe. This is meant for instances that are expensive to create and not
+	 * thread-safe. They can only be used through a {@link Lease} that holds the
+	 * lock of the stripe until it is closed.
+	 */
+	public static final StripedScope STRIPED = striped( Runtime.getRuntime().availableProcessors() );
+
+	/**
+	 * Asks the {@link Provider} once per binding and class the instance is
+	 * injected into. The instances are kept with the class so they go away
+	 * when the class is unloaded. This is a bounded alternative to
+	 * {@link #TARGET_INSTANCE} for e.g. loggers.
+	 */
+	public static final BoundedScope TARGET_CLASS = new BoundedScope( "target-class", Expiry.NEVER, TargetClassRepository::new );
+
+	/**
+	 * Asks the {@link Provider} once per binding within a request (or unit of
+	 * work). Requests are opened with {@link RequestScope#open()} and have to
+	 * be closed when done.
+	 */
+	public static final RequestScope REQUEST = new RequestScope();
 
 	public static final Scope DEPENDENCY_TYPE = uniqueBy( DEPENDENCY_TYPE_KEY );
 	public static final Scope DEPENDENCY_INSTANCE = uniqueBy( DEPENDENCY_INSTANCE_KEY );
@@ -58,6 +120,222 @@ public final class Scoped {
 		return new SnapshotRepository( src, dest );
 	}
 
+	/**
+	 * @see #STRIPED
+	 */
+	public static StripedScope striped( int stripes ) {
+		if ( stripes < 1 ) {
+			throw new IllegalArgumentException( "At least one stripe required but got: " + stripes );
+		}
+		return new StripedScope( stripes );
+	}
+
+	/**
+	 * Asks the {@link Provider} again once the instance is older than the given
+	 * time to live. The thread that finds the instance expired creates the new
+	 * one while other threads wait for it.
+	 */
+	public static TimeToLiveScope timeToLive( long ttl, TimeUnit unit ) {
+		return timeToLive( ttl, unit, null );
+	}
+
+	/**
+	 * Like {@link #timeToLive(long, TimeUnit)} but instances are refreshed
+	 * ahead: once three quarters of the time to live have passed the new
+	 * instance is created using the given {@link Executor}. Until it replaces
+	 * the current instance the current one is served (even if it is older than
+	 * the time to live). Callers only wait for the first instance.
+	 */
+	public static TimeToLiveScope timeToLive( long ttl, TimeUnit unit, Executor refresher ) {
+		if ( ttl <= 0L ) {
+			throw new IllegalArgumentException( "Time to live must be positive but was: " + ttl );
+		}
+		return new TimeToLiveScope( unit.toNanos( ttl ), refresher );
+	}
+
+	/**
+	 * Instances are checked out of a pool per binding by injecting a
+	 * {@link Lease}. Closing the lease gives them back. Resolving a pooled
+	 * instance directly fails as it would never be given back.
+	 * 
+	 * @param min
+	 *            the number of instances created when the first is checked out
+	 * @param max
+	 *            the number of instances that can be checked out at the same
+	 *            time. Further check-outs wait for an instance to be released.
+	 */
+	public static PoolScope pooled( int min, int max ) {
+		return pooled( min, max, null );
+	}
+
+	/**
+	 * @param reset
+	 *            called with each released instance before it can be checked
+	 *            out again, might be <code>null</code>. Instances it fails
+	 *            for are dropped.
+	 * @see #pooled(int, int)
+	 */
+	public static PoolScope pooled( int min, int max, Consumer<Object> reset ) {
+		if ( min < 0 || max < 1 || min > max ) {
+			throw new IllegalArgumentException( "Pool size must be 0 <= min <= max and max >= 1 but got: " + min + ".." + max );
+		}
+		return new PoolScope( min, max, reset );
+	}
+
+	/**
+	 * Resolves the instance of the {@link Injectron} for a {@link Lease}.
+	 * Scopes that only lend their instances, like {@link #STRIPED} and
+	 * {@link #pooled(int, int)}, refuse to serve them otherwise. Closing the
+	 * {@link Lease} gives the instance back to the {@link Repository} that
+	 * lent it.
+	 */
+	public static <T> Lease<T> lease( Injectron<T> injectron, Dependency<? super T> dependency ) {
+		Leasing outer = LEASED.get();
+		Leasing leasing = new Leasing( injectron.info() );
+		LEASED.set( leasing );
+		try {
+			return new Lent<>( injectron.info(), injectron.instanceFor( dependency ), leasing.lender );
+		} finally {
+			if ( outer == null ) {
+				LEASED.remove();
+			} else {
+				LEASED.set( outer );
+			}
+		}
+	}
+
+	/**
+	 * The {@link Leasing} of the instance currently resolved by
+	 * {@link #lease(Injectron, Dependency)}.
+	 */
+	private static final ThreadLocal<Leasing> LEASED = new ThreadLocal<>();
+
+	/**
+	 * Something that takes back an instance it has lent.
+	 */
+	private interface Lender {
+
+		void release( Object instance );
+	}
+
+	/**
+	 * The state of a {@link #lease(Injectron, Dependency)} in progress. A
+	 * {@link Repository} that lends the instance sets the {@link Lender}.
+	 */
+	private static final class Leasing {
+
+		final InjectronInfo<?> info;
+		Lender lender;
+
+		Leasing( InjectronInfo<?> info ) {
+			super();
+			this.info = info;
+		}
+	}
+
+	/**
+	 * @return the {@link Leasing} of the instance to serve
+	 * @throws OutOfScope in case the instance is not resolved for a
+	 *         {@link Lease}
+	 */
+	static Leasing leasing( Dependency<?> dependency, InjectronInfo<?> info, Scope scope ) {
+		Leasing leasing = LEASED.get();
+		if ( leasing == null || leasing.info != info ) {
+			throw new OutOfScope( dependency.typed( Typecast.leaseTypeOf( dependency.type() ) ), scope );
+		}
+		return leasing;
+	}
+
+	private static final class Lent<T>
+			implements Lease<T> {
+
+		private final InjectronInfo<T> info;
+		private final AtomicReference<T> instance;
+		private final Lender lender;
+
+		Lent( InjectronInfo<T> info, T instance, Lender lender ) {
+			super();
+			this.info = info;
+			this.instance = new AtomicReference<>( instance );
+			this.lender = lender;
+		}
+
+		@Override
+		public T get() {
+			T res = instance.get();
+			if ( res == null ) {
+				throw new IllegalStateException( "Lease has already been closed: " + info.resource );
+			}
+			return res;
+		}
+
+		@Override
+		public void close() {
+			T released = instance.getAndSet( null );
+			if ( released != null && lender != null ) {
+				lender.release( released );
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "<leases:" + info.resource + ">";
+		}
+	}
+
+	/**
+	 * Instances that can be evicted any time are replaced by new ones like
+	 * {@link #timeToLive(long, TimeUnit)} instances but with unknown time to
+	 * live. So they expire least frequently of all instances that do expire.
+	 */
+	private static final Expiry EVICTED = Expiry.expires( 1 );
+
+	/**
+	 * Like {@link #uniqueBy(DependencyProperty)} but keeps at most the given
+	 * number of instances. When there are more the least recently used are
+	 * removed (approximately).
+	 */
+	public static BoundedScope lru( DependencyProperty property, int maxSize ) {
+		if ( maxSize < 1 ) {
+			throw new IllegalArgumentException( "Maximum size must be positive but was: " + maxSize );
+		}
+		return new BoundedScope( property + "-lru:" + maxSize, EVICTED, () -> new LruRepository( property, maxSize ) );
+	}
+
+	/**
+	 * Like {@link #uniqueBy(DependencyProperty)} but the instances are removed
+	 * should the memory get low.
+	 */
+	public static BoundedScope softly( DependencyProperty property ) {
+		return new BoundedScope( property + "-soft", EVICTED, () -> new SoftRepository( property ) );
+	}
+
+	/**
+	 * Discards all instances the current thread has in {@link #THREAD} scope
+	 * (of any container). Instances that are {@link AutoCloseable} are closed.
+	 * Threads that are pooled or short lived should call this when their task
+	 * is done so that neither the instances nor the thread's storage leak.
+	 * 
+	 * @see #threadScoped(Runnable)
+	 */
+	public static void endThread() {
+		ThreadScope.end();
+	}
+
+	/**
+	 * @return the given task wrapped so that it {@link #endThread()}s after
+	 *         running, e.g. to submit it to an executor
+	 */
+	public static Runnable threadScoped( Runnable task ) {
+		return () -> {
+			try {
+				task.run();
+			} finally {
+				endThread();
+			}
+		};
+	}
+
 	/**
 	 * What is usually called a 'default'-{@link Scope} will ask the {@link Provider} passed each
 	 * time the {@link Repository#serve(Dependency, InjectronInfo, Provider)}}-method is invoked.
@@ -67,63 +345,1043 @@ public final class Scoped {
 	 * 
 	 * @see Scoped#INJECTION
 	 * 
-	 * @author Jan Bernitt (jan@jbee.se)
+	 * @author Jan Bernitt (jan@jbee.se)
+	 */
+	private static final class InjectionScope
+			implements Scope, Repository {
+
+		InjectionScope() {
+			// make visible
+		}
+
+		@Override
+		public Expiry expiry() {
+			return Expiry.expires( 1000 );
+		}
+
+		@Override
+		public Repository init() {
+			return this;
+		}
+
+		@Override
+		public <T> T serve( Dependency<? super T> dependency, InjectronInfo<T> info, Provider<T> provider ) {
+			return provider.provide();
+		}
+
+		@Override
+		public String toString() {
+			return "(default)";
+		}
+
+	}
+
+	/**
+	 * Each container has its own {@link ThreadRepository}. The scope just
+	 * tracks them weakly so that a thread can end its instances in all
+	 * containers still in use.
+	 * 
+	 * @see Scoped#THREAD
+	 */
+	private static final class ThreadScope
+			implements Scope {
+
+		private static final List<WeakReference<ThreadRepository>> REPOSITORIES = new CopyOnWriteArrayList<>();
+
+		ThreadScope() {
+			// make visible
+		}
+
+		@Override
+		public Expiry expiry() {
+			return Expiry.expires( 500 );
+		}
+
+		static void end() {
+			RuntimeException failed = null;
+			for ( WeakReference<ThreadRepository> ref : REPOSITORIES ) {
+				ThreadRepository repository = ref.get();
+				if ( repository != null ) {
+					failed = repository.end( failed );
+				}
+			}
+			if ( failed != null ) {
+				throw failed;
+			}
+		}
+
+		@Override
+		public Repository init() {
+			ThreadRepository repository = new ThreadRepository();
+			REPOSITORIES.removeIf( ref -> ref.get() == null );
+			REPOSITORIES.add( new WeakReference<>( repository ) );
+			return repository;
+		}
+
+		@Override
+		public String toString() {
+			return "(per-thread)";
+		}
+	}
+
+	/**
+	 * The {@link ThreadInstances} of each thread are owned by the repository
+	 * (weakly keyed by thread). The thread itself only refers to them weakly.
+	 * So neither a container no longer used nor a thread that died keeps its
+	 * instances alive, even if the instances refer to the container.
+	 */
+	private static final class ThreadRepository
+			implements Repository {
+
+		private final ThreadLocal<WeakReference<ThreadInstances>> current = new ThreadLocal<>();
+		private final Map<Thread, ThreadInstances> threads = Collections.synchronizedMap( new WeakHashMap<>() );
+
+		ThreadRepository() {
+			// make visible
+		}
+
+		@Override
+		@SuppressWarnings ( "unchecked" )
+		public <T> T serve(Dependency<? super T> dependency, InjectronInfo<T> info, Provider<T> provider) {
+			WeakReference<ThreadInstances> ref = current.get();
+			ThreadInstances instances = ref == null ? null : ref.get();
+			if ( instances == null ) {
+				// since each thread is just accessing its own instances there cannot be any set for the running thread after we checked for null
+				instances = new ThreadInstances();
+				threads.put( Thread.currentThread(), instances );
+				current.set( new WeakReference<>( instances ) );
+			}
+			final int key = info.serialID;
+			T res = (T) instances.get( key );
+			if ( res == null ) {
+				res = provider.provide();
+				instances.put( key, res );
+			}
+			return res;
+		}
+
+		RuntimeException end( RuntimeException failed ) {
+			current.remove();
+			ThreadInstances instances = threads.remove( Thread.currentThread() );
+			return instances == null ? failed : instances.close( failed );
+		}
+	}
+
+	/**
+	 * A sparse map from serial ID to instance kept as sorted arrays. Only
+	 * accessed by the thread it belongs to.
+	 */
+	private static final class ThreadInstances {
+
+		private int[] keys = new int[4];
+		private Object[] instances = new Object[4];
+		private int size;
+
+		ThreadInstances() {
+			// make visible
+		}
+
+		Object get( int key ) {
+			int i = Arrays.binarySearch( keys, 0, size, key );
+			return i < 0 ? null : instances[i];
+		}
+
+		void put( int key, Object instance ) {
+			int i = Arrays.binarySearch( keys, 0, size, key );
+			if ( i >= 0 ) {
+				instances[i] = instance;
+				return;
+			}
+			i = -i - 1;
+			if ( size == keys.length ) {
+				keys = Arrays.copyOf( keys, size * 2 );
+				instances = Arrays.copyOf( instances, size * 2 );
+			}
+			System.arraycopy( keys, i, keys, i + 1, size - i );
+			System.arraycopy( instances, i, instances, i + 1, size - i );
+			keys[i] = key;
+			instances[i] = instance;
+			size++;
+		}
+
+		RuntimeException close( RuntimeException failed ) {
+			for ( int i = 0; i < size; i++ ) {
+				failed = Scoped.close( instances[i], failed );
+			}
+			size = 0;
+			return failed;
+		}
+	}
+
+	/**
+	 * Closes the instance if it is {@link AutoCloseable}.
+	 * 
+	 * @return the exception to throw after all instances have been closed
+	 */
+	static RuntimeException close( Object instance, RuntimeException failed ) {
+		if ( instance instanceof AutoCloseable ) {
+			try {
+				( (AutoCloseable) instance ).close();
+			} catch ( Exception e ) {
+				if ( failed == null ) {
+					return new IllegalStateException( "Failed to close scoped instance: " + instance, e );
+				}
+				failed.addSuppressed( e );
+			}
+		}
+		return failed;
+	}
+
+	/**
+	 * Instances live as long as a {@link Request} is open. A request is opened
+	 * by the thread handling it and can be handed to other threads working for
+	 * the same request.
+	 * 
+	 * @see Scoped#REQUEST
+	 */
+	public static final class RequestScope
+			implements Scope {
+
+		static final ThreadLocal<Request> CURRENT = new ThreadLocal<>();
+
+		RequestScope() {
+			// make visible
+		}
+
+		/**
+		 * A request outlives the injections but usually not the thread
+		 * handling it.
+		 */
+		@Override
+		public Expiry expiry() {
+			return Expiry.expires( 750 );
+		}
+
+		/**
+		 * Opens a new {@link Request} for the current thread. Closing it
+		 * restores the request that was open before (if any).
+		 */
+		public Request open() {
+			Request request = new Request( CURRENT.get() );
+			CURRENT.set( request );
+			return request;
+		}
+
+		/**
+		 * @return the {@link Request} open for the current thread or
+		 *         <code>null</code>
+		 */
+		public Request current() {
+			return CURRENT.get();
+		}
+
+		@Override
+		public Repository init() {
+			return new RequestRepository( this );
+		}
+
+		@Override
+		public String toString() {
+			return "(per-request)";
+		}
+
+		static void restore( Request previous ) {
+			if ( previous == null ) {
+				CURRENT.remove();
+			} else {
+				CURRENT.set( previous );
+			}
+		}
+	}
+
+	/**
+	 * An open unit of work. All instances in {@link Scoped#REQUEST} scope
+	 * created during the request are released when it is closed. Instances
+	 * that are {@link AutoCloseable} are closed.
+	 */
+	public static final class Request
+			implements AutoCloseable {
+
+		private final Request previous;
+		private volatile boolean closed;
+		/**
+		 * Almost always there is just one container so its instances are kept
+		 * directly. Others are kept in the map.
+		 */
+		private volatile Instances first;
+		private final ConcurrentMap<RequestRepository, Instances> others = new ConcurrentHashMap<>();
+
+		Request( Request previous ) {
+			super();
+			this.previous = previous;
+		}
+
+		public boolean isClosed() {
+			return closed;
+		}
+
+		/**
+		 * @return the task wrapped so that it runs within this request on
+		 *         whatever thread runs it
+		 */
+		public Runnable wrap( Runnable task ) {
+			return () -> {
+				Request previous = RequestScope.CURRENT.get();
+				RequestScope.CURRENT.set( this );
+				try {
+					task.run();
+				} finally {
+					RequestScope.restore( previous );
+				}
+			};
+		}
+
+		/**
+		 * @see #wrap(Runnable)
+		 */
+		public <V> Callable<V> wrap( Callable<V> task ) {
+			return () -> {
+				Request previous = RequestScope.CURRENT.get();
+				RequestScope.CURRENT.set( this );
+				try {
+					return task.call();
+				} finally {
+					RequestScope.restore( previous );
+				}
+			};
+		}
+
+		AtomicReferenceArray<Object> instances( RequestRepository repository, int count ) {
+			Instances instances = first;
+			if ( instances != null && instances.repository == repository ) {
+				return instances.instances;
+			}
+			synchronized ( this ) {
+				if ( first == null ) {
+					first = new Instances( repository, count );
+				}
+				instances = first;
+			}
+			if ( instances.repository == repository ) {
+				return instances.instances;
+			}
+			return others.computeIfAbsent( repository, r -> new Instances( r, count ) ).instances;
+		}
+
+		@Override
+		public void close() {
+			if ( closed ) {
+				return;
+			}
+			closed = true;
+			if ( RequestScope.CURRENT.get() == this ) {
+				RequestScope.restore( previous );
+			}
+			RuntimeException failed = null;
+			Instances instances = first;
+			first = null;
+			if ( instances != null ) {
+				failed = instances.close( failed );
+			}
+			for ( Instances other : others.values() ) {
+				failed = other.close( failed );
+			}
+			others.clear();
+			if ( failed != null ) {
+				throw failed;
+			}
+		}
+	}
+
+	private static final class Instances {
+
+		final RequestRepository repository;
+		final AtomicReferenceArray<Object> instances;
+
+		Instances( RequestRepository repository, int count ) {
+			super();
+			this.repository = repository;
+			this.instances = new AtomicReferenceArray<>( count );
+		}
+
+		RuntimeException close( RuntimeException failed ) {
+			for ( int i = 0; i < instances.length(); i++ ) {
+				failed = Scoped.close( instances.getAndSet( i, null ), failed );
+			}
+			return failed;
+		}
+	}
+
+	/**
+	 * Lookups just index the array of the current {@link Request}. Creating an
+	 * instance does not lock either. Should two threads of the same request
+	 * create the same instance at the same time the first one stored wins. The
+	 * other one is closed if it is {@link AutoCloseable}. An instance created
+	 * while the request is closed is closed as well.
+	 */
+	private static final class RequestRepository
+			implements Repository {
+
+		private final RequestScope scope;
+
+		RequestRepository( RequestScope scope ) {
+			super();
+			this.scope = scope;
+		}
+
+		@Override
+		@SuppressWarnings ( "unchecked" )
+		public <T> T serve(Dependency<? super T> dependency, InjectronInfo<T> info, Provider<T> provider) {
+			Request request = RequestScope.CURRENT.get();
+			if ( request == null || request.isClosed() ) {
+				throw new OutOfScope( dependency, scope );
+			}
+			AtomicReferenceArray<Object> instances = request.instances( this, info.count );
+			final int serialID = info.serialID;
+			T res = (T) instances.get( serialID );
+			if ( res != null ) {
+				return res;
+			}
+			res = provider.provide();
+			if ( instances.compareAndSet( serialID, null, res ) ) {
+				if ( !request.isClosed() ) {
+					return res; // a close that follows sweeps the instance
+				}
+				// the request has been closed meanwhile and might have swept before the instance was stored
+				if ( instances.compareAndSet( serialID, res, null ) ) {
+					closeOrThrow( res );
+				}
+				throw new OutOfScope( dependency, scope );
+			}
+			T stored = (T) instances.get( serialID );
+			closeOrThrow( res );
+			if ( stored == null ) { // the request has been closed meanwhile
+				throw new OutOfScope( dependency, scope );
+			}
+			return stored;
+		}
+
+		private static void closeOrThrow( Object instance ) {
+			RuntimeException failed = close( instance, null );
+			if ( failed != null ) {
+				throw failed;
+			}
+		}
+	}
+
+	/**
+	 * A {@link Scope} with a fixed number of stripes. The {@link Repository}
+	 * of each container it is used in keeps track of how often threads had to
+	 * wait for the lease of another thread on the same stripe to be closed.
+	 * 
+	 * @see Scoped#STRIPED
+	 */
+	public static final class StripedScope
+			implements Scope {
+
+		private final int stripes;
+		private final List<WeakReference<StripedRepository>> repositories = new CopyOnWriteArrayList<>();
+
+		StripedScope( int stripes ) {
+			super();
+			this.stripes = stripes;
+		}
+
+		/**
+		 * Striped instances are shared by the threads of a stripe like
+		 * {@link Scoped#THREAD} instances are used by a single thread. So they
+		 * expire as frequently.
+		 */
+		@Override
+		public Expiry expiry() {
+			return Expiry.expires( 500 );
+		}
+
+		@Override
+		public Repository init() {
+			StripedRepository repository = new StripedRepository( this );
+			repositories.removeIf( ref -> ref.get() == null );
+			repositories.add( new WeakReference<>( repository ) );
+			return repository;
+		}
+
+		/**
+		 * @return the usage of each binding in this scope (of all containers
+		 *         still in use) that has been served at least once
+		 */
+		public List<StripeStats> stats() {
+			List<StripeStats> res = new ArrayList<>();
+			for ( WeakReference<StripedRepository> ref : repositories ) {
+				StripedRepository repository = ref.get();
+				if ( repository != null ) {
+					repository.stats( res );
+				}
+			}
+			return res;
+		}
+
+		@Override
+		public String toString() {
+			return "(per-stripe:" + stripes + ")";
+		}
+	}
+
+	/**
+	 * The usage of the stripes of a single binding in a {@link StripedScope}.
+	 */
+	public static final class StripeStats {
+
+		public final InjectronInfo<?> info;
+		/**
+		 * The number of instances created (at most one per stripe).
+		 */
+		public final int created;
+		public final long served;
+		/**
+		 * The number of leases that had to wait for the lease of another
+		 * thread on the same stripe to be closed.
+		 */
+		public final long waits;
+		public final long waitNanos;
+
+		StripeStats( InjectronInfo<?> info, int created, long served, long waits, long waitNanos ) {
+			super();
+			this.info = info;
+			this.created = created;
+			this.served = served;
+			this.waits = waits;
+			this.waitNanos = waitNanos;
+		}
+
+		@Override
+		public String toString() {
+			return String.format( "%s created: %d served: %d waits: %d (%.3f ms)",
+					info.resource, created, served, waits, waitNanos / 1e6d );
+		}
+	}
+
+	/**
+	 * A lease acquires the stripe of the current thread. The instance of a
+	 * stripe is created while holding its permit so that stripes of the same
+	 * binding do not wait for each other. The permit is not bound to a thread
+	 * so the lease can be closed by any thread.
+	 */
+	private static final class StripedRepository
+			implements Repository {
+
+		private final StripedScope scope;
+		private volatile AtomicReferenceArray<Stripes> bindings;
+
+		StripedRepository( StripedScope scope ) {
+			super();
+			this.scope = scope;
+		}
+
+		@Override
+		@SuppressWarnings ( "unchecked" )
+		public <T> T serve(Dependency<? super T> dependency, InjectronInfo<T> info, Provider<T> provider) {
+			Leasing leasing = leasing( dependency, info, scope );
+			AtomicReferenceArray<Stripes> bindings = this.bindings;
+			if ( bindings == null ) {
+				bindings = init( info.count );
+			}
+			Stripes binding = bindings.get( info.serialID );
+			if ( binding == null ) {
+				bindings.compareAndSet( info.serialID, null, new Stripes( info, scope.stripes ) );
+				binding = bindings.get( info.serialID );
+			}
+			Stripe stripe = binding.acquire( (int) ( Thread.currentThread().getId() % scope.stripes ) );
+			try {
+				Object res = stripe.instance;
+				if ( res == null ) {
+					res = provider.provide();
+					stripe.instance = res;
+					binding.created.incrementAndGet();
+				}
+				binding.served.increment();
+				leasing.lender = stripe;
+				return (T) res;
+			} catch ( RuntimeException e ) {
+				stripe.release( null );
+				throw e;
+			}
+		}
+
+		private synchronized AtomicReferenceArray<Stripes> init( int count ) {
+			if ( bindings == null ) {
+				bindings = new AtomicReferenceArray<>( count );
+			}
+			return bindings;
+		}
+
+		void stats( List<StripeStats> res ) {
+			AtomicReferenceArray<Stripes> bindings = this.bindings;
+			if ( bindings == null ) {
+				return;
+			}
+			for ( int i = 0; i < bindings.length(); i++ ) {
+				Stripes binding = bindings.get( i );
+				if ( binding != null ) {
+					res.add( binding.stats() );
+				}
+			}
+		}
+	}
+
+	private static final class Stripes {
+
+		final InjectronInfo<?> info;
+		final Stripe[] stripes;
+		final AtomicInteger created = new AtomicInteger();
+		final LongAdder served = new LongAdder();
+		final LongAdder waits = new LongAdder();
+		final LongAdder waitNanos = new LongAdder();
+
+		Stripes( InjectronInfo<?> info, int stripes ) {
+			super();
+			this.info = info;
+			this.stripes = new Stripe[stripes];
+			for ( int i = 0; i < stripes; i++ ) {
+				this.stripes[i] = new Stripe();
+			}
+		}
+
+		/**
+		 * @throws IllegalStateException in case the current thread already
+		 *         leases the instance of the stripe as it would wait for itself
+		 */
+		Stripe acquire( int index ) {
+			Stripe stripe = stripes[index];
+			Thread current = Thread.currentThread();
+			if ( stripe.holder == current ) {
+				throw new IllegalStateException( "Nested lease of the same stripe: " + info.resource );
+			}
+			if ( !stripe.permit.tryAcquire() ) {
+				long start = System.nanoTime();
+				stripe.permit.acquireUninterruptibly();
+				waits.increment();
+				waitNanos.add( System.nanoTime() - start );
+			}
+			stripe.holder = current;
+			return stripe;
+		}
+
+		StripeStats stats() {
+			return new StripeStats( info, created.get(), served.sum(), waits.sum(), waitNanos.sum() );
+		}
+	}
+
+	private static final class Stripe
+			implements Lender {
+
+		final Semaphore permit = new Semaphore( 1 );
+		/**
+		 * The thread that leased the instance, null while not leased.
+		 */
+		volatile Thread holder;
+		/**
+		 * Only accessed while holding the permit.
+		 */
+		Object instance;
+
+		@Override
+		public void release( Object instance ) {
+			holder = null;
+			permit.release();
+		}
+	}
+
+	/**
+	 * A {@link Scope} that recycles instances. The {@link Repository} of each
+	 * container it is used in keeps one pool per binding.
+	 * 
+	 * @see Scoped#pooled(int, int)
+	 */
+	public static final class PoolScope
+			implements Scope {
+
+		private final int min;
+		private final int max;
+		private final Consumer<Object> reset;
+		private final List<WeakReference<PoolRepository>> repositories = new CopyOnWriteArrayList<>();
+
+		PoolScope( int min, int max, Consumer<Object> reset ) {
+			super();
+			this.min = min;
+			this.max = max;
+			this.reset = reset;
+		}
+
+		/**
+		 * A pooled instance is leased for a single injection like a
+		 * {@link Scoped#INJECTION} instance is created for it. So they expire
+		 * as frequently.
+		 */
+		@Override
+		public Expiry expiry() {
+			return Expiry.expires( 1000 );
+		}
+
+		@Override
+		public Repository init() {
+			PoolRepository repository = new PoolRepository( this );
+			repositories.removeIf( ref -> ref.get() == null );
+			repositories.add( new WeakReference<>( repository ) );
+			return repository;
+		}
+
+		/**
+		 * @return the usage of each pool in this scope (of all containers still
+		 *         in use) that has been checked out from at least once
+		 */
+		public List<PoolStats> stats() {
+			List<PoolStats> res = new ArrayList<>();
+			for ( WeakReference<PoolRepository> ref : repositories ) {
+				PoolRepository repository = ref.get();
+				if ( repository != null ) {
+					repository.stats( res );
+				}
+			}
+			return res;
+		}
+
+		@Override
+		public String toString() {
+			return "(per-pool:" + min + ".." + max + ")";
+		}
+	}
+
+	/**
+	 * The usage of the pool of a single binding in a {@link PoolScope}.
+	 */
+	public static final class PoolStats {
+
+		public final InjectronInfo<?> info;
+		public final long checkouts;
+		/**
+		 * The number of checkouts that got an instance that was released
+		 * before.
+		 */
+		public final long hits;
+		public final int created;
+		public final int idle;
+		public final int leased;
+		/**
+		 * The number of checkouts that had to wait for an instance to be
+		 * released because all had been leased.
+		 */
+		public final long waits;
+		public final long waitNanos;
+
+		PoolStats( InjectronInfo<?> info, long checkouts, long hits, int created, int idle, int leased, long waits,
+				long waitNanos ) {
+			super();
+			this.info = info;
+			this.checkouts = checkouts;
+			this.hits = hits;
+			this.created = created;
+			this.idle = idle;
+			this.leased = leased;
+			this.waits = waits;
+			this.waitNanos = waitNanos;
+		}
+
+		public double hitRate() {
+			return checkouts == 0L ? 0d : (double) hits / checkouts;
+		}
+
+		@Override
+		public String toString() {
+			return String.format( "%s checkouts: %d hit-rate: %.2f created: %d idle: %d leased: %d waits: %d (%.3f ms)",
+					info.resource, checkouts, hitRate(), created, idle, leased, waits, waitNanos / 1e6d );
+		}
+	}
+
+	private static final class PoolRepository
+			implements Repository {
+
+		private final PoolScope scope;
+		private volatile AtomicReferenceArray<Pool> pools;
+
+		PoolRepository( PoolScope scope ) {
+			super();
+			this.scope = scope;
+		}
+
+		@Override
+		@SuppressWarnings ( "unchecked" )
+		public <T> T serve(Dependency<? super T> dependency, InjectronInfo<T> info, Provider<T> provider) {
+			Leasing leasing = leasing( dependency, info, scope );
+			AtomicReferenceArray<Pool> pools = this.pools;
+			if ( pools == null ) {
+				pools = init( info.count );
+			}
+			Pool pool = pools.get( info.serialID );
+			if ( pool == null ) {
+				pool = create( pools, info, provider );
+			}
+			T res = (T) pool.checkout( provider );
+			leasing.lender = pool;
+			return res;
+		}
+
+		private synchronized AtomicReferenceArray<Pool> init( int count ) {
+			if ( pools == null ) {
+				pools = new AtomicReferenceArray<>( count );
+			}
+			return pools;
+		}
+
+		/**
+		 * The empty pool is published first. Only the thread that published it
+		 * creates the minimum number of instances. This does not block other
+		 * bindings or other threads, which create instances on demand while the
+		 * pool is still filled.
+		 */
+		private Pool create( AtomicReferenceArray<Pool> pools, InjectronInfo<?> info, Provider<?> provider ) {
+			Pool pool = new Pool( info, scope.max, scope.reset );
+			if ( pools.compareAndSet( info.serialID, null, pool ) ) {
+				pool.fill( scope.min, provider );
+				return pool;
+			}
+			return pools.get( info.serialID );
+		}
+
+		void stats( List<PoolStats> res ) {
+			AtomicReferenceArray<Pool> pools = this.pools;
+			if ( pools == null ) {
+				return;
+			}
+			for ( int i = 0; i < pools.length(); i++ ) {
+				Pool pool = pools.get( i );
+				if ( pool != null ) {
+					res.add( pool.stats() );
+				}
+			}
+		}
+	}
+
+	/**
+	 * The {@link Semaphore} bounds the number of leased instances. Checking out
+	 * and releasing does not lock as long as the pool is not exhausted.
+	 */
+	private static final class Pool
+			implements Lender {
+
+		final InjectronInfo<?> info;
+		private final int max;
+		private final Consumer<Object> reset;
+		private final Semaphore leases;
+		private final Queue<Object> idle = new ConcurrentLinkedQueue<>();
+		private final AtomicInteger created = new AtomicInteger();
+		private final LongAdder checkouts = new LongAdder();
+		private final LongAdder hits = new LongAdder();
+		private final LongAdder waits = new LongAdder();
+		private final LongAdder waitNanos = new LongAdder();
+
+		Pool( InjectronInfo<?> info, int max, Consumer<Object> reset ) {
+			super();
+			this.info = info;
+			this.max = max;
+			this.reset = reset;
+			this.leases = new Semaphore( max );
+		}
+
+		/**
+		 * Instances created on demand meanwhile count towards the minimum.
+		 */
+		void fill( int min, Provider<?> provider ) {
+			while ( created.get() < min ) {
+				idle.offer( create( provider ) );
+			}
+		}
+
+		Object checkout( Provider<?> provider ) {
+			if ( !leases.tryAcquire() ) {
+				long start = System.nanoTime();
+				leases.acquireUninterruptibly();
+				waits.increment();
+				waitNanos.add( System.nanoTime() - start );
+			}
+			checkouts.increment();
+			Object res = idle.poll();
+			if ( res != null ) {
+				hits.increment();
+				return res;
+			}
+			try {
+				return create( provider );
+			} catch ( RuntimeException e ) {
+				leases.release();
+				throw e;
+			}
+		}
+
+		/**
+		 * An instance that fails to reset is dropped. A new one is created
+		 * when needed.
+		 */
+		@Override
+		public void release( Object instance ) {
+			try {
+				if ( reset != null ) {
+					reset.accept( instance );
+				}
+				idle.offer( instance );
+			} finally {
+				leases.release();
+			}
+		}
+
+		private Object create( Provider<?> provider ) {
+			Object res = provider.provide();
+			created.incrementAndGet();
+			return res;
+		}
+
+		PoolStats stats() {
+			return new PoolStats( info, checkouts.sum(), hits.sum(), created.get(), idle.size(),
+					max - leases.availablePermits(), waits.sum(), waitNanos.sum() );
+		}
+	}
+
+	/**
+	 * A {@link Scope} whose instances are replaced after a fixed time.
+	 * 
+	 * @see Scoped#timeToLive(long, TimeUnit)
+	 * @see Scoped#timeToLive(long, TimeUnit, Executor)
 	 */
-	private static final class InjectionScope
-			implements Scope, Repository {
+	public static final class TimeToLiveScope
+			implements Scope {
 
-		InjectionScope() {
-			// make visible
+		final long ttlNanos;
+		final long refreshNanos;
+		final Executor refresher;
+
+		TimeToLiveScope( long ttlNanos, Executor refresher ) {
+			super();
+			this.ttlNanos = ttlNanos;
+			this.refresher = refresher;
+			this.refreshNanos = refresher == null
+				? ttlNanos
+				: ttlNanos - ttlNanos / 4;
 		}
 
+		/**
+		 * Instances that live for a limited time expire more frequently than
+		 * {@link Scoped#APPLICATION} instances but less frequently than
+		 * {@link Scoped#THREAD} ones. The shorter the time to live the more
+		 * frequently they expire so that an instance cannot depend on one that
+		 * lives shorter.
+		 */
 		@Override
-		public Repository init() {
-			return this;
+		public Expiry expiry() {
+			int bits = 64 - Long.numberOfLeadingZeros( TimeUnit.NANOSECONDS.toMillis( ttlNanos ) );
+			return Expiry.expires( Math.max( 1, 499 - bits ) );
 		}
 
 		@Override
-		public <T> T serve( Dependency<? super T> dependency, InjectronInfo<T> info, Provider<T> provider ) {
-			return provider.provide();
+		public Repository init() {
+			return new TimeToLiveRepository( this );
 		}
 
 		@Override
 		public String toString() {
-			return "(default)";
+			return "(per-" + TimeUnit.NANOSECONDS.toMillis( ttlNanos ) + "ms" + ( refresher == null ? "" : "-refreshed" ) + ")";
 		}
-
 	}
 
-	private static final class ThreadScope
-			implements Scope, Repository {
+	private static final class TimeToLiveRepository
+			implements Repository {
 
-		private final ThreadLocal<Repository> threadRepository;
-		private final Scope repositoryScope;
+		private final TimeToLiveScope scope;
+		private volatile AtomicReferenceArray<Timed> instances;
+		/**
+		 * Unlike {@link LazyInjectronRepository} the lock of a slot is kept as
+		 * its instance is created again and again.
+		 */
+		private volatile AtomicReferenceArray<Object> locks;
 
-		ThreadScope( ThreadLocal<Repository> threadRepository, Scope repositoryScope ) {
+		TimeToLiveRepository( TimeToLiveScope scope ) {
 			super();
-			this.threadRepository = threadRepository;
-			this.repositoryScope = repositoryScope;
+			this.scope = scope;
 		}
 
 		@Override
+		@SuppressWarnings ( "unchecked" )
 		public <T> T serve(Dependency<? super T> dependency, InjectronInfo<T> info, Provider<T> provider) {
-			Repository repository = threadRepository.get();
-			if ( repository == null ) {
-				// since each thread is just accessing its own repo there cannot be a repo set for the running thread after we checked for null
-				repository = repositoryScope.init();
-				threadRepository.set( repository );
+			AtomicReferenceArray<Timed> instances = this.instances;
+			if ( instances == null ) {
+				instances = init( info.count );
+			}
+			final int serialID = info.serialID;
+			Timed timed = instances.get( serialID );
+			if ( timed != null ) {
+				long age = System.nanoTime() - timed.created;
+				if ( age < scope.refreshNanos ) {
+					return (T) timed.instance;
+				}
+				if ( scope.refresher != null ) {
+					if ( timed.refreshing.compareAndSet( false, true ) ) {
+						refresh( instances, serialID, timed, provider );
+					}
+					return (T) timed.instance;
+				}
+			}
+			synchronized ( lock( serialID ) ) {
+				Timed current = instances.get( serialID );
+				if ( current == timed ) { // no other thread created a new one meanwhile
+					current = new Timed( provider.provide() );
+					instances.set( serialID, current );
+				}
+				return (T) current.instance;
 			}
-			return repository.serve( dependency, info, provider );
 		}
 
-		@Override
-		public Repository init() {
-			return this;
+		private void refresh( AtomicReferenceArray<Timed> instances, int serialID, Timed expired, Provider<?> provider ) {
+			try {
+				scope.refresher.execute( () -> {
+					try {
+						instances.compareAndSet( serialID, expired, new Timed( provider.provide() ) );
+					} finally {
+						expired.refreshing.set( false ); // allows to try again should it have failed
+					}
+				} );
+			} catch ( RuntimeException e ) {
+				expired.refreshing.set( false );
+				throw e;
+			}
 		}
 
-		@Override
-		public String toString() {
-			return "(per-thread)";
+		private synchronized AtomicReferenceArray<Timed> init( int count ) {
+			if ( instances == null ) {
+				locks = new AtomicReferenceArray<>( count );
+				instances = new AtomicReferenceArray<>( count );
+			}
+			return instances;
+		}
+
+		private Object lock( int serialID ) {
+			Object lock = locks.get( serialID );
+			if ( lock != null ) {
+				return lock;
+			}
+			Object created = new Object();
+			return locks.compareAndSet( serialID, null, created )
+				? created
+				: locks.get( serialID );
+		}
+	}
+
+	private static final class Timed {
+
+		final Object instance;
+		final long created = System.nanoTime();
+		final AtomicBoolean refreshing = new AtomicBoolean();
+
+		Timed( Object instance ) {
+			super();
+			this.instance = instance;
 		}
 	}
 
@@ -213,10 +1471,42 @@ public final class Scoped {
 		}
 
 		@Override
-		public <T> String deriveFrom( Dependency<T> dependency ) {
-			return first.deriveFrom( dependency ).concat( second.deriveFrom( dependency ) );
+		public <T> Object deriveFrom( Dependency<T> dependency ) {
+			return new CombinedKey( first.deriveFrom( dependency ), second.deriveFrom( dependency ) );
+		}
+
+		@Override
+		public String toString() {
+			return first + "+" + second;
+		}
+	}
+
+	private static final class CombinedKey {
+
+		private final Object first;
+		private final Object second;
+		private final int hash;
+
+		CombinedKey( Object first, Object second ) {
+			super();
+			this.first = first;
+			this.second = second;
+			this.hash = 31 * first.hashCode() + second.hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
 		}
 
+		@Override
+		public boolean equals( Object obj ) {
+			if ( !( obj instanceof CombinedKey ) ) {
+				return false;
+			}
+			CombinedKey other = (CombinedKey) obj;
+			return hash == other.hash && first.equals( other.first ) && second.equals( other.second );
+		}
 	}
 
 	private static final class TargetInstanceProperty
@@ -227,12 +1517,10 @@ public final class Scoped {
 		}
 
 		@Override
-		public <T> String deriveFrom( Dependency<T> dependency ) {
-			StringBuilder b = new StringBuilder();
-			for ( int i = dependency.injectionDepth() - 1; i >= 0; i-- ) {
-				b.append( dependency.target( i ) );
-			}
-			return b.toString();
+		public <T> Object deriveFrom( Dependency<T> dependency ) {
+			return dependency.isUntargeted()
+				? Instance.ANY
+				: new TargetInstanceKey( dependency );
 		}
 
 		@Override
@@ -242,6 +1530,49 @@ public final class Scoped {
 
 	}
 
+	/**
+	 * The chain of target {@link Instance}s of a {@link Dependency}. Compares
+	 * the {@link Instance}s directly instead of their {@link String} form.
+	 */
+	private static final class TargetInstanceKey {
+
+		private final Dependency<?> dependency;
+		private final int hash;
+
+		TargetInstanceKey( Dependency<?> dependency ) {
+			super();
+			this.dependency = dependency;
+			int hash = 1;
+			for ( int i = dependency.injectionDepth() - 1; i >= 0; i-- ) {
+				hash = 31 * hash + dependency.target( i ).hashCode();
+			}
+			this.hash = hash;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals( Object obj ) {
+			if ( !( obj instanceof TargetInstanceKey ) ) {
+				return false;
+			}
+			TargetInstanceKey other = (TargetInstanceKey) obj;
+			int depth = dependency.injectionDepth();
+			if ( hash != other.hash || depth != other.dependency.injectionDepth() ) {
+				return false;
+			}
+			for ( int i = 0; i < depth; i++ ) {
+				if ( !dependency.target( i ).equalTo( other.dependency.target( i ) ) ) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
 	private static final class DependencyTypeProperty
 			implements DependencyProperty {
 
@@ -250,13 +1581,13 @@ public final class Scoped {
 		}
 
 		@Override
-		public <T> String deriveFrom( Dependency<T> dependency ) {
-			return dependency.type().toString();
+		public <T> Object deriveFrom( Dependency<T> dependency ) {
+			return dependency.type();
 		}
 
 		@Override
 		public String toString() {
-			return "dependendy-type";
+			return "dependency-type";
 		}
 
 	}
@@ -269,47 +1600,444 @@ public final class Scoped {
 		}
 
 		@Override
-		public <T> String deriveFrom( Dependency<T> dependency ) {
-			return dependency.instance.name.toString() + "@" + dependency.type().toString();
+		public <T> Object deriveFrom( Dependency<T> dependency ) {
+			return dependency.instance;
 		}
 
 		@Override
 		public String toString() {
-			return "dependendy-type";
+			return "dependency-instance";
 		}
 	}
 
-	// e.g. get receiver class from dependency -to be reusable the provider could offer a identity --> a wrapper class would be needed anyway so maybe best is to have quite similar impl. all using a identity hash-map
-
-	private static final class DependencyPropertyRepository
+	/**
+	 * Contains one instance per key derived by the {@link DependencyProperty}.
+	 * Like the {@link LazyInjectronRepository} existing instances are read
+	 * without locking and creation just locks the key (not the repository).
+	 * How the instances are stored is up to the subclasses.
+	 */
+	private static abstract class KeyRepository
 			implements Repository {
 
-		private final Map<String, Object> instances = new HashMap<>();
+		private final ConcurrentMap<Object, Object> locks = new ConcurrentHashMap<>();
 		private final DependencyProperty property;
 
-		DependencyPropertyRepository( DependencyProperty injectionKey ) {
+		KeyRepository( DependencyProperty property ) {
 			super();
-			this.property = injectionKey;
+			this.property = property;
 		}
 
+		/**
+		 * @return the instance stored for the key or <code>null</code>
+		 */
+		abstract Object lookup( Object key );
+
+		abstract void store( Object key, Object instance );
+
 		@Override
 		@SuppressWarnings ( "unchecked" )
-		public <T> T serve(Dependency<? super T> dependency, InjectronInfo<T> info, Provider<T> provider) {
-			final String key = property.deriveFrom( dependency );
-			T instance = (T) instances.get( key );
+		public final <T> T serve(Dependency<? super T> dependency, InjectronInfo<T> info, Provider<T> provider) {
+			final Object key = property.deriveFrom( dependency );
+			T instance = (T) lookup( key );
 			if ( instance != null ) {
 				return instance;
 			}
-			synchronized ( instances ) {
-				instance = (T) instances.get( key );
-				if ( instance == null ) {
-					instance = provider.provide();
-					instances.put( key, instance );
+			// not computeIfAbsent: the provider might ask this repository again
+			Object lock = new Object();
+			Object existing = locks.putIfAbsent( key, lock );
+			if ( existing != null ) {
+				lock = existing;
+			}
+			try {
+				synchronized ( lock ) {
+					instance = (T) lookup( key );
+					if ( instance == null ) {
+						instance = provider.provide();
+						if ( instance != null ) {
+							store( key, instance );
+						}
+					}
+				}
+			} finally {
+				locks.remove( key, lock );
+			}
+			return instance;
+		}
+	}
+
+	private static final class DependencyPropertyRepository
+			extends KeyRepository {
+
+		private final ConcurrentMap<Object, Object> instances = new ConcurrentHashMap<>();
+
+		DependencyPropertyRepository( DependencyProperty property ) {
+			super( property );
+		}
+
+		@Override
+		Object lookup( Object key ) {
+			return instances.get( key );
+		}
+
+		@Override
+		void store( Object key, Object instance ) {
+			instances.put( key, instance );
+		}
+	}
+
+	/**
+	 * A {@link Scope} that only keeps a bounded number of instances or lets
+	 * the garbage collector remove them. Removed instances are created again
+	 * when needed.
+	 * 
+	 * @see Scoped#lru(DependencyProperty, int)
+	 * @see Scoped#softly(DependencyProperty)
+	 * @see Scoped#TARGET_CLASS
+	 */
+	public static final class BoundedScope
+			implements Scope {
+
+		private final String name;
+		private final Expiry expiry;
+		private final Supplier<BoundedRepository> factory;
+		private final List<WeakReference<BoundedRepository>> repositories = new CopyOnWriteArrayList<>();
+
+		BoundedScope( String name, Expiry expiry, Supplier<BoundedRepository> factory ) {
+			super();
+			this.name = name;
+			this.expiry = expiry;
+			this.factory = factory;
+		}
+
+		@Override
+		public Expiry expiry() {
+			return expiry;
+		}
+
+		@Override
+		public Repository init() {
+			BoundedRepository repository = factory.get();
+			repositories.removeIf( ref -> ref.get() == null );
+			repositories.add( new WeakReference<>( repository ) );
+			return repository;
+		}
+
+		/**
+		 * @return the number of instances currently kept in this scope (by all
+		 *         containers still in use)
+		 */
+		public int size() {
+			int size = 0;
+			for ( WeakReference<BoundedRepository> ref : repositories ) {
+				BoundedRepository repository = ref.get();
+				if ( repository != null ) {
+					size += repository.size();
+				}
+			}
+			return size;
+		}
+
+		/**
+		 * @return the number of instances that have been removed from this
+		 *         scope (by all containers still in use)
+		 */
+		public long evictions() {
+			long evictions = 0L;
+			for ( WeakReference<BoundedRepository> ref : repositories ) {
+				BoundedRepository repository = ref.get();
+				if ( repository != null ) {
+					evictions += repository.evictions();
+				}
+			}
+			return evictions;
+		}
+
+		@Override
+		public String toString() {
+			return "(per-" + name + ")";
+		}
+	}
+
+	private interface BoundedRepository
+			extends Repository {
+
+		int size();
+
+		long evictions();
+	}
+
+	/**
+	 * Approximates least recently used eviction with the CLOCK (second chance)
+	 * algorithm: a lookup just marks the entry as referenced. The keys are kept
+	 * in a ring of slots. When full the clock hand goes round the slots
+	 * clearing the marks until it finds an entry not referenced since the hand
+	 * passed it the last time, which is evicted. The hand continues from there
+	 * the next time.
+	 */
+	private static final class LruRepository
+			extends KeyRepository
+			implements BoundedRepository {
+
+		private final ConcurrentMap<Object, Referenced> instances = new ConcurrentHashMap<>();
+		private final Object[] slots;
+		private int size;
+		private int hand;
+		private final LongAdder evictions = new LongAdder();
+
+		LruRepository( DependencyProperty property, int maxSize ) {
+			super( property );
+			this.slots = new Object[maxSize];
+		}
+
+		@Override
+		Object lookup( Object key ) {
+			Referenced entry = instances.get( key );
+			if ( entry == null ) {
+				return null;
+			}
+			if ( !entry.referenced ) { // only write when needed
+				entry.referenced = true;
+			}
+			return entry.instance;
+		}
+
+		@Override
+		synchronized void store( Object key, Object instance ) {
+			if ( instances.put( key, new Referenced( instance ) ) != null ) {
+				return; // replaced, the key keeps its slot
+			}
+			int slot = size < slots.length
+				? size++
+				: evict();
+			slots[slot] = key;
+		}
+
+		/**
+		 * @return the slot that has been freed
+		 */
+		private int evict() {
+			while ( true ) {
+				int slot = hand;
+				hand = ( hand + 1 ) % slots.length;
+				Referenced entry = instances.get( slots[slot] );
+				if ( entry.referenced ) {
+					entry.referenced = false;
+				} else {
+					instances.remove( slots[slot] );
+					evictions.increment();
+					return slot;
+				}
+			}
+		}
+
+		@Override
+		public int size() {
+			return instances.size();
+		}
+
+		@Override
+		public long evictions() {
+			return evictions.sum();
+		}
+	}
+
+	private static final class Referenced {
+
+		final Object instance;
+		volatile boolean referenced;
+
+		Referenced( Object instance ) {
+			super();
+			this.instance = instance;
+		}
+	}
+
+	/**
+	 * Instances are just softly referenced so they are removed when memory
+	 * gets low.
+	 */
+	private static final class SoftRepository
+			extends KeyRepository
+			implements BoundedRepository {
+
+		private final ConcurrentMap<Object, SoftInstance> instances = new ConcurrentHashMap<>();
+		private final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+		private final LongAdder evictions = new LongAdder();
+
+		SoftRepository( DependencyProperty property ) {
+			super( property );
+		}
+
+		@Override
+		Object lookup( Object key ) {
+			SoftInstance instance = instances.get( key );
+			return instance == null ? null : instance.get();
+		}
+
+		@Override
+		void store( Object key, Object instance ) {
+			expunge();
+			instances.put( key, new SoftInstance( key, instance, collected ) );
+		}
+
+		private void expunge() {
+			Reference<?> ref = collected.poll();
+			while ( ref != null ) {
+				if ( instances.remove( ( (SoftInstance) ref ).key, ref ) ) {
+					evictions.increment();
+				}
+				ref = collected.poll();
+			}
+		}
+
+		@Override
+		public int size() {
+			expunge();
+			return instances.size();
+		}
+
+		@Override
+		public long evictions() {
+			expunge();
+			return evictions.sum();
+		}
+	}
+
+	private static final class SoftInstance
+			extends SoftReference<Object> {
+
+		final Object key;
+
+		SoftInstance( Object key, Object instance, ReferenceQueue<Object> queue ) {
+			super( instance, queue );
+			this.key = key;
+		}
+	}
+
+	/**
+	 * Keeps the instances per target class with the class (using a
+	 * {@link ClassValue}) so they do not keep the class from being unloaded.
+	 * The evictions are counted when the classes are collected.
+	 */
+	private static final class TargetClassRepository
+			extends ClassValue<TargetClassInstances>
+			implements BoundedRepository {
+
+		private final ReferenceQueue<Class<?>> collected = new ReferenceQueue<>();
+		private final Set<Reference<Class<?>>> targets = ConcurrentHashMap.newKeySet();
+		private final AtomicInteger size = new AtomicInteger();
+		private final LongAdder evictions = new LongAdder();
+
+		TargetClassRepository() {
+			super();
+		}
+
+		@Override
+		protected TargetClassInstances computeValue( Class<?> target ) {
+			expunge();
+			TargetClassInstances instances = new TargetClassInstances();
+			targets.add( new TargetClassReference( target, collected, instances.count ) );
+			return instances;
+		}
+
+		@Override
+		public <T> T serve(Dependency<? super T> dependency, InjectronInfo<T> info, Provider<T> provider) {
+			TargetClassInstances instances = get( dependency.target().type().rawType );
+			T instance = instances.get( info.serialID );
+			if ( instance == null ) {
+				synchronized ( instances ) {
+					instance = instances.get( info.serialID );
+					if ( instance == null ) {
+						instance = provider.provide();
+						if ( instance != null ) {
+							instances.put( info.serialID, instance );
+							instances.count.incrementAndGet();
+							size.incrementAndGet();
+						}
+					}
 				}
 			}
 			return instance;
 		}
 
+		private void expunge() {
+			Reference<?> ref = collected.poll();
+			while ( ref != null ) {
+				if ( targets.remove( ref ) ) {
+					int lost = ( (TargetClassReference) ref ).instances.get();
+					size.addAndGet( -lost );
+					evictions.add( lost );
+				}
+				ref = collected.poll();
+			}
+		}
+
+		@Override
+		public int size() {
+			expunge();
+			return size.get();
+		}
+
+		@Override
+		public long evictions() {
+			expunge();
+			return evictions.sum();
+		}
+	}
+
+	/**
+	 * The instances of one target class by serial ID. Written copy-on-write so
+	 * that reads do not need to lock.
+	 */
+	private static final class TargetClassInstances {
+
+		/**
+		 * Shared with the {@link TargetClassReference} to know how many
+		 * instances are lost when the class is collected.
+		 */
+		final AtomicInteger count = new AtomicInteger();
+		private volatile int[] serialIDs = new int[0];
+		private volatile Object[] instances = new Object[0];
+
+		TargetClassInstances() {
+			// make visible
+		}
+
+		@SuppressWarnings ( "unchecked" )
+		<T> T get( int serialID ) {
+			int[] serialIDs = this.serialIDs;
+			Object[] instances = this.instances;
+			for ( int i = 0; i < serialIDs.length && i < instances.length; i++ ) {
+				if ( serialIDs[i] == serialID ) {
+					return (T) instances[i];
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Only called while synchronised on this object.
+		 */
+		void put( int serialID, Object instance ) {
+			int n = serialIDs.length;
+			Object[] instances = Arrays.copyOf( this.instances, n + 1 );
+			instances[n] = instance;
+			int[] serialIDs = Arrays.copyOf( this.serialIDs, n + 1 );
+			serialIDs[n] = serialID;
+			this.instances = instances;
+			this.serialIDs = serialIDs;
+		}
+	}
+
+	private static final class TargetClassReference
+			extends WeakReference<Class<?>> {
+
+		final AtomicInteger instances;
+
+		TargetClassReference( Class<?> target, ReferenceQueue<Class<?>> queue, AtomicInteger instances ) {
+			super( target, queue );
+			this.instances = instances;
+		}
 	}
 
 	/**
@@ -341,12 +2069,20 @@ public final class Scoped {
 	 * updated. This can be used to create a thread, request or application
 	 * {@link Scope}.
 	 * 
+	 * Reading an instance that already exists does not lock. Creating an
+	 * instance just locks the slot of the {@link Injectron} so that instances
+	 * of unrelated {@link Injectron}s can be created concurrently. Cycles are
+	 * detected by the {@link Dependency} before the {@link Provider} is asked
+	 * again. Only a cycle between two threads both creating an instance that
+	 * is part of it at the same time can block instead.
+	 * 
 	 * @author Jan Bernitt (jan@jbee.se)
 	 */
 	private static final class LazyInjectronRepository
 			implements Repository {
 
-		private Object[] instances;
+		private volatile AtomicReferenceArray<Object> instances;
+		private volatile AtomicReferenceArray<Object> locks;
 
 		LazyInjectronRepository() {
 			super();
@@ -355,25 +2091,46 @@ public final class Scoped {
 		@Override
 		@SuppressWarnings ( "unchecked" )
 		public <T> T serve(Dependency<? super T> dependency, InjectronInfo<T> info, Provider<T> provider) {
+			AtomicReferenceArray<Object> instances = this.instances;
 			if ( instances == null ) {
-				instances = new Object[info.count];
+				instances = init( info.count );
 			}
 			final int serialID = info.serialID;
-			T res = (T) instances[serialID];
+			T res = (T) instances.get( serialID );
 			if ( res != null ) {
 				return res;
 			}
-			// just sync the (later) unexpected path that is executed once
-			synchronized ( instances ) {
-				res = (T) instances[serialID];
+			// just sync the (later) unexpected path that is executed once per slot
+			Object lock = lock( serialID );
+			synchronized ( lock ) {
+				res = (T) instances.get( serialID );
 				if ( res == null ) { // we need to ask again since the instance could have been initialized before we got entrance to the sync block
 					res = provider.provide();
-					instances[serialID] = res;
+					instances.set( serialID, res );
+					locks.compareAndSet( serialID, lock, null ); // no longer needed
 				}
 			}
 			return res;
 		}
 
+		private synchronized AtomicReferenceArray<Object> init( int count ) {
+			if ( instances == null ) {
+				locks = new AtomicReferenceArray<>( count );
+				instances = new AtomicReferenceArray<>( count );
+			}
+			return instances;
+		}
+
+		private Object lock( int serialID ) {
+			Object lock = locks.get( serialID );
+			if ( lock != null ) {
+				return lock;
+			}
+			Object created = new Object();
+			return locks.compareAndSet( serialID, null, created )
+				? created
+				: lock( serialID );
+		}
 	}
 
 }
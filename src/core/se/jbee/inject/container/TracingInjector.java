@@ -0,0 +1,283 @@
+/*
+ *  Copyright (c) 2012-2017, Jan Bernitt
+ *
+ *  Licensed under the Apache License, Version 2.0, http://www.apache.org/licenses/LICENSE-2.0
+ */
+package se.jbee.inject.container;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import se.jbee.inject.Dependency;
+import se.jbee.inject.Injector;
+import se.jbee.inject.Injectron;
+import se.jbee.inject.UnresolvableDependency;
+
+/**
+ * An {@link Injector} decorator that samples resolutions. For a sampled
+ * resolution the tree of all nested {@link Injectron}s asked for an instance
+ * is recorded with the time spent matching each and the time spent supplying
+ * the instance. Nested resolutions are recorded if the decorated container
+ * was created with {@link Inject#container(Assembly...)}. Other containers
+ * are not affected by the tracing.
+ *
+ * The most recent samples are kept in a ring buffer and can be dumped as
+ * folded stacks (the input format of flame graph tools).
+ *
+ * While sampling is switched off a resolution costs a single branch. When on
+ * each thread counts its own resolutions to decide which to sample.
+ *
+ * @author Jan Bernitt (jan@jbee.se)
+ */
+public final class TracingInjector
+		implements Injector {
+
+	private static final long OFF = -1L;
+
+	private final Injector delegate;
+	/**
+	 * The traces of the delegate, shared with it if it records nested
+	 * resolutions.
+	 */
+	private final Tracing tracing;
+	private final AtomicReferenceArray<Frame> samples;
+	private final AtomicLong sampled = new AtomicLong();
+	private final ThreadLocal<long[]> calls = ThreadLocal.withInitial( () -> new long[1] );
+	private volatile long mask = OFF;
+
+	TracingInjector( Injector delegate, int capacity, Tracing tracing ) {
+		super();
+		this.delegate = delegate;
+		this.tracing = tracing == null ? new Tracing() : tracing;
+		this.samples = new AtomicReferenceArray<>( capacity );
+	}
+
+	/**
+	 * @param n
+	 *            every n-th resolution is sampled, n is rounded up to the next
+	 *            power of 2. Zero or less switches sampling off.
+	 */
+	public void sampleEvery( int n ) {
+		if ( n <= 0 ) {
+			mask = OFF;
+		} else {
+			long period = n == 1 ? 1L : Long.highestOneBit( n - 1L ) << 1;
+			mask = period - 1L;
+		}
+	}
+
+	@Override
+	public <T> T resolve( Dependency<T> dependency ) throws UnresolvableDependency {
+		final long mask = this.mask;
+		if ( mask == OFF || ( ++calls.get()[0] & mask ) != 0L ) {
+			return delegate.resolve( dependency );
+		}
+		return sample( dependency );
+	}
+
+	private <T> T sample( Dependency<T> dependency ) {
+		if ( tracing.current.get() != null ) { // already within a sample
+			return delegate.resolve( dependency );
+		}
+		Trace trace = new Trace( dependency );
+		tracing.current.set( trace );
+		tracing.active.incrementAndGet();
+		try {
+			return delegate.resolve( dependency );
+		} finally {
+			tracing.active.decrementAndGet();
+			tracing.current.remove();
+			trace.exit( trace.root );
+			samples.set( (int) ( sampled.getAndIncrement() % samples.length() ), trace.root );
+		}
+	}
+
+	/**
+	 * @return the root {@link Frame}s of the samples currently in the ring
+	 *         buffer, oldest first. A root stands for the sampled
+	 *         {@link #resolve(Dependency)} call itself. Its children are the
+	 *         {@link Injectron}s asked by it.
+	 */
+	public List<Frame> samples() {
+		long end = sampled.get();
+		long start = Math.max( 0L, end - samples.length() );
+		List<Frame> res = new ArrayList<>();
+		for ( long i = start; i < end; i++ ) {
+			Frame root = samples.get( (int) ( i % samples.length() ) );
+			if ( root != null ) {
+				res.add( root );
+			}
+		}
+		return res;
+	}
+
+	public void clear() {
+		for ( int i = 0; i < samples.length(); i++ ) {
+			samples.set( i, null );
+		}
+	}
+
+	/**
+	 * @return the samples as folded stacks, one line per distinct stack with
+	 *         its self time in nanoseconds. The time spent matching is shown
+	 *         as a <code>[match]</code> frame on top of the matched frame.
+	 */
+	public String flameGraph() {
+		Map<String, Long> stacks = new TreeMap<>();
+		for ( Frame root : samples() ) {
+			fold( root, "", stacks );
+		}
+		StringBuilder b = new StringBuilder();
+		for ( Map.Entry<String, Long> stack : stacks.entrySet() ) {
+			b.append( stack.getKey() ).append( ' ' ).append( stack.getValue() ).append( '\n' );
+		}
+		return b.toString();
+	}
+
+	private static void fold( Frame frame, String parent, Map<String, Long> stacks ) {
+		String stack = parent.isEmpty()
+			? frame.label()
+			: parent + ";" + frame.label();
+		long self = frame.supplyNanos;
+		for ( Frame child : frame.children ) {
+			self -= child.matchNanos + child.supplyNanos;
+			fold( child, stack, stacks );
+		}
+		if ( frame.injectron != null ) {
+			stacks.merge( stack + ";[match]", frame.matchNanos, Long::sum );
+		}
+		stacks.merge( stack, Math.max( 0L, self ), Long::sum );
+	}
+
+	@Override
+	public String toString() {
+		return "tracing " + delegate;
+	}
+
+	/**
+	 * A single resolution within a sample.
+	 */
+	public static final class Frame {
+
+		public final Dependency<?> dependency;
+		private final Injectron<?> injectron;
+		private final long matchNanos;
+		long supplyNanos;
+		final Frame parent;
+		final List<Frame> children = new ArrayList<>( 2 );
+		final long start = System.nanoTime();
+
+		Frame( Frame parent, Injectron<?> injectron, Dependency<?> dependency, long matchNanos ) {
+			super();
+			this.parent = parent;
+			this.injectron = injectron;
+			this.dependency = dependency;
+			this.matchNanos = matchNanos;
+		}
+
+		/**
+		 * @return the {@link Injectron} asked or <code>null</code> for the
+		 *         root of a sample
+		 */
+		public Injectron<?> injectron() {
+			return injectron;
+		}
+
+		/**
+		 * @return the time it took to find the {@link Injectron}, 0 if it was
+		 *         already known (e.g. for parameters of a constructor)
+		 */
+		public long matchNanos() {
+			return matchNanos;
+		}
+
+		public long supplyNanos() {
+			return supplyNanos;
+		}
+
+		public int depth() {
+			return dependency.injectionDepth();
+		}
+
+		public List<Frame> children() {
+			return Collections.unmodifiableList( children );
+		}
+
+		public String label() {
+			String label = injectron == null
+				? "resolve " + dependency.instance
+				: injectron.info().resource.toString();
+			return label.replace( ';', ',' ).replace( '\n', ' ' );
+		}
+
+		@Override
+		public String toString() {
+			return label() + " " + matchNanos + "ns + " + supplyNanos + "ns";
+		}
+	}
+
+	/**
+	 * The {@link Trace}s recorded for a single container so that the traces of
+	 * nested containers do not mix.
+	 */
+	static final class Tracing {
+
+		/**
+		 * Number of threads currently recording a trace. The container checks
+		 * this before looking for the {@link Trace} of the current thread.
+		 */
+		final AtomicInteger active = new AtomicInteger();
+		final ThreadLocal<Trace> current = new ThreadLocal<>();
+
+		/**
+		 * @return the {@link Trace} recorded by the current thread or null
+		 */
+		Trace current() {
+			return active.get() > 0 ? current.get() : null;
+		}
+	}
+
+	/**
+	 * The frames recorded by the current thread while a resolution is sampled.
+	 */
+	static final class Trace {
+
+		final Frame root;
+		private Frame top;
+		private long matchNanos;
+
+		Trace( Dependency<?> resolved ) {
+			super();
+			this.root = new Frame( null, null, resolved, 0L );
+			this.top = root;
+		}
+
+		/**
+		 * The time it took to match the {@link Injectron} that will
+		 * {@link #enter(Injectron, Dependency)} next. Zero if no
+		 * {@link Injectron} was matched.
+		 */
+		void matched( long nanos ) {
+			matchNanos = nanos;
+		}
+
+		Frame enter( Injectron<?> injectron, Dependency<?> dependency ) {
+			Frame frame = new Frame( top, injectron, dependency, matchNanos );
+			matchNanos = 0L;
+			top.children.add( frame );
+			top = frame;
+			return frame;
+		}
+
+		void exit( Frame frame ) {
+			frame.supplyNanos = System.nanoTime() - frame.start;
+			top = frame.parent;
+		}
+	}
+}
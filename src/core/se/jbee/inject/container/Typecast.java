@@ -60,6 +60,15 @@ public final class Typecast {
 		return (Type) raw( Provider.class ).parametized( providedType );
 	}
 
+	public static <T> Type<Lease<T>> leaseTypeOf( Class<T> leasedType ) {
+		return leaseTypeOf( raw( leasedType ) );
+	}
+
+	@SuppressWarnings ( { "unchecked", "rawtypes" } )
+	public static <T> Type<Lease<T>> leaseTypeOf( Type<T> leasedType ) {
+		return (Type) raw( Lease.class ).parametized( leasedType );
+	}
+
 	public static <T> Type<Factory<T>> factoryTypeOf( Class<T> providedType ) {
 		return factoryTypeOf( raw( providedType ) );
 	}
@@ -1,5 +1,6 @@
 package se.jbee.inject;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static se.jbee.inject.Name.named;
 
@@ -46,4 +47,32 @@ public class TestName {
 	public void anyShouldBeCompatibleToWhateverName() {
 		assertTrue( Name.ANY.isCompatibleWith( named( "foo" ) ) );
 	}
+
+	@Test
+	public void wildcardFollowedByEndOfNameShouldBeCompatible() {
+		assertTrue( named( "foobar" ).isCompatibleWith( named( "*bar" ) ) );
+		assertFalse( named( "foobar" ).isCompatibleWith( named( "*foo" ) ) );
+	}
+
+	@Test
+	public void wildcardsInTheMiddleShouldMatchAnySequence() {
+		assertTrue( named( "foo:bar:baz" ).isCompatibleWith( named( "foo:*:baz" ) ) );
+		assertTrue( named( "foo::baz" ).isCompatibleWith( named( "foo:*:baz" ) ) );
+		assertTrue( named( "foo:bar:baz" ).isCompatibleWith( named( "f*r*z" ) ) );
+		assertFalse( named( "foo:baz" ).isCompatibleWith( named( "foo:*:baz" ) ) );
+		assertFalse( named( "foobaz" ).isCompatibleWith( named( "foo*oba*" ) ) );
+	}
+
+	@Test
+	public void differentNamesShouldNotBeCompatible() {
+		assertFalse( named( "foo" ).isCompatibleWith( named( "bar" ) ) );
+		assertFalse( named( "foo" ).isCompatibleWith( named( "bar*" ) ) );
+		assertFalse( named( "foo" ).isCompatibleWith( named( "fooo*" ) ) );
+	}
+
+	@Test
+	public void dotsInNamesAreNoWildcards() {
+		assertTrue( named( "se.jbee:foo" ).isCompatibleWith( named( "se.jbee:*" ) ) );
+		assertFalse( named( "sexjbee:foo" ).isCompatibleWith( named( "se.jbee:*" ) ) );
+	}
 }
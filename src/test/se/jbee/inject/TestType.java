@@ -2,11 +2,14 @@ package se.jbee.inject;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static se.jbee.inject.Type.raw;
 
 import java.io.Serializable;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Field;
 import java.util.AbstractCollection;
 import java.util.AbstractList;
@@ -294,6 +297,75 @@ public class TestType {
 				raw( List.class ).parametized( Number.class ).parametizedAsUpperBounds() );
 	}
 
+	@Test
+	public void thatSupertypesAreNotAffectedByModificationOfAPreviousResult() {
+		Type<List> stringList = raw( List.class ).parametized( String.class );
+		Type<? super List>[] supertypes = stringList.supertypes();
+		Arrays.fill( supertypes, null );
+		assertContains( stringList.supertypes(), raw( Collection.class ).parametized( String.class ) );
+	}
+
+	@Test
+	public void thatRepeatedAssignabilityChecksHaveSameResult() {
+		Type<List> stringList = raw( List.class ).parametized( String.class );
+		Type<List> integerList = raw( List.class ).parametized( Integer.class );
+		Type<Collection> stringCollection = raw( Collection.class ).parametized( String.class );
+		for ( int i = 0; i < 3; i++ ) {
+			assertTrue( stringList.isAssignableTo( stringCollection ) );
+			assertFalse( integerList.isAssignableTo( stringCollection ) );
+		}
+	}
+
+	@Test
+	public void thatEqualTypesAreIdentical() {
+		assertSame( raw( List.class ), raw( List.class ) );
+		assertSame( raw( int.class ), raw( Integer.class ) );
+		assertSame( raw( List.class ).parametized( String.class ), raw( List.class ).parametized( String.class ) );
+		assertSame( raw( List.class ).parametized( String.class ).asUpperBound(),
+				raw( List.class ).asUpperBound().parametized( String.class ) );
+		assertSame( raw( String.class ).addArrayDimension(), raw( String[].class ) );
+		assertSame( raw( Comparable.class ).parametized( Integer.class ),
+				Type.supertype( Comparable.class, raw( Integer.class ) ) );
+	}
+
+	@Test
+	public void thatHashCodeCoversTypeParameters() {
+		assertFalse( raw( List.class ).parametized( String.class ).hashCode() 
+				== raw( List.class ).parametized( Integer.class ).hashCode() );
+		assertFalse( raw( List.class ).hashCode() == raw( List.class ).asUpperBound().hashCode() );
+	}
+
+	private static final class Unreferenced {
+		// used as type parameter that is not referenced elsewhere
+	}
+
+	@Test
+	public void thatCanonicalTypesNoLongerReferencedAreReleased() throws InterruptedException {
+		WeakReference<Type<?>> ref = new WeakReference<>( raw( List.class ).parametized( Unreferenced.class ) );
+		for ( int i = 0; i < 50 && ref.get() != null; i++ ) {
+			System.gc();
+			Thread.sleep( 10 );
+		}
+		assertNull( ref.get() );
+		assertSame( raw( List.class ).parametized( Unreferenced.class ),
+				raw( List.class ).parametized( Unreferenced.class ) );
+	}
+
+	@Test
+	public void thatCanonicalTypesStayCanonicalWhenTheirTableGrows() {
+		List<Type<?>> types = new ArrayList<>();
+		Type<?> nested = raw( String.class );
+		for ( int i = 0; i < 100; i++ ) {
+			nested = raw( List.class ).parametized( nested );
+			types.add( nested );
+		}
+		Type<?> expected = raw( String.class );
+		for ( Type<?> type : types ) {
+			expected = raw( List.class ).parametized( expected );
+			assertSame( type, expected );
+		}
+	}
+
 	private static void assertContains( Type<?>[] actual, Type<?> expected ) {
 		for ( Type<?> type : actual ) {
 			if ( type.equalTo( expected ) ) {
@@ -3,14 +3,18 @@ package se.jbee.inject.action;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static se.jbee.inject.Type.raw;
 import static se.jbee.inject.action.ActionModule.actionDependency;
 
+import java.lang.reflect.Method;
+
 import org.junit.Test;
 
 import se.jbee.inject.Dependency;
 import se.jbee.inject.Injector;
+import se.jbee.inject.Type;
 import se.jbee.inject.UnresolvableDependency.SupplyFailed;
 import se.jbee.inject.bootstrap.Bootstrap;
 
@@ -27,6 +31,32 @@ public class TestActionBinds {
 
 	}
 
+	private static class CustomExecutorActionBindsModule
+			extends ActionModule {
+
+		@Override
+		protected void declare() {
+			bindActionsIn( MyService.class );
+			bind( Executor.class ).to( CountingExecutor.class );
+		}
+
+	}
+
+	static class CountingExecutor implements Executor {
+
+		int calls;
+
+		@Override
+		public <I, O> O exec( Object impl, Method action, Object[] args, Type<O> output, Type<I> input, I value ) {
+			calls++;
+			try {
+				return output.rawType.cast( action.invoke( impl, args ) );
+			} catch ( Exception e ) {
+				throw new ActionMalfunction( "Exception on invocation of the action", e );
+			}
+		}
+	}
+
 	static class MyService {
 
 		public Integer negate( Number value ) {
@@ -75,4 +105,37 @@ public class TestActionBinds {
 			assertSame(IllegalStateException.class, e.getCause().getClass());
 		}
 	}
+
+	@Test
+	public void customExecutorsAreUsedToInvokeActions() {
+		Injector injector = Bootstrap.injector( CustomExecutorActionBindsModule.class );
+		Action<Number, Integer> negate = injector.resolve( actionDependency(raw(Number.class), raw(Integer.class)) );
+		assertEquals( -3, negate.exec( 3 ).intValue() );
+		assertEquals( -5, negate.exec( 5 ).intValue() );
+		CountingExecutor executor = (CountingExecutor) injector.resolve( Dependency.dependency( Executor.class ) );
+		assertEquals( 2, executor.calls );
+	}
+
+	@Test
+	public void actionsWithStaticArgumentsCanBeExecutedConcurrently() throws InterruptedException {
+		Injector injector = Bootstrap.injector( ActionBindsModule.class );
+		Action<Number, Integer> negate = injector.resolve( actionDependency(raw(Number.class), raw(Integer.class)) );
+		boolean[] correct = new boolean[4];
+		Thread[] threads = new Thread[correct.length];
+		for ( int i = 0; i < threads.length; i++ ) {
+			final int n = i;
+			threads[i] = new Thread( () -> {
+				boolean ok = true;
+				for ( int j = 0; j < 10000; j++ ) {
+					ok &= negate.exec( n * j ) == -n * j;
+				}
+				correct[n] = ok;
+			} );
+			threads[i].start();
+		}
+		for ( int i = 0; i < threads.length; i++ ) {
+			threads[i].join();
+			assertTrue( correct[i] );
+		}
+	}
 }
@@ -17,7 +17,11 @@ import org.junit.runners.Suite.SuiteClasses;
 		TestPrimitiveArrayBinds.class, TestMultipleOptionChoicesBinds.class, TestMacroBinds.class,
 		TestBootstrapper.class, TestLinker.class, TestIssue1.class, TestDecoratorBinds.class, 
 		TestBinderModule.class, TestExample1Binds.class, TestPluginBinds.class, TestMockingBinds.class, 
-		TestLambdaBinds.class, TestInitialiserBinds.class, TestEditionPackageBinds.class } )
+		TestLambdaBinds.class, TestInitialiserBinds.class, TestEditionPackageBinds.class,
+		TestResolutionCacheBinds.class, TestArrayBinds.class, TestMethodHandleBinds.class,
+		TestPrecompileBinds.class, TestSnapshotBinds.class, TestWarmupBinds.class, TestLeaseBinds.class,
+		TestRequestScopeBinds.class, TestContainerStatsBinds.class, TestTracingBinds.class,
+		TestFlightEventBinds.class, TestBootstrapReportBinds.class, TestAsyncInitialiserBinds.class } )
 public class SuiteBind {
 	// all tests in the bind package
 }
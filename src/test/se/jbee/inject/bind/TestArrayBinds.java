@@ -69,6 +69,17 @@ public class TestArrayBinds {
 		}
 	}
 	
+	static class UpperBoundArrayBindsModule extends BinderModule {
+
+		@Override
+		protected void declare() {
+			bind(Integer.class).to(1);
+			bind(Long.class).to(2L);
+			bind(named("x"), Float.class).to(3f);
+			bind(String.class).to("4");
+		}
+	}
+
 	private final Injector injector = Bootstrap.injector(ArrayBindsModule.class);
 	
 	@Test
@@ -97,4 +108,15 @@ public class TestArrayBinds {
 		assertEquals(3, cmd6.preconds.length);
 		assertEqualSets(new Number[] {4,5,6}, cmd6.preconds);
 	}
+
+	@Test
+	public void thatUpperBoundArraysContainAllBoundSubtypes() {
+		Injector injector = Bootstrap.injector(UpperBoundArrayBindsModule.class);
+		Number[] numbers = injector.resolve(dependency(raw(Number[].class).asUpperBound()));
+		assertEqualSets(new Number[] {1, 2L, 3f}, numbers);
+		@SuppressWarnings("rawtypes")
+		Comparable[] comparables = injector.resolve(dependency(raw(Comparable[].class).asUpperBound()));
+		assertEqualSets(new Comparable<?>[] {1, 2L, 3f, "4"}, comparables);
+		assertEquals(0, injector.resolve(dependency(raw(Runnable[].class).asUpperBound())).length);
+	}
 }
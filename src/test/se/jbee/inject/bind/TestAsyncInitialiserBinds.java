@@ -0,0 +1,229 @@
+package se.jbee.inject.bind;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static se.jbee.inject.Dependency.dependency;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import se.jbee.inject.InconsistentBinding;
+import se.jbee.inject.Initialiser;
+import se.jbee.inject.Injector;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.container.Readiness;
+
+/**
+ * Checks that async {@link Initialiser}s do not block the creation of the
+ * {@link Injector}, that their completion is visible through the container's
+ * {@link Readiness} and that initialisers depending on each other run in
+ * order.
+ */
+public class TestAsyncInitialiserBinds {
+
+	static class SlowInitialiser implements Initialiser {
+
+		final CountDownLatch release = new CountDownLatch( 1 );
+
+		@Override
+		public void init( Injector context ) {
+			try {
+				release.await();
+			} catch ( InterruptedException e ) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		@Override
+		public boolean isAsync() {
+			return true;
+		}
+	}
+
+	static class FastInitialiser implements Initialiser {
+
+		volatile boolean done;
+
+		@Override
+		public void init( Injector context ) {
+			done = true;
+		}
+	}
+
+	static final class AsyncInitialiserBindsModule extends BinderModule {
+
+		static final SlowInitialiser SLOW = new SlowInitialiser();
+		static final FastInitialiser FAST = new FastInitialiser();
+
+		@Override
+		protected void declare() {
+			initbind().to( SLOW );
+			initbind().to( FAST );
+			injectingInto( Initialiser.class ).bind( Executor.class ).to( (Executor) r -> new Thread( r ).start() );
+		}
+	}
+
+	static final List<String> ORDER = new CopyOnWriteArrayList<>();
+
+	static class A implements Initialiser {
+
+		@Override
+		public void init( Injector context ) {
+			try {
+				Thread.sleep( 20 );
+			} catch ( InterruptedException e ) {
+				Thread.currentThread().interrupt();
+			}
+			ORDER.add( "a" );
+		}
+
+		@Override
+		public boolean isAsync() {
+			return true;
+		}
+	}
+
+	static class B implements Initialiser {
+
+		@Override
+		public void init( Injector context ) {
+			ORDER.add( "b" );
+		}
+
+		@Override
+		public boolean isAsync() {
+			return true;
+		}
+
+		@Override
+		public Class<?>[] after() {
+			return new Class<?>[] { A.class };
+		}
+	}
+
+	static class C implements Initialiser {
+
+		@Override
+		public void init( Injector context ) {
+			ORDER.add( "c" );
+		}
+
+		@Override
+		public Class<?>[] after() {
+			return new Class<?>[] { B.class };
+		}
+	}
+
+	static final class OrderedInitialiserBindsModule extends BinderModule {
+
+		@Override
+		protected void declare() {
+			initbind().to( new C() );
+			initbind().to( new B() );
+			initbind().to( new A() );
+		}
+	}
+
+	static class D implements Initialiser {
+
+		@Override
+		public void init( Injector context ) {
+			// never called
+		}
+
+		@Override
+		public Class<?>[] after() {
+			return new Class<?>[] { E.class };
+		}
+	}
+
+	static class E implements Initialiser {
+
+		@Override
+		public void init( Injector context ) {
+			// never called
+		}
+
+		@Override
+		public Class<?>[] after() {
+			return new Class<?>[] { D.class };
+		}
+	}
+
+	static final class CyclicInitialiserBindsModule extends BinderModule {
+
+		@Override
+		protected void declare() {
+			initbind().to( new D() );
+			initbind().to( new E() );
+		}
+	}
+
+	static class ThreadInitialiser implements Initialiser {
+
+		volatile Thread thread;
+
+		@Override
+		public void init( Injector context ) {
+			thread = Thread.currentThread();
+		}
+
+		@Override
+		public boolean isAsync() {
+			return true;
+		}
+	}
+
+	static final class DefaultExecutorBindsModule extends BinderModule {
+
+		static final ThreadInitialiser INITIALISER = new ThreadInitialiser();
+
+		@Override
+		protected void declare() {
+			initbind().to( INITIALISER );
+		}
+	}
+
+	@Test
+	public void thatAsyncInitialisersDoNotBlockInjectorCreation() throws Exception {
+		Injector injector = Bootstrap.injector( AsyncInitialiserBindsModule.class );
+		Readiness readiness = injector.resolve( dependency( Readiness.class ) );
+		assertTrue( AsyncInitialiserBindsModule.FAST.done );
+		assertTrue( readiness.of( FastInitialiser.class ).isDone() );
+		assertFalse( readiness.of( SlowInitialiser.class ).isDone() );
+		assertFalse( readiness.isReady() );
+		AsyncInitialiserBindsModule.SLOW.release.countDown();
+		readiness.all().get( 5, TimeUnit.SECONDS );
+		assertTrue( readiness.isReady() );
+	}
+
+	@Test
+	public void thatInitialisersRunAfterThoseTheyDependUpon() throws Exception {
+		ORDER.clear();
+		Injector injector = Bootstrap.injector( OrderedInitialiserBindsModule.class );
+		// C is not async but depends on B that depends on A so the injector waits for both
+		assertEquals( asList( "a", "b", "c" ), ORDER );
+		assertTrue( injector.resolve( dependency( Readiness.class ) ).isReady() );
+	}
+
+	@Test
+	public void thatAsyncInitialisersRunOnDaemonThreadsOfTheContainerByDefault() throws Exception {
+		Injector injector = Bootstrap.injector( DefaultExecutorBindsModule.class );
+		injector.resolve( dependency( Readiness.class ) ).all().get( 5, TimeUnit.SECONDS );
+		Thread thread = DefaultExecutorBindsModule.INITIALISER.thread;
+		assertTrue( thread.isDaemon() );
+		assertTrue( thread.getName(), thread.getName().startsWith( "initialiser-" ) );
+	}
+
+	@Test ( expected = InconsistentBinding.class )
+	public void thatInitialisersDependingOnEachOtherInACycleAreDetected() {
+		Bootstrap.injector( CyclicInitialiserBindsModule.class );
+	}
+}
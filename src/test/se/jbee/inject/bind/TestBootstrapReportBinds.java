@@ -0,0 +1,114 @@
+package se.jbee.inject.bind;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static se.jbee.inject.Dependency.dependency;
+import static se.jbee.inject.Type.raw;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import se.jbee.inject.Injector;
+import se.jbee.inject.Type;
+import se.jbee.inject.bootstrap.Bindings;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.bootstrap.BootstrapReport;
+import se.jbee.inject.bootstrap.BootstrapReport.Entry;
+import se.jbee.inject.bootstrap.BootstrapReport.Step;
+import se.jbee.inject.bootstrap.BootstrapperBundle;
+import se.jbee.inject.bootstrap.Inspect;
+import se.jbee.inject.bootstrap.Macros;
+import se.jbee.inject.bootstrap.Module;
+import se.jbee.inject.config.Globals;
+
+/**
+ * Checks that a {@link BootstrapReport} times the bundles, modules, macros and
+ * container steps of a bootstrapping and can be resolved afterwards.
+ */
+public class TestBootstrapReportBinds {
+
+	private static class BootstrapReportBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			bind( String.class ).to( "report" );
+			autobind( Integer.class ).to( 42 );
+		}
+	}
+
+	private static class BootstrapReportBindsBundle
+			extends BootstrapperBundle {
+
+		@Override
+		protected void bootstrap() {
+			install( BootstrapReportBindsModule.class );
+		}
+	}
+
+	private static class BootstrapReportBindsRootBundle
+			extends BootstrapperBundle {
+
+		@Override
+		protected void bootstrap() {
+			install( BootstrapReportBindsBundle.class );
+		}
+	}
+
+	private final BootstrapReport report = new BootstrapReport();
+	private final Injector injector = Bootstrap.injector( BootstrapReportBindsRootBundle.class, Globals.STANDARD,
+			report );
+
+	@Test
+	public void thatReportCanBeResolvedFromInjector() {
+		assertSame( report, injector.resolve( dependency( BootstrapReport.class ) ) );
+	}
+
+	@Test
+	public void thatReportIsNotAddedToTheBindingsGiven() {
+		BootstrapReport report = new BootstrapReport();
+		Bindings bindings = Bindings.bindings( Macros.DEFAULT, Inspect.DEFAULT ).reportingTo( report );
+		Injector injector = Bootstrap.injector( bindings, new Module[0] );
+		assertSame( report, injector.resolve( dependency( BootstrapReport.class ) ) );
+		assertEquals( 0, bindings.declareFrom().length );
+	}
+
+	@Test
+	public void thatEachBundleIsTimedOnce() {
+		assertEquals( 1, report.entry( Step.BUNDLE, BootstrapReportBindsRootBundle.class ).calls() );
+		assertEquals( 1, report.entry( Step.BUNDLE, BootstrapReportBindsBundle.class ).calls() );
+	}
+
+	@Test
+	public void thatModuleBindingsIncludeAutomaticallyBoundSupertypes() {
+		int supertypes = 0;
+		for ( Type<?> supertype : raw( Integer.class ).supertypes() ) {
+			if ( supertype.rawType != Object.class ) {
+				supertypes++;
+			}
+		}
+		assertEquals( 2 + supertypes, report.entry( Step.MODULE, BootstrapReportBindsModule.class ).bindings() );
+		assertNotNull( report.entry( Step.MACRO, "Macros$AutoInheritanceMacro" ) );
+	}
+
+	@Test
+	public void thatDisambiguationAndContainerStepsAreTimed() {
+		assertEquals( 1, report.entry( Step.DISAMBIGUATE, "Binding.disambiguate" ).calls() );
+		assertNotNull( report.entry( Step.CONTAINER, "sort" ) );
+		assertNotNull( report.entry( Step.CONTAINER, "group" ) );
+	}
+
+	@Test
+	public void thatReportIsSortedByTimeAndPrintedAsTable() {
+		List<Entry> entries = report.entries();
+		for ( int i = 1; i < entries.size(); i++ ) {
+			assertTrue( entries.get( i - 1 ).nanos() >= entries.get( i ).nanos() );
+		}
+		String table = report.toString();
+		assertTrue( table.contains( "TestBootstrapReportBinds$BootstrapReportBindsModule" ) );
+		assertEquals( entries.size() + 2, table.split( "\n" ).length );
+	}
+}
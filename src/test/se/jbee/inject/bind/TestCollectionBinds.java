@@ -3,6 +3,9 @@ package se.jbee.inject.bind;
 import static java.util.Arrays.asList;
 import static java.util.Collections.singleton;
 import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static se.jbee.inject.Dependency.dependency;
 import static se.jbee.inject.Name.named;
 import static se.jbee.inject.Type.raw;
 import static se.jbee.inject.container.Typecast.collectionTypeOf;
@@ -20,6 +23,8 @@ import se.jbee.inject.Injector;
 import se.jbee.inject.Type;
 import se.jbee.inject.bootstrap.Bootstrap;
 import se.jbee.inject.bootstrap.BootstrapperBundle;
+import se.jbee.inject.bootstrap.Supply;
+import se.jbee.inject.container.Scoped;
 import se.jbee.inject.container.Typecast;
 
 public class TestCollectionBinds {
@@ -38,6 +43,22 @@ public class TestCollectionBinds {
 
 	}
 
+	static class Fresh {
+		// created for each injection
+	}
+
+	private static class PerInjectionBridgeModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			per( Scoped.INJECTION ).starbind( List.class ).to( Supply.LIST_BRIDGE );
+			per( Scoped.INJECTION ).starbind( Set.class ).to( Supply.SET_BRIDGE );
+			per( Scoped.INJECTION ).bind( Fresh.class ).toConstructor();
+			bind( String.class ).to( "foobar" );
+		}
+	}
+
 	private static class CollectionBindsBundle
 			extends BootstrapperBundle {
 
@@ -74,6 +95,33 @@ public class TestCollectionBinds {
 		ai.assertInjects( asList(42, 846), listTypeOf( Integer.class ) );
 	}
 
+	@Test(expected = UnsupportedOperationException.class)
+	public void thatBridgedListIsUnmodifiable() {
+		injector.resolve( dependency( listTypeOf( String.class ) ) ).add( "baz" );
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void thatBridgedSetIsUnmodifiable() {
+		injector.resolve( dependency( setTypeOf( String.class ) ) ).add( "baz" );
+	}
+
+	@Test
+	public void thatBridgedCollectionsOfPerInjectionInstancesAreModifiable() {
+		Injector injector = Bootstrap.injector( PerInjectionBridgeModule.class );
+		List<Fresh> list = injector.resolve( dependency( listTypeOf( Fresh.class ) ) );
+		list.set( 0, new Fresh() );
+		assertTrue( injector.resolve( dependency( setTypeOf( Fresh.class ) ) ).add( new Fresh() ) );
+	}
+
+	@Test
+	public void thatBridgedCollectionsOfConstantsAreSharedPerInjection() {
+		Injector injector = Bootstrap.injector( PerInjectionBridgeModule.class );
+		List<String> list = injector.resolve( dependency( listTypeOf( String.class ) ) );
+		assertSame( list, injector.resolve( dependency( listTypeOf( String.class ) ) ) );
+		Set<String> set = injector.resolve( dependency( setTypeOf( String.class ) ) );
+		assertSame( set, injector.resolve( dependency( setTypeOf( String.class ) ) ) );
+	}
+
 	@Test
 	public void thatSetIsAvailableForBoundType() {
 		ai.assertInjects( singleton( "foobar" ), setTypeOf( String.class ) );
@@ -0,0 +1,74 @@
+package se.jbee.inject.bind;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static se.jbee.inject.Dependency.dependency;
+import static se.jbee.inject.container.Typecast.injectronTypeOf;
+
+import org.junit.Test;
+
+import se.jbee.inject.Injector;
+import se.jbee.inject.InjectronInfo;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.container.ContainerStats;
+import se.jbee.inject.container.ContainerStats.InjectronStats;
+import se.jbee.inject.container.Scoped;
+
+/**
+ * Checks that the {@link ContainerStats} of a container tell apart served and
+ * created instances.
+ */
+public class TestContainerStatsBinds {
+
+	private static class ContainerStatsBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			per( Scoped.APPLICATION ).construct( Singleton.class );
+			per( Scoped.INJECTION ).construct( Prototype.class );
+		}
+	}
+
+	private static class Singleton {
+		// just to count
+	}
+
+	private static class Prototype {
+		// just to count
+	}
+
+	private final Injector injector = Bootstrap.injector( ContainerStatsBindsModule.class );
+
+	@Test
+	public void thatStatsAreOnlyRecordedWhenEnabled() {
+		ContainerStats stats = injector.resolve( dependency( ContainerStats.class ) );
+		injector.resolve( dependency( Singleton.class ) );
+		assertNull( stats.of( info( Singleton.class ) ) );
+	}
+
+	@Test
+	public void thatCreationsAndHitsAreCountedPerInjectron() {
+		ContainerStats stats = injector.resolve( dependency( ContainerStats.class ) );
+		stats.enable();
+		for ( int i = 0; i < 5; i++ ) {
+			injector.resolve( dependency( Singleton.class ) );
+			injector.resolve( dependency( Prototype.class ) );
+		}
+		stats.disable();
+		InjectronStats singleton = stats.of( info( Singleton.class ) );
+		assertEquals( 5L, singleton.serves() );
+		assertEquals( 1L, singleton.creations() );
+		assertEquals( 4L, singleton.hits() );
+		InjectronStats prototype = stats.of( info( Prototype.class ) );
+		assertEquals( 5L, prototype.creations() );
+		assertEquals( 0L, prototype.hits() );
+		assertEquals( prototype, stats.all().get( 0 ) );
+		assertTrue( prototype.percentile( 0.99d ) > 0L );
+	}
+
+	private <T> InjectronInfo<T> info( Class<T> type ) {
+		return injector.resolve( dependency( injectronTypeOf( type ) ) ).info();
+	}
+}
@@ -0,0 +1,99 @@
+package se.jbee.inject.bind;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static se.jbee.inject.Dependency.dependency;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import se.jbee.inject.Injector;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.container.FlightEvents;
+import se.jbee.inject.container.Scoped;
+
+/**
+ * Checks that the {@link FlightEvents} are recorded by a flight recording that
+ * lowers their thresholds.
+ */
+public class TestFlightEventBinds {
+
+	private static class FlightEventBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			per( Scoped.INJECTION ).construct( Engine.class );
+			bind( Integer.class ).to( 6 );
+		}
+	}
+
+	private static class Engine {
+
+		final int cylinders;
+
+		@SuppressWarnings ( "unused" )
+		Engine( Integer cylinders ) {
+			this.cylinders = cylinders;
+		}
+	}
+
+	@Test
+	public void thatResolutionSupplyAndBootstrapPhasesAreRecorded() throws IOException {
+		Assume.assumeTrue( FlightEvents.ENABLED );
+		List<RecordedEvent> events;
+		try ( Recording recording = new Recording() ) {
+			recording.enable( FlightEvents.Resolve.class ).withThreshold( Duration.ZERO );
+			recording.enable( FlightEvents.Supply.class ).withThreshold( Duration.ZERO );
+			recording.enable( FlightEvents.Phase.class ).withThreshold( Duration.ZERO );
+			recording.start();
+			Injector injector = Bootstrap.injector( FlightEventBindsModule.class );
+			assertEquals( 6, injector.resolve( dependency( Engine.class ) ).cylinders );
+			recording.stop();
+			File dump = File.createTempFile( "silk", ".jfr" );
+			try {
+				recording.dump( dump.toPath() );
+				events = RecordingFile.readAllEvents( dump.toPath() );
+			} finally {
+				dump.delete();
+			}
+		}
+		Set<String> phases = new HashSet<>();
+		boolean engineResolved = false;
+		boolean cylindersResolved = false;
+		boolean engineSupplied = false;
+		for ( RecordedEvent e : events ) {
+			String name = e.getEventType().getName();
+			if ( name.equals( "se.jbee.inject.Bootstrap" ) ) {
+				phases.add( e.getString( "phase" ) );
+			} else if ( name.equals( "se.jbee.inject.Resolve" ) ) {
+				String resource = e.getString( "resource" );
+				if ( resource.contains( Engine.class.getSimpleName() ) ) {
+					engineResolved = true;
+					assertEquals( 0, e.getInt( "depth" ) );
+				} else if ( resource.contains( "Integer" ) ) {
+					cylindersResolved = true;
+					assertEquals( 1, e.getInt( "depth" ) );
+				}
+			} else if ( name.equals( "se.jbee.inject.Supply" ) ) {
+				engineSupplied |= e.getClass( "type" ).getName().equals( Engine.class.getName() );
+			}
+		}
+		assertTrue( phases.toString(), phases.containsAll( Arrays.asList( "modularise", "declare", "disambiguate", "container" ) ) );
+		assertTrue( engineResolved );
+		assertTrue( cylindersResolved );
+		assertTrue( engineSupplied );
+	}
+}
@@ -0,0 +1,156 @@
+package se.jbee.inject.bind;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static se.jbee.inject.Dependency.dependency;
+import static se.jbee.inject.container.Typecast.injectronTypeOf;
+import static se.jbee.inject.container.Typecast.leaseTypeOf;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import se.jbee.inject.Expiry;
+import se.jbee.inject.Injector;
+import se.jbee.inject.InjectronInfo;
+import se.jbee.inject.UnresolvableDependency;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.bootstrap.BootstrapperBundle;
+import se.jbee.inject.container.Lease;
+import se.jbee.inject.container.Scoped;
+import se.jbee.inject.container.Scoped.PoolScope;
+import se.jbee.inject.container.Scoped.PoolStats;
+
+/**
+ * Tests the {@link Lease} bridge together with the {@link PoolScope} that
+ * recycles instances given back by closing a {@link Lease}.
+ */
+public class TestLeaseBinds {
+
+	static final PoolScope POOL = Scoped.pooled( 1, 2, buffer -> ( (Buffer) buffer ).reset() );
+	static final PoolScope SINGLE = Scoped.pooled( 0, 1, buffer -> {
+		throw new IllegalStateException( "cannot reset" );
+	} );
+
+	private static class LeaseBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			per( POOL ).construct( Buffer.class );
+			per( SINGLE ).construct( Single.class );
+		}
+	}
+
+	private static class LeaseBindsBundle
+			extends BootstrapperBundle {
+
+		@Override
+		protected void bootstrap() {
+			install( BuildinBundle.LEASE );
+			install( LeaseBindsModule.class );
+		}
+	}
+
+	static class Buffer {
+
+		final StringBuilder content = new StringBuilder();
+
+		void reset() {
+			content.setLength( 0 );
+		}
+	}
+
+	static class Single {
+		// just for test
+	}
+
+	private final Injector injector = Bootstrap.injector( LeaseBindsBundle.class );
+
+	@Test
+	public void thatClosedLeaseReturnsInstanceToPool() {
+		Buffer first;
+		try ( Lease<Buffer> lease = injector.resolve( dependency( leaseTypeOf( Buffer.class ) ) ) ) {
+			first = lease.get();
+			first.content.append( "used" );
+		}
+		assertEquals( 0, first.content.length() );
+		try ( Lease<Buffer> lease = injector.resolve( dependency( leaseTypeOf( Buffer.class ) ) ) ) {
+			assertSame( first, lease.get() );
+		}
+		PoolStats stats = stats();
+		assertEquals( 1, stats.created );
+		assertEquals( 0, stats.leased );
+		assertTrue( stats.hits >= 2L );
+	}
+
+	@Test
+	public void thatPoolIsBoundedByMaximumSize() throws Exception {
+		Lease<Buffer> a = injector.resolve( dependency( leaseTypeOf( Buffer.class ) ) );
+		Lease<Buffer> b = injector.resolve( dependency( leaseTypeOf( Buffer.class ) ) );
+		assertFalse( a.get() == b.get() );
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		try {
+			Future<Buffer> c = pool.submit( () -> injector.resolve( dependency( leaseTypeOf( Buffer.class ) ) ).get() );
+			Thread.sleep( 20 );
+			assertFalse( c.isDone() );
+			Buffer released = a.get();
+			a.close();
+			assertSame( released, c.get() );
+		} finally {
+			pool.shutdown();
+			b.close();
+		}
+		PoolStats stats = stats();
+		assertEquals( 2, stats.created );
+		assertEquals( 1L, stats.waits );
+	}
+
+	@Test ( expected = UnresolvableDependency.OutOfScope.class )
+	public void thatPooledInstanceCannotBeResolvedWithoutLease() {
+		injector.resolve( dependency( Buffer.class ) );
+	}
+
+	@Test
+	public void thatPooledInstancesExpireLikeInjectionScopedOnes() {
+		InjectronInfo<Buffer> info = injector.resolve( dependency( injectronTypeOf( Buffer.class ) ) ).info();
+		assertEquals( Expiry.expires( 1000 ), info.expiry );
+	}
+
+	@Test ( timeout = 5000 )
+	public void thatInstanceFailingToResetIsDroppedWithoutLosingItsLease() {
+		Lease<Single> lease = injector.resolve( dependency( leaseTypeOf( Single.class ) ) );
+		Single first = lease.get();
+		assertCloseFails( lease );
+		Lease<Single> again = injector.resolve( dependency( leaseTypeOf( Single.class ) ) );
+		assertNotSame( first, again.get() );
+		assertCloseFails( again );
+	}
+
+	private static void assertCloseFails( Lease<?> lease ) {
+		try {
+			lease.close();
+			fail( "reset should have failed" );
+		} catch ( IllegalStateException e ) {
+			assertEquals( "cannot reset", e.getMessage() );
+		}
+	}
+
+	private PoolStats stats() {
+		InjectronInfo<Buffer> info = injector.resolve( dependency( injectronTypeOf( Buffer.class ) ) ).info();
+		List<PoolStats> all = POOL.stats();
+		for ( PoolStats stats : all ) {
+			if ( stats.info == info ) {
+				return stats;
+			}
+		}
+		throw new AssertionError( all.toString() );
+	}
+}
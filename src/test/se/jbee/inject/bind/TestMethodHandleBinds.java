@@ -0,0 +1,103 @@
+package se.jbee.inject.bind;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static se.jbee.inject.Dependency.dependency;
+import static se.jbee.inject.bootstrap.Inspect.all;
+
+import org.junit.Test;
+
+import se.jbee.inject.Injector;
+import se.jbee.inject.UnresolvableDependency.SupplyFailed;
+import se.jbee.inject.bootstrap.Bindings;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.bootstrap.Inspect;
+import se.jbee.inject.bootstrap.Macros;
+import se.jbee.inject.config.Globals;
+import se.jbee.inject.container.Scoped;
+
+/**
+ * Checks that constructors and factory methods can be invoked via
+ * {@link java.lang.invoke.MethodHandle}s when using {@link Macros#HANDLES}.
+ */
+public class TestMethodHandleBinds {
+
+	static class MethodHandleBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			bind( String.class ).to( "answer" );
+			bind( Integer.class ).to( 42 );
+			per( Scoped.INJECTION ).bind( Foo.class ).toConstructor();
+			per( Scoped.INJECTION ).bind( Failing.class ).toConstructor();
+			bind( all().methods() ).inModule();
+			per( Scoped.INJECTION ).bind( all().methods() ).in( FactoryImpl.class );
+		}
+
+		static long staticFactoryMethod( int factor ) {
+			return factor * 2L;
+		}
+	}
+
+	static class Foo {
+
+		final String s;
+		final int i;
+
+		Foo( String s, Integer i ) {
+			this.s = s;
+			this.i = i;
+		}
+	}
+
+	static class Failing {
+
+		Failing() {
+			throw new IllegalStateException( "failing" );
+		}
+	}
+
+	static class FactoryImpl {
+
+		byte i = 0;
+
+		byte throwAwayInstanceFactoryMethod() {
+			return i++;
+		}
+	}
+
+	private final Injector injector = Bootstrap.injector( MethodHandleBindsModule.class,
+			Bindings.bindings( Macros.HANDLES, Inspect.DEFAULT ), Globals.STANDARD );
+
+	@Test
+	public void thatConstructorsAreInvokedViaHandles() {
+		Foo foo = injector.resolve( dependency( Foo.class ) );
+		assertEquals( "answer", foo.s );
+		assertEquals( 42, foo.i );
+		assertNotSame( foo, injector.resolve( dependency( Foo.class ) ) );
+	}
+
+	@Test
+	public void thatStaticFactoryMethodsAreInvokedViaHandles() {
+		assertEquals( 84L, injector.resolve( dependency( Long.class ) ).longValue() );
+	}
+
+	@Test
+	public void thatInstanceFactoryMethodsAreInvokedViaHandles() {
+		assertEquals( 0, injector.resolve( dependency( byte.class ) ).byteValue() );
+		assertEquals( 1, injector.resolve( dependency( byte.class ) ).byteValue() );
+	}
+
+	@Test
+	public void thatExceptionsAreWrappedAsWithReflection() {
+		try {
+			injector.resolve( dependency( Failing.class ) );
+		} catch ( SupplyFailed e ) {
+			assertSame( IllegalStateException.class, e.getCause().getClass() );
+			return;
+		}
+		throw new AssertionError( "Expected failure" );
+	}
+}
@@ -0,0 +1,182 @@
+package se.jbee.inject.bind;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static se.jbee.inject.Dependency.dependency;
+import static se.jbee.inject.bootstrap.Inspect.all;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Test;
+
+import se.jbee.inject.Injector;
+import se.jbee.inject.Supplier;
+import se.jbee.inject.bootstrap.Bundle;
+import se.jbee.inject.bootstrap.Precompile;
+import se.jbee.inject.config.Globals;
+import se.jbee.inject.config.Presets;
+import se.jbee.inject.container.Scoped;
+
+/**
+ * Checks that the source generated by {@link Precompile} compiles to an
+ * {@link Injector} that behaves like the one created by bootstrapping.
+ */
+public class TestPrecompileBinds {
+
+	public static class PrecompileBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			bind( String.class ).to( "answer" );
+			bind( Integer.class ).to( 42 );
+			injectingInto( Foo.class ).bind( Integer.class ).to( 13 );
+			bind( Runnable.class ).to( Bar.class );
+			per( Scoped.INJECTION ).bind( Foo.class ).toConstructor();
+			construct( Bar.class );
+			bind( all().methods() ).inModule();
+		}
+
+		public static long twice( Integer value ) {
+			return value * 2L;
+		}
+	}
+
+	public static class LambdaBindsModule
+			extends BinderModule {
+
+		static final AtomicInteger DECLARED = new AtomicInteger();
+
+		@Override
+		protected void declare() {
+			DECLARED.incrementAndGet();
+			bind( String.class ).to( (Supplier<String>) ( dependency, injector ) -> "lambda" );
+			bind( Integer.class ).to( 42 );
+		}
+	}
+
+	public static class PresetBindsModule
+			extends BinderModuleWith<String> {
+
+		@Override
+		protected void declare( String preset ) {
+			bind( String.class ).to( preset );
+		}
+	}
+
+	public static class GreetingGlobals
+			implements java.util.function.Supplier<Globals> {
+
+		@Override
+		public Globals get() {
+			return Globals.STANDARD.presets( Presets.EMPTY.preset( String.class, "hello" ) );
+		}
+	}
+
+	public static class Foo {
+
+		public final String s;
+		public final int i;
+
+		public Foo( String s, Integer i ) {
+			this.s = s;
+			this.i = i;
+		}
+	}
+
+	public static class Bar implements Runnable {
+
+		@Override
+		public void run() {
+			// just a type
+		}
+	}
+
+	private File dir;
+	private URLClassLoader loader;
+
+	@After
+	public void deleteGeneratedFiles() throws IOException {
+		if ( loader != null ) {
+			loader.close();
+		}
+		if ( dir != null ) {
+			try ( Stream<Path> files = Files.walk( dir.toPath() ) ) {
+				files.sorted( Comparator.reverseOrder() ).map( Path::toFile ).forEach( File::delete );
+			}
+		}
+	}
+
+	@Test
+	public void thatPrecompiledInjectorResolvesLikeBootstrappedInjector() throws Exception {
+		Class<?> generated = compile( PrecompileBindsModule.class, null, "PrecompiledInjector" );
+		assertTrue( generated.getField( "COMPLETE" ).getBoolean( null ) );
+		Injector injector = newInstance( generated );
+		assertEquals( "answer", injector.resolve( dependency( String.class ) ) );
+		assertEquals( 42, injector.resolve( dependency( Integer.class ) ).intValue() );
+		assertEquals( 84L, injector.resolve( dependency( Long.class ) ).longValue() );
+		Foo foo = injector.resolve( dependency( Foo.class ) );
+		assertEquals( "answer", foo.s );
+		assertEquals( 13, foo.i );
+		assertSame( injector.resolve( dependency( Bar.class ) ), injector.resolve( dependency( Runnable.class ) ) );
+	}
+
+	@Test
+	public void thatPrecompiledInjectorDefersJustTheLambdaToBootstrapping() throws Exception {
+		Class<?> generated = compile( LambdaBindsModule.class, null, "DeferringInjector" );
+		assertEquals( false, generated.getField( "COMPLETE" ).getBoolean( null ) );
+		int declared = LambdaBindsModule.DECLARED.get();
+		Injector injector = newInstance( generated );
+		assertEquals( 42, injector.resolve( dependency( Integer.class ) ).intValue() );
+		assertEquals( declared, LambdaBindsModule.DECLARED.get() );
+		assertEquals( "lambda", injector.resolve( dependency( String.class ) ) );
+		assertEquals( declared + 1, LambdaBindsModule.DECLARED.get() );
+		assertEquals( "lambda", injector.resolve( dependency( String.class ) ) );
+		assertEquals( declared + 1, LambdaBindsModule.DECLARED.get() );
+	}
+
+	@Test
+	public void thatPrecompiledInjectorUsesGlobalsOfFactory() throws Exception {
+		Class<?> generated = compile( PresetBindsModule.class, GreetingGlobals.class, "PresetInjector" );
+		assertTrue( generated.getField( "COMPLETE" ).getBoolean( null ) );
+		assertEquals( "hello", newInstance( generated ).resolve( dependency( String.class ) ) );
+	}
+
+	private static Injector newInstance( Class<?> generated ) throws ReflectiveOperationException {
+		return (Injector) generated.getDeclaredConstructor().newInstance();
+	}
+
+	private Class<?> compile( Class<? extends Bundle> root, Class<? extends java.util.function.Supplier<Globals>> globals,
+			String name ) throws IOException, ClassNotFoundException {
+		JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+		Assume.assumeNotNull( javac );
+		String injector = TestPrecompileBinds.class.getPackage().getName() + "." + name;
+		String source = Precompile.source( root, globals, injector );
+		dir = Files.createTempDirectory( "precompile" ).toFile();
+		File file = new File( dir, name + ".java" );
+		Files.write( file.toPath(), source.getBytes( StandardCharsets.UTF_8 ) );
+		int exit = javac.run( null, null, null, "-nowarn", "-cp", System.getProperty( "java.class.path" ),
+				"-d", dir.getPath(), file.getPath() );
+		assertEquals( source, 0, exit );
+		loader = new URLClassLoader( new URL[] { dir.toURI().toURL() }, TestPrecompileBinds.class.getClassLoader() );
+		Class<?> generated = loader.loadClass( injector );
+		assertNotNull( generated );
+		return generated;
+	}
+}
@@ -0,0 +1,88 @@
+package se.jbee.inject.bind;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static se.jbee.inject.Dependency.dependency;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import se.jbee.inject.Injector;
+import se.jbee.inject.UnresolvableDependency.OutOfScope;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.container.Scoped;
+import se.jbee.inject.container.Scoped.Request;
+
+/**
+ * Tests the {@link Scoped#REQUEST} scope and its {@link Request} context.
+ */
+public class TestRequestScopeBinds {
+
+	private static class RequestScopeBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			per( Scoped.REQUEST ).construct( Transaction.class );
+		}
+	}
+
+	static class Transaction
+			implements AutoCloseable {
+
+		boolean closed;
+
+		@Override
+		public void close() {
+			closed = true;
+		}
+	}
+
+	private final Injector injector = Bootstrap.injector( RequestScopeBindsModule.class );
+
+	@Test
+	public void thatInstancesAreSameWithinRequestAndClosedWithIt() {
+		Transaction tx;
+		try ( Request request = Scoped.REQUEST.open() ) {
+			tx = injector.resolve( dependency( Transaction.class ) );
+			assertSame( tx, injector.resolve( dependency( Transaction.class ) ) );
+		}
+		assertTrue( tx.closed );
+		assertNull( Scoped.REQUEST.current() );
+		try ( Request request = Scoped.REQUEST.open() ) {
+			assertFalse( tx == injector.resolve( dependency( Transaction.class ) ) );
+		}
+	}
+
+	@Test
+	public void thatRequestCanBePropagatedToOtherThreads() throws Exception {
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		try ( Request request = Scoped.REQUEST.open() ) {
+			Transaction tx = injector.resolve( dependency( Transaction.class ) );
+			assertSame( tx, pool.submit( request.wrap( () -> injector.resolve( dependency( Transaction.class ) ) ) ).get() );
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void thatNestedRequestsRestoreOuterRequest() {
+		try ( Request outer = Scoped.REQUEST.open() ) {
+			Transaction tx = injector.resolve( dependency( Transaction.class ) );
+			try ( Request inner = Scoped.REQUEST.open() ) {
+				assertFalse( tx == injector.resolve( dependency( Transaction.class ) ) );
+			}
+			assertSame( outer, Scoped.REQUEST.current() );
+			assertSame( tx, injector.resolve( dependency( Transaction.class ) ) );
+		}
+	}
+
+	@Test ( expected = OutOfScope.class )
+	public void thatResolvingOutsideOfRequestThrowsAnException() {
+		injector.resolve( dependency( Transaction.class ) );
+	}
+}
@@ -0,0 +1,131 @@
+package se.jbee.inject.bind;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static se.jbee.inject.Dependency.dependency;
+
+import java.io.Serializable;
+
+import org.junit.Test;
+
+import se.jbee.inject.Dependency;
+import se.jbee.inject.Injector;
+import se.jbee.inject.InjectronInfo;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.container.Provider;
+import se.jbee.inject.container.Repository;
+import se.jbee.inject.container.ResolutionCache;
+import se.jbee.inject.container.Scope;
+
+/**
+ * Checks that the {@link ResolutionCache} of a container remembers the
+ * resolution of repeated dependencies but still respects targeted binds.
+ */
+public class TestResolutionCacheBinds {
+
+	private static class ResolutionCacheBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			bind( String.class ).to( "everywhere" );
+			injectingInto( Foo.class ).bind( String.class ).to( "foo" );
+			injectingInto( Foo.class ).within( Bar.class ).bind( String.class ).to( "foo-in-bar" );
+			inPackageOf( TestResolutionCacheBinds.class ).bind( Integer.class ).to( 42 );
+			bind( Integer.class ).to( 13 );
+			bind( Serializable.class ).to( "serializable" );
+			per( FRESH ).construct( Fresh.class );
+		}
+	}
+
+	/**
+	 * A custom scope creating a new instance each time. As it is unknown to
+	 * the container it is assumed to never expire.
+	 */
+	static final Scope FRESH = () -> new Repository() {
+
+		@Override
+		public <T> T serve( Dependency<? super T> dependency, InjectronInfo<T> info, Provider<T> provider ) {
+			return provider.provide();
+		}
+	};
+
+	static final class Fresh {
+		// a new instance each time
+	}
+
+	private static class Foo {
+		// just a target
+	}
+
+	private static class Bar {
+		// just a parent target
+	}
+
+	private final Injector injector = Bootstrap.injector( ResolutionCacheBindsModule.class );
+
+	@Test
+	public void thatRepeatedResolutionIsServedFromTheCache() {
+		ResolutionCache cache = injector.resolve( dependency( ResolutionCache.class ) );
+		long hits = cache.hits();
+		for ( int i = 0; i < 10; i++ ) {
+			assertEquals( "everywhere", injector.resolve( dependency( String.class ) ) );
+		}
+		assertTrue( cache.hits() >= hits + 9 );
+		assertTrue( cache.size() > 0 );
+	}
+
+	@Test
+	public void thatTargetedBindsAreRespectedWhenCached() {
+		Dependency<String> string = dependency( String.class );
+		for ( int i = 0; i < 3; i++ ) {
+			assertEquals( "everywhere", injector.resolve( string ) );
+			assertEquals( "foo", injector.resolve( string.injectingInto( Foo.class ) ) );
+			assertEquals( "foo-in-bar", injector.resolve( string.injectingInto( Bar.class ).injectingInto( Foo.class ) ) );
+			assertEquals( "everywhere", injector.resolve( string.injectingInto( Bar.class ) ) );
+		}
+	}
+
+	@Test
+	public void thatPackageLocalisedBindsAreRespectedWhenCached() {
+		Dependency<Integer> integer = dependency( Integer.class );
+		for ( int i = 0; i < 3; i++ ) {
+			assertEquals( 13, injector.resolve( integer ).intValue() );
+			assertEquals( 42, injector.resolve( integer.injectingInto( Foo.class ) ).intValue() );
+			assertEquals( 13, injector.resolve( integer.injectingInto( String.class ) ).intValue() );
+		}
+	}
+
+	@Test
+	public void thatArrayResolutionIsStillComposedWhenCached() {
+		for ( int i = 0; i < 3; i++ ) {
+			assertEquals( 1, injector.resolve( dependency( Integer[].class ) ).length );
+			assertEquals( 2, injector.resolve( dependency( Integer[].class ).injectingInto( Foo.class ) ).length );
+		}
+	}
+
+	@Test
+	public void thatComposedArraysOfNeverExpiringInstancesAreCachedAsCopies() {
+		ResolutionCache cache = injector.resolve( dependency( ResolutionCache.class ) );
+		Dependency<Integer[]> integers = dependency( Integer[].class ).injectingInto( Foo.class );
+		Integer[] first = injector.resolve( integers );
+		assertTrue( cache.arrays() > 0 );
+		first[0] = -1;
+		Integer[] second = injector.resolve( integers );
+		assertNotSame( first, second );
+		assertArrayEquals( new Integer[] { 42, 13 }, second );
+	}
+
+	@Test
+	public void thatComposedArraysOfInstancesInOtherScopesAreNotCached() {
+		Fresh[] first = injector.resolve( dependency( Fresh[].class ) );
+		Fresh[] second = injector.resolve( dependency( Fresh[].class ) );
+		assertEquals( 1, first.length );
+		assertNotSame( first[0], second[0] );
+		Integer[] integers = injector.resolve( dependency( Integer[].class ) );
+		assertSame( integers[0], injector.resolve( dependency( Integer[].class ) )[0] );
+	}
+}
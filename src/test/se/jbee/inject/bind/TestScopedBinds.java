@@ -3,6 +3,8 @@ package se.jbee.inject.bind;
 import static org.junit.Assert.fail;
 import static se.jbee.inject.Dependency.dependency;
 
+import java.util.concurrent.TimeUnit;
+
 import org.junit.Test;
 
 import se.jbee.inject.Injector;
@@ -40,5 +42,21 @@ public class TestScopedBinds {
 		Foo foo = injector.resolve( dependency( Foo.class ) );
 		fail( "It should not be possible to create a foo but got one: " + foo );
 	}
-	
+
+	private static class TimeToLiveBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			per( Scoped.APPLICATION ).construct( Foo.class );
+			per( Scoped.timeToLive( 1, TimeUnit.MINUTES ) ).construct( Bar.class );
+		}
+	}
+
+	@Test ( expected = UnstableDependency.class )
+	public void thatInjectingATimeToLiveScopedInstanceIntoAppScopedInstanceThrowsAnException() {
+		Injector injector = Bootstrap.injector( TimeToLiveBindsModule.class );
+		Foo foo = injector.resolve( dependency( Foo.class ) );
+		fail( "It should not be possible to create a foo but got one: " + foo );
+	}
 }
@@ -0,0 +1,146 @@
+package se.jbee.inject.bind;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static se.jbee.inject.Dependency.dependency;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.Test;
+
+import se.jbee.inject.Injector;
+import se.jbee.inject.Supplier;
+import se.jbee.inject.bootstrap.Binding;
+import se.jbee.inject.bootstrap.Bindings;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.bootstrap.Inspect;
+import se.jbee.inject.bootstrap.Macros;
+import se.jbee.inject.bootstrap.Snapshot;
+import se.jbee.inject.config.Globals;
+import se.jbee.inject.config.Options;
+import se.jbee.inject.config.Presets;
+import se.jbee.inject.container.Scoped;
+
+/**
+ * Checks that a {@link Snapshot} of the {@link Binding}s is written and used
+ * when up to date but ignored otherwise.
+ */
+public class TestSnapshotBinds {
+
+	private enum Mode { FAST, SAFE }
+
+	private static class SnapshotBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			bind( String.class ).to( "answer" );
+			bind( Integer.class ).to( 42 );
+			bind( Mode.class ).to( Mode.SAFE );
+			injectingInto( Foo.class ).bind( Integer.class ).to( 13 );
+			per( Scoped.INJECTION ).bind( Foo.class ).toConstructor();
+		}
+	}
+
+	private static class LambdaBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			bind( String.class ).to( (Supplier<String>) ( dependency, injector ) -> "lambda" );
+		}
+	}
+
+	private static class Foo {
+
+		final String s;
+		final int i;
+
+		@SuppressWarnings ( "unused" )
+		Foo( String s, Integer i ) {
+			this.s = s;
+			this.i = i;
+		}
+	}
+
+	@Test
+	public void thatSnapshotIsWrittenAndUsedOnNextStart() throws IOException {
+		File file = snapshotFile();
+		assertInjects( Bootstrap.injector( SnapshotBindsModule.class, Globals.STANDARD, file ) );
+		assertTrue( file.isFile() );
+		String key = Snapshot.key( SnapshotBindsModule.class, Globals.STANDARD );
+		Binding<?>[] bindings = Snapshot.read( file, key );
+		assertNotNull( bindings );
+		assertEquals( Bootstrap.bindings( SnapshotBindsModule.class, Bindings.bindings( Macros.DEFAULT, Inspect.DEFAULT ), Globals.STANDARD ).length, bindings.length );
+		assertInjects( Bootstrap.injector( SnapshotBindsModule.class, Globals.STANDARD, file ) );
+	}
+
+	@Test
+	public void thatSnapshotOfOtherGlobalsIsNotUsed() throws IOException {
+		File file = snapshotFile();
+		Bootstrap.injector( SnapshotBindsModule.class, Globals.STANDARD, file );
+		Globals other = Globals.STANDARD.options( Options.STANDARD.chosen( Mode.FAST ) );
+		String key = Snapshot.key( SnapshotBindsModule.class, other );
+		assertFalse( key.equals( Snapshot.key( SnapshotBindsModule.class, Globals.STANDARD ) ) );
+		assertNull( Snapshot.read( file, key ) );
+	}
+
+	@Test
+	public void thatPresetsWithSameTextualFormHaveDifferentKeys() {
+		Globals numeric = Globals.STANDARD.presets( Presets.EMPTY.preset( Object.class, (Object) 42 ) );
+		Globals textual = Globals.STANDARD.presets( Presets.EMPTY.preset( Object.class, (Object) "42" ) );
+		assertFalse( Snapshot.key( SnapshotBindsModule.class, numeric ).equals( Snapshot.key( SnapshotBindsModule.class, textual ) ) );
+	}
+
+	@Test
+	public void thatNoSnapshotIsUsedForUndescribablePresets() {
+		Globals globals = Globals.STANDARD.presets( Presets.EMPTY.preset( Object.class, new Object() ) );
+		assertNull( Snapshot.key( SnapshotBindsModule.class, globals ) );
+	}
+
+	@Test
+	public void thatNoSnapshotIsWrittenForUndescribableSuppliers() throws IOException {
+		File file = snapshotFile();
+		Injector injector = Bootstrap.injector( LambdaBindsModule.class, Globals.STANDARD, file );
+		assertEquals( "lambda", injector.resolve( dependency( String.class ) ) );
+		assertFalse( file.exists() );
+	}
+
+	@Test
+	public void thatClassesRecompiledInPlaceChangeTheKey() throws IOException {
+		File classes = Files.createTempDirectory( "classes" ).toFile();
+		File pkg = new File( classes, "pkg" );
+		assertTrue( pkg.mkdir() );
+		File clazz = new File( pkg, "Foo.class" );
+		Files.write( clazz.toPath(), new byte[] { 1, 2, 3 } );
+		assertTrue( clazz.setLastModified( 1000000000000L ) );
+		String classpath = System.getProperty( "java.class.path" );
+		try {
+			System.setProperty( "java.class.path", classes.getPath() );
+			String before = Snapshot.key( SnapshotBindsModule.class, Globals.STANDARD );
+			assertTrue( clazz.setLastModified( 1000000060000L ) );
+			assertFalse( before.equals( Snapshot.key( SnapshotBindsModule.class, Globals.STANDARD ) ) );
+		} finally {
+			System.setProperty( "java.class.path", classpath );
+		}
+	}
+
+	private static void assertInjects( Injector injector ) {
+		assertEquals( "answer", injector.resolve( dependency( String.class ) ) );
+		assertEquals( 42, injector.resolve( dependency( Integer.class ) ).intValue() );
+		assertEquals( Mode.SAFE, injector.resolve( dependency( Mode.class ) ) );
+		Foo foo = injector.resolve( dependency( Foo.class ) );
+		assertEquals( "answer", foo.s );
+		assertEquals( 13, foo.i );
+	}
+
+	private static File snapshotFile() throws IOException {
+		File dir = Files.createTempDirectory( "snapshot" ).toFile();
+		return new File( dir, "bindings.snapshot" );
+	}
+}
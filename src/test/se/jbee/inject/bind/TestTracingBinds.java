@@ -0,0 +1,147 @@
+package se.jbee.inject.bind;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static se.jbee.inject.Dependency.dependency;
+import static se.jbee.inject.Name.named;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import se.jbee.inject.Supplier;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.container.Inject;
+import se.jbee.inject.container.TracingInjector;
+import se.jbee.inject.container.TracingInjector.Frame;
+
+/**
+ * Checks that the {@link TracingInjector} records the tree of nested
+ * resolutions for sampled resolutions only.
+ */
+public class TestTracingBinds {
+
+	private static class TracingBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			construct( Service.class );
+			construct( Repo.class );
+			bind( named( "backup" ), Repo.class ).toConstructor();
+		}
+	}
+
+	private static class Service {
+
+		@SuppressWarnings ( "unused" )
+		Service( Repo repo ) {
+			// just to nest
+		}
+	}
+
+	private static class Repo {
+		// just a leaf
+	}
+
+	private static class Client {
+		// supplied using another traced container
+	}
+
+	/**
+	 * The traced container the {@link Client} supplier resolves from.
+	 */
+	static TracingInjector inner;
+
+	private static class NestedTracingBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			bind( Client.class ).to( (Supplier<Client>) ( dependency, injector ) -> {
+				inner.resolve( dependency( Service.class ) );
+				return new Client();
+			} );
+		}
+	}
+
+	private final TracingInjector injector = Inject.tracing( Bootstrap.injector( TracingBindsModule.class ), 4 );
+
+	@Test
+	public void thatNothingIsSampledByDefault() {
+		injector.resolve( dependency( Service.class ) );
+		assertTrue( injector.samples().isEmpty() );
+	}
+
+	@Test
+	public void thatSampledResolutionRecordsNestedResolutions() {
+		injector.sampleEvery( 1 );
+		injector.resolve( dependency( Service.class ) );
+		List<Frame> samples = injector.samples();
+		assertEquals( 1, samples.size() );
+		Frame root = samples.get( 0 );
+		assertNull( root.injectron() );
+		assertEquals( 1, root.children().size() );
+		Frame service = root.children().get( 0 );
+		assertSame( Service.class, service.injectron().info().resource.type().rawType );
+		assertEquals( 0, service.depth() );
+		assertEquals( 1, service.children().size() );
+		Frame repo = service.children().get( 0 );
+		assertSame( Repo.class, repo.injectron().info().resource.type().rawType );
+		assertEquals( 1, repo.depth() );
+		String flameGraph = injector.flameGraph();
+		String stack = root.label() + ";" + service.label();
+		assertTrue( flameGraph, flameGraph.contains( stack + ";" + repo.label() + " " ) );
+		assertTrue( flameGraph, flameGraph.contains( stack + ";[match] " ) );
+	}
+
+	@Test
+	public void thatAllInjectronsAskedByASampledResolutionAreRecorded() {
+		injector.sampleEvery( 1 );
+		assertEquals( 2, injector.resolve( dependency( Repo[].class ) ).length );
+		List<Frame> samples = injector.samples();
+		assertEquals( 1, samples.size() );
+		assertEquals( 2, samples.get( 0 ).children().size() );
+	}
+
+	@Test
+	public void thatTimeMatchingAnArrayIsNotAttributedToItsElements() {
+		injector.sampleEvery( 1 );
+		injector.resolve( dependency( Repo[].class ) );
+		for ( Frame element : injector.samples().get( 0 ).children() ) {
+			assertEquals( 0L, element.matchNanos() );
+		}
+	}
+
+	@Test
+	public void thatTracesOfNestedContainersDoNotMix() {
+		inner = injector;
+		TracingInjector outer = Inject.tracing( Bootstrap.injector( NestedTracingBindsModule.class ), 4 );
+		outer.sampleEvery( 1 );
+		inner.sampleEvery( 1 );
+		outer.resolve( dependency( Client.class ) );
+		Frame client = outer.samples().get( 0 ).children().get( 0 );
+		assertSame( Client.class, client.injectron().info().resource.type().rawType );
+		assertTrue( client.children().isEmpty() );
+		List<Frame> samples = inner.samples();
+		assertEquals( 1, samples.size() );
+		Frame service = samples.get( 0 ).children().get( 0 );
+		assertSame( Service.class, service.injectron().info().resource.type().rawType );
+		assertEquals( 1, service.children().size() );
+	}
+
+	@Test
+	public void thatRingBufferKeepsMostRecentSamples() {
+		injector.sampleEvery( 2 );
+		for ( int i = 0; i < 20; i++ ) {
+			injector.resolve( dependency( Repo.class ) );
+		}
+		assertEquals( 4, injector.samples().size() );
+		injector.sampleEvery( 0 );
+		injector.clear();
+		injector.resolve( dependency( Repo.class ) );
+		assertTrue( injector.samples().isEmpty() );
+	}
+}
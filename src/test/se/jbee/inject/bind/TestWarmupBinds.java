@@ -0,0 +1,137 @@
+package se.jbee.inject.bind;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static se.jbee.inject.Dependency.dependency;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import se.jbee.inject.Injector;
+import se.jbee.inject.Injectron;
+import se.jbee.inject.bootstrap.Binding;
+import se.jbee.inject.bootstrap.Bindings;
+import se.jbee.inject.bootstrap.Bootstrap;
+import se.jbee.inject.bootstrap.Inspect;
+import se.jbee.inject.bootstrap.Macros;
+import se.jbee.inject.bootstrap.Warmup;
+import se.jbee.inject.config.Globals;
+import se.jbee.inject.container.Inject;
+
+/**
+ * Checks that {@link Warmup} creates singletons in dependency order and
+ * reports the critical path.
+ */
+public class TestWarmupBinds {
+
+	static final List<Class<?>> CREATED = new CopyOnWriteArrayList<>();
+
+	private static class WarmupBindsModule
+			extends BinderModule {
+
+		@Override
+		protected void declare() {
+			construct( Top.class );
+			construct( Middle.class );
+			construct( Bottom.class );
+			construct( Independent.class );
+		}
+	}
+
+	private static class Bottom {
+
+		@SuppressWarnings ( "unused" )
+		Bottom() {
+			CREATED.add( getClass() );
+		}
+	}
+
+	private static class Middle {
+
+		@SuppressWarnings ( "unused" )
+		Middle( Bottom bottom ) {
+			CREATED.add( getClass() );
+		}
+	}
+
+	private static class Top {
+
+		final Middle middle;
+
+		@SuppressWarnings ( "unused" )
+		Top( Middle middle ) {
+			this.middle = middle;
+			CREATED.add( getClass() );
+		}
+	}
+
+	private static class Independent {
+
+		@SuppressWarnings ( "unused" )
+		Independent() {
+			CREATED.add( getClass() );
+		}
+	}
+
+	@Test
+	public void thatSingletonsAreCreatedInDependencyOrder() {
+		CREATED.clear();
+		Binding<?>[] bindings = Bootstrap.bindings( WarmupBindsModule.class,
+				Bindings.bindings( Macros.DEFAULT, Inspect.DEFAULT ), Globals.STANDARD );
+		Injector injector = Inject.container( bindings );
+		ExecutorService pool = Executors.newFixedThreadPool( 4 );
+		try {
+			Warmup warmup = Bootstrap.eagerSingletons( injector, bindings, pool );
+			assertEquals( 4, CREATED.size() );
+			assertTrue( CREATED.indexOf( Bottom.class ) < CREATED.indexOf( Middle.class ) );
+			assertTrue( CREATED.indexOf( Middle.class ) < CREATED.indexOf( Top.class ) );
+			assertEquals( 4, warmup.singletons.length );
+			assertCriticalPath( warmup );
+			assertSame( injector.resolve( dependency( Middle.class ) ), injector.resolve( dependency( Top.class ) ).middle );
+			assertEquals( 4, CREATED.size() );
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * The critical path has to start with a singleton without dependencies,
+	 * continue with singletons depending on their predecessor, take as long as
+	 * its singletons took together and at least as long as any singleton.
+	 */
+	private static void assertCriticalPath( Warmup warmup ) {
+		List<Class<?>> path = typesOf( warmup.criticalPath );
+		List<Class<?>> singletons = typesOf( warmup.singletons );
+		assertTrue( asList( Bottom.class, Independent.class ).contains( path.get( 0 ) ) );
+		for ( int i = 1; i < path.size(); i++ ) {
+			assertEquals( path.get( i - 1 ), dependencyOf( path.get( i ) ) );
+		}
+		long nanos = 0L;
+		for ( Class<?> type : path ) {
+			nanos += warmup.nanos[singletons.indexOf( type )];
+		}
+		assertEquals( nanos, warmup.criticalPathNanos );
+		for ( long n : warmup.nanos ) {
+			assertTrue( warmup.criticalPathNanos >= n );
+		}
+	}
+
+	private static Class<?> dependencyOf( Class<?> type ) {
+		return type.getDeclaredConstructors()[0].getParameterTypes()[0];
+	}
+
+	private static List<Class<?>> typesOf( Injectron<?>[] injectrons ) {
+		List<Class<?>> res = new ArrayList<>();
+		for ( Injectron<?> i : injectrons ) {
+			res.add( i.info().resource.type().rawType );
+		}
+		return res;
+	}
+}
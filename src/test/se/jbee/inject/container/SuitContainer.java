@@ -5,7 +5,7 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith ( Suite.class )
-@SuiteClasses ( { TestTypecast.class, TestScopes.class } )
+@SuiteClasses ( { TestTypecast.class, TestScopes.class, TestResolutionCache.class } )
 public class SuitContainer {
 	// tests of the container package
 }
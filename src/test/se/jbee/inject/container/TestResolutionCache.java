@@ -0,0 +1,46 @@
+package se.jbee.inject.container;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static se.jbee.inject.Dependency.dependency;
+
+import org.junit.Test;
+
+import se.jbee.inject.container.ResolutionCache.Key;
+
+public class TestResolutionCache {
+
+	private static final Object PLAN_A = new Object();
+	private static final Object PLAN_B = new Object();
+	private static final Object PLAN_C = new Object();
+
+	private final Key a = ResolutionCache.key( dependency( String.class ), 0 );
+	private final Key b = ResolutionCache.key( dependency( Integer.class ), 0 );
+	private final Key c = ResolutionCache.key( dependency( Long.class ), 0 );
+
+	@Test
+	public void thatPlansNotUsedRecentlyAreEvictedWhenFull() {
+		ResolutionCache cache = new ResolutionCache( 2 );
+		cache.remember( a, PLAN_A );
+		cache.remember( b, PLAN_B );
+		assertSame( PLAN_A, cache.lookup( a ) );
+		cache.remember( c, PLAN_C );
+		assertEquals( 2, cache.size() );
+		assertSame( PLAN_A, cache.lookup( a ) );
+		assertNull( cache.lookup( b ) );
+		assertSame( PLAN_C, cache.lookup( c ) );
+	}
+
+	@Test
+	public void thatOnlyRememberedPlansCountAsMisses() {
+		ResolutionCache cache = new ResolutionCache( 2 );
+		assertNull( cache.lookup( a ) );
+		assertNull( cache.lookup( dependency( String[].class ) ) );
+		assertEquals( 0L, cache.misses() );
+		cache.remember( a, PLAN_A );
+		assertEquals( 1L, cache.misses() );
+		assertSame( PLAN_A, cache.lookup( a ) );
+		assertEquals( 1L, cache.hits() );
+	}
+}
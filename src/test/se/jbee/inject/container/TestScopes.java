@@ -1,15 +1,33 @@
 package se.jbee.inject.container;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static se.jbee.inject.Dependency.dependency;
 import static se.jbee.inject.Resource.resource;
 import static se.jbee.inject.Source.source;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Test;
 
+import se.jbee.inject.Dependency;
 import se.jbee.inject.Expiry;
+import se.jbee.inject.Injectron;
 import se.jbee.inject.InjectronInfo;
 import se.jbee.inject.Source;
+import se.jbee.inject.UnresolvableDependency;
 
 public class TestScopes {
 
@@ -53,4 +71,439 @@ public class TestScopes {
 		assertSame( r.serve( dependency( B.class ), db, ib ), b );
 		assertSame( r.serve( dependency( B.class ), db, null ), b ); // the null Provider shouldn't be called now
 	}
+
+	@Test
+	public void thatApplicationScopeCreatesUnrelatedInstancesConcurrently() throws Exception {
+		Repository r = Scoped.APPLICATION.init();
+		Source source = source(TestScopes.class);
+		InjectronInfo<A> da = new InjectronInfo<>( resource( A.class ), source, Expiry.NEVER, 0, 2 );
+		InjectronInfo<B> db = new InjectronInfo<>( resource( B.class ), source, Expiry.NEVER, 1, 2 );
+		CountDownLatch bothConstructing = new CountDownLatch( 2 );
+		ExecutorService pool = Executors.newFixedThreadPool( 2 );
+		try {
+			Future<A> a = pool.submit( () -> r.serve( dependency( A.class ), da, () -> awaitBoth( bothConstructing, new A() ) ) );
+			Future<B> b = pool.submit( () -> r.serve( dependency( B.class ), db, () -> awaitBoth( bothConstructing, new B() ) ) );
+			assertSame( a.get(), r.serve( dependency( A.class ), da, null ) );
+			assertSame( b.get(), r.serve( dependency( B.class ), db, null ) );
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void thatApplicationScopeCreatesInstanceOnceWhenServedConcurrently() throws Exception {
+		Repository r = Scoped.APPLICATION.init();
+		InjectronInfo<A> da = new InjectronInfo<>( resource( A.class ), source(TestScopes.class), Expiry.NEVER, 0, 1 );
+		AtomicInteger created = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch( 1 );
+		ExecutorService pool = Executors.newFixedThreadPool( 4 );
+		try {
+			List<Future<A>> served = new ArrayList<>();
+			for ( int i = 0; i < 16; i++ ) {
+				served.add( pool.submit( () -> {
+					start.await();
+					return r.serve( dependency( A.class ), da, () -> { created.incrementAndGet(); return new A(); } );
+				} ) );
+			}
+			start.countDown();
+			for ( Future<A> a : served ) {
+				assertSame( served.get( 0 ).get(), a.get() );
+			}
+			assertEquals( 1, created.get() );
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	static <T> T awaitBoth( CountDownLatch latch, T instance ) {
+		latch.countDown();
+		try {
+			assertTrue( "instances were not created concurrently", latch.await( 5, TimeUnit.SECONDS ) );
+		} catch ( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+		}
+		return instance;
+	}
+
+	@Test
+	public void thatTargetInstanceScopeEnsuresSingletonPerTargetHierarchy() {
+		Repository r = Scoped.TARGET_INSTANCE.init();
+		InjectronInfo<A> da = new InjectronInfo<>( resource( A.class ), source(TestScopes.class), Expiry.NEVER, 0, 1 );
+		A a1 = new A();
+		A a2 = new A();
+		assertSame( a1, r.serve( dependency( A.class ).injectingInto( B.class ), da, new ConstantProvider<>( a1 ) ) );
+		assertSame( a1, r.serve( dependency( A.class ).injectingInto( B.class ), da, null ) );
+		assertSame( a2, r.serve( dependency( A.class ).injectingInto( String.class ), da, new ConstantProvider<>( a2 ) ) );
+		assertSame( a2, r.serve( dependency( A.class ).injectingInto( String.class ), da, null ) );
+	}
+
+	static class Closeable implements AutoCloseable {
+
+		boolean closed;
+
+		@Override
+		public void close() {
+			closed = true;
+		}
+	}
+
+	@Test
+	public void thatThreadScopeOnlyStoresInstancesActuallyCreated() throws Exception {
+		Repository r1 = Scoped.THREAD.init();
+		Repository r2 = Scoped.THREAD.init();
+		InjectronInfo<A> da = new InjectronInfo<>( resource( A.class ), source(TestScopes.class), Expiry.expires( 500 ), 99_999, 100_000 );
+		A a1 = new A();
+		A a2 = new A();
+		try {
+			assertSame( a1, r1.serve( dependency( A.class ), da, new ConstantProvider<>( a1 ) ) );
+			assertSame( a2, r2.serve( dependency( A.class ), da, new ConstantProvider<>( a2 ) ) );
+			assertSame( a1, r1.serve( dependency( A.class ), da, null ) );
+			assertSame( a2, r2.serve( dependency( A.class ), da, null ) );
+			A other = new A();
+			ExecutorService pool = Executors.newSingleThreadExecutor();
+			try {
+				assertSame( other, pool.submit( () -> r1.serve( dependency( A.class ), da, new ConstantProvider<>( other ) ) ).get() );
+			} finally {
+				pool.shutdown();
+			}
+		} finally {
+			Scoped.endThread();
+		}
+	}
+
+	@Test
+	public void thatEndingThreadScopeClosesAndDiscardsInstances() {
+		Repository r = Scoped.THREAD.init();
+		InjectronInfo<Closeable> dc = new InjectronInfo<>( resource( Closeable.class ), source(TestScopes.class), Expiry.expires( 500 ), 0, 1 );
+		Closeable first = new Closeable();
+		Closeable second = new Closeable();
+		Scoped.threadScoped( () -> assertSame( first, r.serve( dependency( Closeable.class ), dc, new ConstantProvider<>( first ) ) ) ).run();
+		assertTrue( first.closed );
+		assertSame( second, r.serve( dependency( Closeable.class ), dc, new ConstantProvider<>( second ) ) );
+		Scoped.endThread();
+		assertTrue( second.closed );
+	}
+
+	@Test
+	public void thatThreadScopedInstancesOfUnusedContainersAreReleased() throws InterruptedException {
+		WeakReference<A> ref = serveInUnusedThreadRepository();
+		for ( int i = 0; i < 50 && ref.get() != null; i++ ) {
+			System.gc();
+			Thread.sleep( 10 );
+		}
+		assertNull( ref.get() );
+	}
+
+	private static WeakReference<A> serveInUnusedThreadRepository() {
+		Repository r = Scoped.THREAD.init();
+		InjectronInfo<A> da = new InjectronInfo<>( resource( A.class ), source(TestScopes.class), Expiry.expires( 500 ), 0, 1 );
+		return new WeakReference<>( r.serve( dependency( A.class ), da, new ConstantProvider<>( new A() ) ) );
+	}
+
+	@Test
+	public void thatRequestScopeClosesInstanceThatLostTheRace() throws Exception {
+		Repository r = Scoped.REQUEST.init();
+		InjectronInfo<Closeable> dc = new InjectronInfo<>( resource( Closeable.class ), source(TestScopes.class), Expiry.expires( 750 ), 0, 1 );
+		Closeable winner = new Closeable();
+		Closeable loser = new Closeable();
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		try ( Scoped.Request request = Scoped.REQUEST.open() ) {
+			Provider<Closeable> racing = () -> {
+				try {
+					pool.submit( request.wrap( () -> r.serve( dependency( Closeable.class ), dc, new ConstantProvider<>( winner ) ) ) ).get();
+				} catch ( Exception e ) {
+					throw new AssertionError( e );
+				}
+				return loser;
+			};
+			assertSame( winner, r.serve( dependency( Closeable.class ), dc, racing ) );
+			assertTrue( loser.closed );
+			assertFalse( winner.closed );
+		} finally {
+			pool.shutdown();
+		}
+		assertTrue( winner.closed );
+	}
+
+	@Test
+	public void thatRequestScopeClosesInstanceCreatedWhileTheRequestIsClosed() {
+		Repository r = Scoped.REQUEST.init();
+		InjectronInfo<Closeable> dc = new InjectronInfo<>( resource( Closeable.class ), source(TestScopes.class), Expiry.expires( 750 ), 0, 1 );
+		Closeable orphan = new Closeable();
+		Scoped.Request request = Scoped.REQUEST.open();
+		try {
+			r.serve( dependency( Closeable.class ), dc, () -> {
+				request.close(); // sweeps before the instance is stored
+				return orphan;
+			} );
+			fail( "request has been closed" );
+		} catch ( UnresolvableDependency.OutOfScope e ) {
+			assertTrue( orphan.closed );
+		}
+	}
+
+	@Test
+	public void thatStripedScopeCreatesOneInstancePerStripeAndReportsWaits() throws Exception {
+		Scoped.StripedScope scope = Scoped.striped( 2 );
+		Repository r = scope.init();
+		InjectronInfo<A> da = new InjectronInfo<>( resource( A.class ), source(TestScopes.class), Expiry.expires( 500 ), 0, 1 );
+		AtomicInteger created = new AtomicInteger();
+		Injectron<A> injectron = injectron( r, da, () -> { created.incrementAndGet(); return new A(); } );
+		Lease<A> lease = Scoped.lease( injectron, dependency( A.class ) );
+		A a = lease.get();
+		lease.close();
+		lease = Scoped.lease( injectron, dependency( A.class ) );
+		assertSame( a, lease.get() );
+		lease.close();
+		assertEquals( 1, created.get() );
+		ExecutorService pool = Executors.newFixedThreadPool( 4 );
+		try {
+			List<Future<?>> served = new ArrayList<>();
+			for ( int i = 0; i < 32; i++ ) {
+				served.add( pool.submit( () -> Scoped.lease( injectron, dependency( A.class ) ).close() ) );
+			}
+			for ( Future<?> f : served ) {
+				f.get();
+			}
+		} finally {
+			pool.shutdown();
+		}
+		assertTrue( created.get() <= 2 );
+		List<Scoped.StripeStats> stats = scope.stats();
+		assertEquals( 1, stats.size() );
+		assertEquals( created.get(), stats.get( 0 ).created );
+		assertEquals( 34L, stats.get( 0 ).served );
+	}
+
+	@Test
+	public void thatStripedInstanceIsLockedUntilReleased() throws Exception {
+		Scoped.StripedScope scope = Scoped.striped( 1 );
+		Repository r = scope.init();
+		InjectronInfo<A> da = new InjectronInfo<>( resource( A.class ), source(TestScopes.class), Expiry.expires( 500 ), 0, 1 );
+		Injectron<A> injectron = injectron( r, da, A::new );
+		Lease<A> lease = Scoped.lease( injectron, dependency( A.class ) );
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		try {
+			Future<Lease<A>> other = pool.submit( () -> Scoped.lease( injectron, dependency( A.class ) ) );
+			Thread.sleep( 20 );
+			assertFalse( other.isDone() );
+			A a = lease.get();
+			lease.close();
+			assertSame( a, other.get().get() );
+			other.get().close(); // closed by a thread other than the one that leased
+			Scoped.lease( injectron, dependency( A.class ) ).close();
+		} finally {
+			pool.shutdown();
+		}
+		Scoped.StripeStats stats = scope.stats().get( 0 );
+		assertEquals( 1L, stats.waits );
+		assertTrue( stats.waitNanos > 0L );
+	}
+
+	@Test
+	public void thatNestedLeaseOfTheSameStripeIsRejected() {
+		Repository r = Scoped.striped( 1 ).init();
+		InjectronInfo<A> da = new InjectronInfo<>( resource( A.class ), source(TestScopes.class), Expiry.expires( 500 ), 0, 1 );
+		Injectron<A> injectron = injectron( r, da, A::new );
+		try ( Lease<A> lease = Scoped.lease( injectron, dependency( A.class ) ) ) {
+			Scoped.lease( injectron, dependency( A.class ) );
+			fail( "nested lease should have been rejected" );
+		} catch ( IllegalStateException e ) {
+			// expected
+		}
+		Scoped.lease( injectron, dependency( A.class ) ).close();
+	}
+
+	@Test ( timeout = 5000 )
+	public void thatFillingAPoolDoesNotBlockOtherBindings() throws Exception {
+		Repository r = Scoped.pooled( 1, 2 ).init();
+		InjectronInfo<A> da = new InjectronInfo<>( resource( A.class ), source(TestScopes.class), Expiry.expires( 1000 ), 0, 2 );
+		InjectronInfo<B> db = new InjectronInfo<>( resource( B.class ), source(TestScopes.class), Expiry.expires( 1000 ), 1, 2 );
+		CountDownLatch filling = new CountDownLatch( 1 );
+		CountDownLatch done = new CountDownLatch( 1 );
+		Injectron<A> slow = injectron( r, da, () -> {
+			filling.countDown();
+			try {
+				done.await();
+			} catch ( InterruptedException e ) {
+				throw new AssertionError( e );
+			}
+			return new A();
+		} );
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		try {
+			Future<?> a = pool.submit( () -> Scoped.lease( slow, dependency( A.class ) ).close() );
+			filling.await();
+			Scoped.lease( injectron( r, db, B::new ), dependency( B.class ) ).close();
+			done.countDown();
+			a.get();
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test ( expected = UnresolvableDependency.OutOfScope.class )
+	public void thatStripedInstanceCannotBeResolvedWithoutLease() {
+		Repository r = Scoped.striped( 1 ).init();
+		InjectronInfo<A> da = new InjectronInfo<>( resource( A.class ), source(TestScopes.class), Expiry.expires( 500 ), 0, 1 );
+		r.serve( dependency( A.class ), da, A::new );
+	}
+
+	private static <T> Injectron<T> injectron( Repository r, InjectronInfo<T> info, Provider<T> provider ) {
+		return new Injectron<T>() {
+
+			@Override
+			public T instanceFor( Dependency<? super T> dependency ) {
+				return r.serve( dependency, info, provider );
+			}
+
+			@Override
+			public InjectronInfo<T> info() {
+				return info;
+			}
+		};
+	}
+
+	@Test
+	public void thatTimeToLiveScopeCreatesNewInstanceAfterExpiry() throws Exception {
+		Repository r = Scoped.timeToLive( 100, TimeUnit.MILLISECONDS ).init();
+		InjectronInfo<A> da = new InjectronInfo<>( resource( A.class ), source(TestScopes.class), Expiry.NEVER, 0, 1 );
+		A a = r.serve( dependency( A.class ), da, A::new );
+		assertSame( a, r.serve( dependency( A.class ), da, A::new ) );
+		Thread.sleep( 120 );
+		A renewed = r.serve( dependency( A.class ), da, A::new );
+		assertFalse( a == renewed );
+		assertSame( renewed, r.serve( dependency( A.class ), da, A::new ) );
+	}
+
+	@Test
+	public void thatRefreshAheadScopeServesCurrentInstanceWhileRefreshing() throws Exception {
+		ExecutorService refresher = Executors.newSingleThreadExecutor();
+		try {
+			Repository r = Scoped.timeToLive( 40, TimeUnit.MILLISECONDS, refresher ).init();
+			InjectronInfo<A> da = new InjectronInfo<>( resource( A.class ), source(TestScopes.class), Expiry.NEVER, 0, 1 );
+			CountDownLatch refreshing = new CountDownLatch( 1 );
+			A a = r.serve( dependency( A.class ), da, A::new );
+			Thread.sleep( 35 );
+			Provider<A> slow = () -> {
+				try {
+					refreshing.await( 5, TimeUnit.SECONDS );
+				} catch ( InterruptedException e ) {
+					Thread.currentThread().interrupt();
+				}
+				return new A();
+			};
+			assertSame( a, r.serve( dependency( A.class ), da, slow ) );
+			Thread.sleep( 10 ); // now expired but the refresh is still waiting
+			assertSame( a, r.serve( dependency( A.class ), da, null ) );
+			refreshing.countDown();
+			refresher.submit( () -> { /* wait for the refresh */ } ).get();
+			assertFalse( a == r.serve( dependency( A.class ), da, null ) );
+		} finally {
+			refresher.shutdown();
+		}
+	}
+
+	@Test ( timeout = 5000 )
+	public void thatTimeToLiveScopeCreatesInstancesOfDifferentBindingsConcurrently() throws Exception {
+		Repository r = Scoped.timeToLive( 1, TimeUnit.MINUTES ).init();
+		InjectronInfo<A> da = new InjectronInfo<>( resource( A.class ), source(TestScopes.class), Expiry.NEVER, 0, 2 );
+		InjectronInfo<B> db = new InjectronInfo<>( resource( B.class ), source(TestScopes.class), Expiry.NEVER, 1, 2 );
+		CountDownLatch creatingA = new CountDownLatch( 1 );
+		CountDownLatch createdB = new CountDownLatch( 1 );
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		try {
+			Future<A> a = pool.submit( () -> r.serve( dependency( A.class ), da, () -> {
+				creatingA.countDown();
+				try {
+					createdB.await();
+				} catch ( InterruptedException e ) {
+					Thread.currentThread().interrupt();
+				}
+				return new A();
+			} ) );
+			creatingA.await();
+			r.serve( dependency( B.class ), db, B::new );
+			createdB.countDown();
+			a.get();
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void thatShorterTimeToLiveExpiresMoreFrequently() {
+		Expiry minute = Scoped.timeToLive( 1, TimeUnit.MINUTES ).expiry();
+		Expiry hour = Scoped.timeToLive( 1, TimeUnit.HOURS ).expiry();
+		assertTrue( minute.moreFrequent( hour ) );
+		assertTrue( hour.moreFrequent( Expiry.NEVER ) );
+		assertTrue( Scoped.THREAD.expiry().moreFrequent( minute ) );
+	}
+
+	@Test
+	public void thatEvictedInstancesExpireLeastFrequentlyOfExpiringOnes() {
+		Expiry lru = Scoped.lru( Scoped.DEPENDENCY_TYPE_KEY, 2 ).expiry();
+		Expiry soft = Scoped.softly( Scoped.DEPENDENCY_TYPE_KEY ).expiry();
+		assertTrue( lru.moreFrequent( Expiry.NEVER ) );
+		assertTrue( soft.equalTo( lru ) );
+		assertTrue( Scoped.timeToLive( 1, TimeUnit.DAYS ).expiry().moreFrequent( lru ) );
+		assertTrue( Scoped.TARGET_CLASS.expiry().isNever() );
+		assertTrue( Scoped.APPLICATION.expiry().isNever() );
+	}
+
+	@Test
+	public void thatLruScopeEvictsInstancesNotRecentlyUsed() {
+		Scoped.BoundedScope scope = Scoped.lru( Scoped.DEPENDENCY_INSTANCE_KEY, 2 );
+		Repository r = scope.init();
+		InjectronInfo<A> da = new InjectronInfo<>( resource( A.class ), source(TestScopes.class), Expiry.NEVER, 0, 1 );
+		A a1 = r.serve( dependency( A.class ).named( "1" ), da, A::new );
+		A a2 = r.serve( dependency( A.class ).named( "2" ), da, A::new );
+		assertSame( a1, r.serve( dependency( A.class ).named( "1" ), da, null ) );
+		r.serve( dependency( A.class ).named( "3" ), da, A::new );
+		assertEquals( 2, scope.size() );
+		assertEquals( 1L, scope.evictions() );
+		assertSame( a1, r.serve( dependency( A.class ).named( "1" ), da, null ) );
+		assertFalse( a2 == r.serve( dependency( A.class ).named( "2" ), da, A::new ) );
+	}
+
+	@Test
+	public void thatLruScopeContinuesEvictionWhereItStopped() {
+		Scoped.BoundedScope scope = Scoped.lru( Scoped.DEPENDENCY_INSTANCE_KEY, 3 );
+		Repository r = scope.init();
+		InjectronInfo<A> da = new InjectronInfo<>( resource( A.class ), source(TestScopes.class), Expiry.NEVER, 0, 1 );
+		A a1 = r.serve( dependency( A.class ).named( "1" ), da, A::new );
+		A a2 = r.serve( dependency( A.class ).named( "2" ), da, A::new );
+		A a3 = r.serve( dependency( A.class ).named( "3" ), da, A::new );
+		r.serve( dependency( A.class ).named( "1" ), da, null );
+		r.serve( dependency( A.class ).named( "2" ), da, null );
+		A a4 = r.serve( dependency( A.class ).named( "4" ), da, A::new ); // evicts 3, the only one not used
+		assertFalse( a3 == r.serve( dependency( A.class ).named( "3" ), da, A::new ) ); // evicts 1, used before the last round
+		assertSame( a2, r.serve( dependency( A.class ).named( "2" ), da, null ) );
+		assertSame( a4, r.serve( dependency( A.class ).named( "4" ), da, null ) );
+		assertFalse( a1 == r.serve( dependency( A.class ).named( "1" ), da, A::new ) );
+		assertEquals( 3, scope.size() );
+		assertEquals( 3L, scope.evictions() );
+	}
+
+	@Test
+	public void thatSoftScopeKeepsInstancesWhileReferenced() {
+		Scoped.BoundedScope scope = Scoped.softly( Scoped.DEPENDENCY_TYPE_KEY );
+		Repository r = scope.init();
+		InjectronInfo<A> da = new InjectronInfo<>( resource( A.class ), source(TestScopes.class), Expiry.NEVER, 0, 1 );
+		A a = r.serve( dependency( A.class ), da, A::new );
+		assertSame( a, r.serve( dependency( A.class ), da, null ) );
+		assertEquals( 1, scope.size() );
+	}
+
+	@Test
+	public void thatTargetClassScopeEnsuresSingletonPerTargetClass() {
+		Repository r = Scoped.TARGET_CLASS.init();
+		InjectronInfo<A> da = new InjectronInfo<>( resource( A.class ), source(TestScopes.class), Expiry.NEVER, 0, 2 );
+		InjectronInfo<B> db = new InjectronInfo<>( resource( B.class ), source(TestScopes.class), Expiry.NEVER, 1, 2 );
+		A a = r.serve( dependency( A.class ).injectingInto( B.class ), da, A::new );
+		assertSame( a, r.serve( dependency( A.class ).named( "other" ).injectingInto( B.class ), da, null ) );
+		assertFalse( a == r.serve( dependency( A.class ).injectingInto( String.class ), da, A::new ) );
+		B b = r.serve( dependency( B.class ).injectingInto( A.class ), db, B::new );
+		assertSame( b, r.serve( dependency( B.class ).injectingInto( A.class ), db, null ) );
+	}
 }